@@ -9,17 +9,24 @@ import net.pet.project.simplerest.configuration.jackson.date.JsonLocalDateDeseri
 import net.pet.project.simplerest.configuration.jackson.date.JsonLocalDateSerializer;
 import net.pet.project.simplerest.configuration.jackson.date.JsonLocalDateTimeDeserializer;
 import net.pet.project.simplerest.configuration.jackson.date.JsonLocalDateTimeSerializer;
+import net.pet.project.simplerest.configuration.jackson.tuple.JsonTupleSerializer;
+import net.pet.project.simplerest.configuration.web.EtagHeaderFilter;
+import net.pet.project.simplerest.controller.AbstractController;
 import net.pet.project.simplerest.controller.error.ApiExceptionHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 
+import javax.persistence.Tuple;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
 import static net.pet.project.simplerest.configuration.jackson.date.DateFormatConstants.LOCAL_DATE_TIME_WITH_TIMEZONE_FORMAT;
@@ -33,6 +40,7 @@ public class CommonConfig {
 
     private static final String JACKSON_MAPPER_BEAN_NAME = "objectMapper";
     private static final String LOG_TAG = "[COMMON_CONFIG] ::";
+    private static final String API_URL_PATTERN = "/api/*";
 
     private final Environment env;
 
@@ -48,6 +56,21 @@ public class CommonConfig {
         return new ApiExceptionHandler(env);
     }
 
+    /**
+     * ETag of GET responses as hash of body (pages), unchanged responses are answered with 304 without body.
+     * Handlers may set own ETag (for example, version of entity), then body isn't hashed.
+     * Streaming responses ({@link AbstractController#STREAM_ALL_PATH}, {@link AbstractController#EXPORT_PATH})
+     * aren't filtered, otherwise they are collected in memory
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        log.info("{} init ETag filter", LOG_TAG);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(
+                new EtagHeaderFilter(Set.of(AbstractController.STREAM_ALL_PATH, AbstractController.EXPORT_PATH)));
+        registration.addUrlPatterns(API_URL_PATTERN);
+        return registration;
+    }
+
     /**
      * Bean for serialize/deserialize.
      * @return {@link ObjectMapper}
@@ -85,6 +108,14 @@ public class CommonConfig {
         );
         objectMapper.registerModule(localDateTimeModule);
 
+        // Tuple (sparse fieldsets)
+        SimpleModule tupleModule = new SimpleModule();
+        tupleModule.addSerializer(
+                Tuple.class,
+                new JsonTupleSerializer()
+        );
+        objectMapper.registerModule(tupleModule);
+
         return objectMapper;
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package net.pet.project.simplerest.configuration.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Read-your-writes window: after commit of write transaction, reads of the same client go to primary
+ * for {@link ReplicaProperties#getReadYourWritesWindow()}, so client doesn't see replication lag.
+ * Client of current thread is set by {@link ReadYourWritesFilter}
+ * @author VN
+ */
+public class ReadYourWrites {
+
+    private static final int MAX_CLIENTS = 100_000;
+
+    private final ThreadLocal<String> client = new ThreadLocal<>();
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(final Duration window) {
+        this.recentWriters = window.isZero() || window.isNegative()
+                ? null
+                : Caffeine.newBuilder().maximumSize(MAX_CLIENTS).expireAfterWrite(window).build();
+    }
+
+    public void setClient(final String clientId) {
+        client.set(clientId);
+    }
+
+    public void clearClient() {
+        client.remove();
+    }
+
+    /**
+     * @return true if client of current thread committed write transaction inside window
+     */
+    public boolean isRecentWriter() {
+        final String clientId = client.get();
+        return Objects.nonNull(recentWriters)
+                && Objects.nonNull(clientId)
+                && Objects.nonNull(recentWriters.getIfPresent(clientId));
+    }
+
+    /**
+     * Remember client of current thread after commit of current write transaction
+     */
+    public void onWrite() {
+        final String clientId = client.get();
+        if (Objects.isNull(recentWriters)
+                || Objects.isNull(clientId)
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(clientId, Boolean.TRUE);
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package net.pet.project.simplerest.configuration.datasource;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Set client of request to {@link ReadYourWrites}: value of client header.
+ * Header is required for read-your-writes, request without header doesn't have client and its reads
+ * can go to replica right after its writes. Remote address isn't used as client, because behind proxy
+ * or load balancer it is the same for all clients
+ * @author VN
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWrites readYourWrites;
+    private final String clientHeader;
+
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites, String clientHeader) {
+        this.readYourWrites = readYourWrites;
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        final String clientId = request.getHeader(clientHeader);
+        if (StringUtils.isNotBlank(clientId)) {
+            readYourWrites.setClient(clientId);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.clearClient();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package net.pet.project.simplerest.configuration.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Configuration of read replicas, enabled if at least one replica is configured in
+ * {@code simple-rest.datasource.replicas}.
+ * Read-only transactions ({@code @Transactional(readOnly = true)}) go to replicas, other go to primary
+ * @author VN
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(name = "simple-rest.datasource.replicas[0].url")
+public class ReplicaDataSourceConfig {
+
+    private static final String LOG_TAG = "[REPLICA_CONF] ::";
+
+    /**
+     * Settings of primary pool, {@code spring.datasource.hikari} is applied as for default datasource
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariConfig primaryHikariConfig(DataSourceProperties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(properties.determineUrl());
+        config.setUsername(properties.determineUsername());
+        config.setPassword(properties.determinePassword());
+        config.setDriverClassName(properties.determineDriverClassName());
+        return config;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaProperties properties) {
+        return new ReadYourWrites(properties.getReadYourWritesWindow());
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWrites readYourWrites, ReplicaProperties properties) {
+        return new ReadYourWritesFilter(readYourWrites, properties.getClientHeader());
+    }
+
+    /**
+     * Primary and replica pools aren't beans, so the only {@link DataSource} in context is routing one
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariConfig primaryHikariConfig,
+                                 ReadYourWrites readYourWrites,
+                                 ReplicaProperties properties) {
+        log.info("{} init {} replicas with {} balancing", LOG_TAG, properties.getReplicas().size(), properties.getBalancing());
+        List<HikariDataSource> replicas = IntStream.range(0, properties.getReplicas().size())
+                .mapToObj(i -> buildReplica(i, properties.getReplicas().get(i)))
+                .collect(toList());
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+                new HikariDataSource(primaryHikariConfig), replicas, properties.getBalancing(), readYourWrites);
+        routingDataSource.afterPropertiesSet();
+        return new CloseableLazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private HikariDataSource buildReplica(final int index, final ReplicaProperties.Replica replica) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .build();
+        dataSource.setPoolName("replica-" + index);
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Close pools of routing datasource on shutdown of context
+     */
+    private static class CloseableLazyConnectionDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+
+        private final ReplicaRoutingDataSource routingDataSource;
+
+        private CloseableLazyConnectionDataSourceProxy(ReplicaRoutingDataSource routingDataSource) {
+            super(routingDataSource);
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Override
+        public void close() {
+            routingDataSource.close();
+        }
+    }
+}
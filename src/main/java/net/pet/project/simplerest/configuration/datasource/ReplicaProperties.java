@@ -0,0 +1,46 @@
+package net.pet.project.simplerest.configuration.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Properties of read replicas, primary datasource is configured by {@code spring.datasource}
+ * @author VN
+ */
+@Data
+@ConfigurationProperties(prefix = "simple-rest.datasource")
+public class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private Balancing balancing = Balancing.ROUND_ROBIN;
+
+    /**
+     * Time after commit of write transaction, while read-only transactions of the same client go to primary.
+     * Zero disables read-your-writes
+     */
+    private Duration readYourWritesWindow = Duration.ZERO;
+
+    /**
+     * Request header with client identifier. Requests without header don't have client, so they don't get
+     * read-your-writes (remote address isn't used, because behind proxy all clients have the same address)
+     */
+    private String clientHeader = "X-Client-Id";
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+
+    public enum Balancing {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+}
@@ -0,0 +1,100 @@
+package net.pet.project.simplerest.configuration.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Routing {@link DataSource}: read-only transactions go to one of replicas, other connections go to primary.
+ * Must be wrapped by {@link LazyConnectionDataSourceProxy}, so connection is taken on first statement,
+ * when read-only flag of transaction is already known
+ * @author VN
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica-";
+
+    private final DataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final ReplicaProperties.Balancing balancing;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(final DataSource primary,
+                                    final List<HikariDataSource> replicas,
+                                    final ReplicaProperties.Balancing balancing,
+                                    final ReadYourWrites readYourWrites) {
+        Assert.notEmpty(replicas, "replicas must not be empty");
+        this.primary = primary;
+        this.replicas = replicas;
+        this.balancing = balancing;
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        IntStream.range(0, replicas.size()).forEach(i -> targets.put(REPLICA + i, replicas.get(i)));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.onWrite();
+            }
+            return PRIMARY;
+        }
+        return readYourWrites.isRecentWriter() ? PRIMARY : REPLICA + chooseReplica();
+    }
+
+    /**
+     * Close pools of replicas and primary
+     */
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        if (primary instanceof Closeable) {
+            try {
+                ((Closeable) primary).close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private int chooseReplica() {
+        switch (balancing) {
+            case LEAST_CONNECTIONS:
+                return IntStream.range(0, replicas.size())
+                        .boxed()
+                        .min(Comparator.comparingInt(i -> activeConnections(replicas.get(i))))
+                        .orElse(0);
+            case ROUND_ROBIN:
+            default:
+                return Math.floorMod(next.getAndIncrement(), replicas.size());
+        }
+    }
+
+    private int activeConnections(final HikariDataSource replica) {
+        HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+        return Objects.isNull(pool) ? 0 : pool.getActiveConnections();
+    }
+}
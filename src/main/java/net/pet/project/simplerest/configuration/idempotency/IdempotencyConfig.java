@@ -0,0 +1,20 @@
+package net.pet.project.simplerest.configuration.idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration of requests with header {@code Idempotency-Key}, enabled by {@code simple-rest.idempotency.enabled}.
+ * Scheduling is needed for deletion of expired keys
+ * @author VN
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "simple-rest.idempotency.enabled", matchIfMissing = true)
+public class IdempotencyConfig {
+}
@@ -0,0 +1,31 @@
+package net.pet.project.simplerest.configuration.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties of requests with header {@code Idempotency-Key}
+ * {@link net.pet.project.simplerest.service.idempotency.IdempotencyService}
+ * @author VN
+ */
+@Data
+@ConfigurationProperties(prefix = "simple-rest.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * If disabled then header {@code Idempotency-Key} is ignored
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long response is replayed for repeat of request, after that key may be used again
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Interval of deletion of expired keys, only ISO-8601 format (PT1H) because it's read by {@code @Scheduled}
+     */
+    private Duration cleanupInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,37 @@
+package net.pet.project.simplerest.configuration.index;
+
+import net.pet.project.simplerest.service.cache.CacheInvalidationBus;
+import net.pet.project.simplerest.service.index.KeyIndex;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.Assert;
+
+import java.util.Objects;
+
+/**
+ * Configuration of in-memory index of logins that is used by
+ * {@link net.pet.project.simplerest.service.administrating.UserService}, enabled by
+ * {@code simple-rest.login-index.enabled}. Index requires {@link CacheInvalidationBus}: without it logins that are
+ * created by other nodes are absent for index, so application doesn't start
+ * @author VN
+ */
+@Configuration
+@EnableConfigurationProperties(LoginIndexProperties.class)
+@ConditionalOnProperty(name = "simple-rest.login-index.enabled", havingValue = "true")
+public class LoginIndexConfig {
+
+    public static final String LOGIN_INDEX = "loginIndex";
+
+    /**
+     * @throws IllegalStateException if {@code simple-rest.cache.invalidation.enabled} isn't true
+     */
+    @Bean(LOGIN_INDEX)
+    public KeyIndex loginIndex(LoginIndexProperties properties, ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        Assert.state(Objects.nonNull(invalidationBus.getIfAvailable()),
+                "simple-rest.login-index.enabled requires simple-rest.cache.invalidation.enabled");
+        return new KeyIndex("login", properties.getExpectedLogins(), properties.getFalsePositiveProbability());
+    }
+}
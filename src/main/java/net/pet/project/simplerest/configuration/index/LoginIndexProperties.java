@@ -0,0 +1,29 @@
+package net.pet.project.simplerest.configuration.index;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties of in-memory index of logins {@link net.pet.project.simplerest.service.index.KeyIndex}
+ * @author VN
+ */
+@Data
+@ConfigurationProperties(prefix = "simple-rest.login-index")
+public class LoginIndexProperties {
+
+    /**
+     * Index requires {@code simple-rest.cache.invalidation.enabled}, otherwise logins that are written by
+     * other nodes are unknown for index. Application doesn't start if invalidation is disabled
+     */
+    private boolean enabled;
+
+    /**
+     * Expected count of logins, size of index is about 1.2 bytes per login for probability 0.01
+     */
+    private long expectedLogins = 1_000_000;
+
+    /**
+     * Probability that lookup of not existing login goes to DB
+     */
+    private double falsePositiveProbability = 0.01;
+}
@@ -0,0 +1,38 @@
+package net.pet.project.simplerest.configuration.jackson.tuple;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Realisation {@link JsonSerializer} for serialize {@link Tuple} as object {@code {"alias": value, ...}}
+ * in order of selection, so selected columns are written without intermediate dto or map
+ * @author VN
+ */
+public class JsonTupleSerializer extends JsonSerializer<Tuple> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(Tuple value,
+                          JsonGenerator gen,
+                          SerializerProvider serializers) throws IOException {
+        List<TupleElement<?>> elements = value.getElements();
+        gen.writeStartObject(value, elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            serializers.defaultSerializeField(elements.get(i).getAlias(), value.get(i), gen);
+        }
+        gen.writeEndObject();
+    }
+
+    @Override
+    public Class<Tuple> handledType() {
+        return Tuple.class;
+    }
+}
@@ -0,0 +1,29 @@
+package net.pet.project.simplerest.configuration.jpa;
+
+import lombok.Data;
+import net.pet.project.simplerest.repository.id.IdGenerationStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Instant;
+
+/**
+ * Properties of generation of entity identifiers by {@link net.pet.project.simplerest.repository.id.EntityIdGenerator}
+ * @author VN
+ */
+@Data
+@ConfigurationProperties(prefix = "simple-rest.id-generation")
+public class IdGenerationProperties {
+
+    private IdGenerationStrategy strategy = IdGenerationStrategy.POOLED_LO;
+
+    /**
+     * Unique id of node (0..1023) for {@link IdGenerationStrategy#TIME_BASED}, required for this strategy
+     * (without default, because two nodes with the same id generate the same ids)
+     */
+    private Long nodeId;
+
+    /**
+     * Start of time of {@link IdGenerationStrategy#TIME_BASED} ids, must not be changed after first id
+     */
+    private Instant epoch = Instant.parse("2021-01-01T00:00:00Z");
+}
@@ -0,0 +1,56 @@
+package net.pet.project.simplerest.configuration.jpa;
+
+import lombok.extern.slf4j.Slf4j;
+import net.pet.project.simplerest.repository.BaseRepository;
+import net.pet.project.simplerest.repository.id.EntityIdGenerator;
+import net.pet.project.simplerest.repository.id.IdGenerationStrategy;
+import net.pet.project.simplerest.repository.id.TimeBasedIdGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.util.Assert;
+
+/**
+ * Configuration for jpa repositories.
+ * All repositories are based on {@link BaseRepository}
+ * @author VN
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(IdGenerationProperties.class)
+@EnableJpaRepositories(
+        basePackages = "net.pet.project.simplerest.repository",
+        repositoryBaseClass = BaseRepository.class
+)
+public class JpaConfig {
+
+    private static final String LOG_TAG = "[JPA_CONF] ::";
+
+    /**
+     * Pass strategy of ids to {@link EntityIdGenerator}, time based generator is shared by all entities of node
+     * @throws IllegalArgumentException if strategy is time based and node id isn't set or out of range,
+     *                                  so application doesn't start
+     */
+    @Bean
+    public HibernatePropertiesCustomizer idGenerationCustomizer(IdGenerationProperties properties) {
+        log.info("{} id generation strategy {}", LOG_TAG, properties.getStrategy());
+        final TimeBasedIdGenerator timeBasedGenerator = properties.getStrategy() == IdGenerationStrategy.TIME_BASED
+                ? createTimeBasedGenerator(properties)
+                : null;
+        return hibernateProperties -> {
+            hibernateProperties.put(EntityIdGenerator.STRATEGY_SETTING, properties.getStrategy().name());
+            if (timeBasedGenerator != null) {
+                hibernateProperties.put(EntityIdGenerator.TIME_BASED_GENERATOR_SETTING, timeBasedGenerator);
+            }
+        };
+    }
+
+    private TimeBasedIdGenerator createTimeBasedGenerator(IdGenerationProperties properties) {
+        Assert.notNull(properties.getNodeId(),
+                "simple-rest.id-generation.node-id must be set for strategy " + IdGenerationStrategy.TIME_BASED);
+        log.info("{} node id {}", LOG_TAG, properties.getNodeId());
+        return new TimeBasedIdGenerator(properties.getNodeId(), properties.getEpoch());
+    }
+}
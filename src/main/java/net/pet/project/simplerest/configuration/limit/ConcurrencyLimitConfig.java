@@ -0,0 +1,39 @@
+package net.pet.project.simplerest.configuration.limit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration of adaptive concurrency limits of {@link net.pet.project.simplerest.controller.AbstractController}
+ * endpoints, disabled by default (enabled by {@code simple-rest.concurrency-limit.enabled=true})
+ * @author VN
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "simple-rest.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private static final String LOG_TAG = "[LIMIT_CONF] ::";
+
+    private final ConcurrencyLimitInterceptor interceptor;
+
+    public ConcurrencyLimitConfig(ConcurrencyLimitProperties properties) {
+        log.info("{} init read limit {} and write limit {}", LOG_TAG, properties.getRead(), properties.getWrite());
+        this.interceptor = new ConcurrencyLimitInterceptor(
+                new GradientLimiter("read", properties.getRead()),
+                new GradientLimiter("write", properties.getWrite()),
+                properties.getRetryAfter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor);
+    }
+}
@@ -0,0 +1,90 @@
+package net.pet.project.simplerest.configuration.limit;
+
+import net.pet.project.simplerest.controller.AbstractController;
+import net.pet.project.simplerest.exception.OverloadException;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * Concurrency limit of {@link AbstractController} endpoints: request over limit is rejected with
+ * {@link OverloadException} before handler is called.
+ * Permit of async request (streaming) is held until end of async processing, but its latency isn't used
+ * for limit
+ * @author VN
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final GradientLimiter readLimiter;
+    private final GradientLimiter writeLimiter;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitInterceptor(GradientLimiter readLimiter, GradientLimiter writeLimiter, Duration retryAfter) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!isLimited(handler) || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        final GradientLimiter limiter = isRead(request) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            throw new OverloadException(limiter.getName(), limiter.getLimit(), retryAfter);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        final Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            permit.async = true;
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        final Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit == null) {
+            return;
+        }
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        if (permit.async || ex != null || response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+            permit.limiter.onIgnore();
+        } else {
+            permit.limiter.onSuccess(System.nanoTime() - permit.start);
+        }
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private boolean isLimited(final Object handler) {
+        return handler instanceof HandlerMethod
+                && AbstractController.class.isAssignableFrom(((HandlerMethod) handler).getBeanType());
+    }
+
+    private boolean isRead(final HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    private static class Permit {
+        private final GradientLimiter limiter;
+        private final long start;
+        private volatile boolean async;
+
+        private Permit(GradientLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package net.pet.project.simplerest.configuration.limit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties of adaptive concurrency limits of {@link net.pet.project.simplerest.controller.AbstractController}
+ * endpoints, reads ({@code GET}, {@code HEAD}) and writes have separate limits
+ * @author VN
+ */
+@Data
+@ConfigurationProperties(prefix = "simple-rest.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled;
+
+    /**
+     * Value of {@code Retry-After} for rejected requests, rounded up to seconds
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Limit read = new Limit(50, 10, 500);
+
+    private Limit write = new Limit(20, 4, 200);
+
+    @Data
+    public static class Limit {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        /**
+         * Latency may grow in this factor without decrease of limit
+         */
+        private double rttTolerance = 1.5;
+
+        /**
+         * Share of new limit in limit after every sample
+         */
+        private double smoothing = 0.2;
+
+        public Limit() {
+        }
+
+        public Limit(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+}
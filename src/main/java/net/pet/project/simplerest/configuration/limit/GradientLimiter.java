@@ -0,0 +1,114 @@
+package net.pet.project.simplerest.configuration.limit;
+
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive limit of concurrent requests by gradient of latency.
+ * Long-term latency is exponential average of samples, it's compared with latency of the last sample:
+ * {@code gradient = max(0.5, min(1, tolerance * longRtt / rtt))}, {@code newLimit = limit * gradient + sqrt(limit)}.
+ * So while latency is stable limit grows by queue of {@code sqrt(limit)}, and when latency grows (DB slows down)
+ * limit goes down, requests over limit are rejected at once instead of waiting for connection
+ * @author VN
+ */
+public class GradientLimiter {
+
+    private static final int LONG_WINDOW = 600;
+    private static final int WARMUP_SAMPLES = 10;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DRIFT_THRESHOLD = 2.0;
+    private static final double DRIFT_DECAY = 0.95;
+
+    @Getter
+    private final String name;
+    private final ConcurrencyLimitProperties.Limit settings;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double limit;
+    private double longRtt;
+    private long samples;
+
+    public GradientLimiter(final String name, final ConcurrencyLimitProperties.Limit settings) {
+        Assert.isTrue(settings.getMinLimit() > 0, "minLimit must be positive");
+        Assert.isTrue(settings.getMinLimit() <= settings.getInitialLimit()
+                && settings.getInitialLimit() <= settings.getMaxLimit(), "must be minLimit <= initialLimit <= maxLimit");
+        this.name = name;
+        this.settings = settings;
+        this.limit = settings.getInitialLimit();
+    }
+
+    /**
+     * Take permit for request, permit must be returned by {@link GradientLimiter#onSuccess(long)}
+     * or {@link GradientLimiter#onIgnore()}
+     * @return false if limit is reached, request must be rejected
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= getLimit()) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return permit and update limit by latency of request
+     */
+    public void onSuccess(final long rttNanos) {
+        final int current = inFlight.getAndDecrement();
+        update(rttNanos, current);
+    }
+
+    /**
+     * Return permit without update of limit (for example, request failed or latency isn't representative)
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private synchronized void update(final long rttNanos, final int inFlightAtEnd) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        final double rtt = rttNanos;
+        samples++;
+        longRtt = samples <= WARMUP_SAMPLES
+                ? longRtt + (rtt - longRtt) / samples
+                : longRtt + (rtt - longRtt) * 2 / (LONG_WINDOW + 1);
+        if (longRtt / rtt > DRIFT_THRESHOLD) {
+            // load went down: forget old high latency faster, so limit isn't kept low
+            longRtt *= DRIFT_DECAY;
+        }
+        if (inFlightAtEnd < limit / 2) {
+            // limit isn't used, latency says nothing about it
+            return;
+        }
+        final double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, settings.getRttTolerance() * longRtt / rtt));
+        final double newLimit = limit * gradient + Math.sqrt(limit);
+        final double smoothed = limit * (1 - settings.getSmoothing()) + newLimit * settings.getSmoothing();
+        limit = Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), smoothed));
+    }
+}
@@ -0,0 +1,26 @@
+package net.pet.project.simplerest.configuration.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * R2DBC configuration of reactive stack, {@link ConnectionFactory} is configured by {@code spring.r2dbc}.
+ * Schema is still created by JPA ({@code spring.jpa.hibernate.ddl-auto}) that works over JDBC
+ * @author VN
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDataConfig {
+
+    private static final String LOG_TAG = "[REACTIVE_DATA_CONF] ::";
+
+    @Bean
+    public ReactiveTransactions reactiveTransactions(ConnectionFactory connectionFactory) {
+        log.info("{} init r2dbc transactions", LOG_TAG);
+        return new ReactiveTransactions(connectionFactory);
+    }
+}
@@ -0,0 +1,27 @@
+package net.pet.project.simplerest.configuration.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.Getter;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Transactions of R2DBC for reactive services.
+ * Transaction manager isn't bean, otherwise it replaces transaction manager of JPA that is used by {@code @Transactional}
+ * @author VN
+ */
+@Getter
+public class ReactiveTransactions {
+
+    private final TransactionalOperator write;
+    private final TransactionalOperator readOnly;
+
+    public ReactiveTransactions(final ConnectionFactory connectionFactory) {
+        final R2dbcTransactionManager transactionManager = new R2dbcTransactionManager(connectionFactory);
+        final DefaultTransactionDefinition readOnlyDefinition = new DefaultTransactionDefinition();
+        readOnlyDefinition.setReadOnly(true);
+        this.write = TransactionalOperator.create(transactionManager);
+        this.readOnly = TransactionalOperator.create(transactionManager, readOnlyDefinition);
+    }
+}
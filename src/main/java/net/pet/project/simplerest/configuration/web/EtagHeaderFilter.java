@@ -0,0 +1,29 @@
+package net.pet.project.simplerest.configuration.web;
+
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Set;
+
+/**
+ * {@link ShallowEtagHeaderFilter} which skips streaming responses: body of them isn't hashed,
+ * otherwise whole response (all entities, whole table) is collected in memory before it is sent
+ * @author VN
+ */
+public class EtagHeaderFilter extends ShallowEtagHeaderFilter {
+
+    private final Set<String> streamingPaths;
+
+    /**
+     * @param streamingPaths endings of request path of streaming responses, for example /all
+     */
+    public EtagHeaderFilter(Set<String> streamingPaths) {
+        this.streamingPaths = Set.copyOf(streamingPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        final String path = request.getRequestURI();
+        return streamingPaths.stream().anyMatch(path::endsWith);
+    }
+}
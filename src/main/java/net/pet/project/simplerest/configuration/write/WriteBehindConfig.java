@@ -0,0 +1,32 @@
+package net.pet.project.simplerest.configuration.write;
+
+import lombok.extern.slf4j.Slf4j;
+import net.pet.project.simplerest.service.write.GroupCommitWriterFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Configuration of write-behind with group commit for services
+ * {@link net.pet.project.simplerest.service.AbstractService}, enabled by {@code simple-rest.write-behind.enabled}
+ * @author VN
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+@ConditionalOnProperty(name = "simple-rest.write-behind.enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    private static final String LOG_TAG = "[WRITE_BEHIND_CONF] ::";
+
+    @Bean
+    public GroupCommitWriterFactory groupCommitWriterFactory(PlatformTransactionManager transactionManager,
+                                                             WriteBehindProperties properties) {
+        log.info("{} group commit of up to {} writes in {}", LOG_TAG, properties.getBatchSize(), properties.getMaxDelay());
+        return new GroupCommitWriterFactory(new TransactionTemplate(transactionManager), properties.getBatchSize(),
+                properties.getMaxDelay(), properties.getQueueCapacity());
+    }
+}
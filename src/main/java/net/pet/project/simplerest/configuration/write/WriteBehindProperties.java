@@ -0,0 +1,42 @@
+package net.pet.project.simplerest.configuration.write;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties of write-behind with group commit {@link net.pet.project.simplerest.service.write.GroupCommitWriter}
+ * @author VN
+ */
+@Data
+@ConfigurationProperties(prefix = "simple-rest.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * Creates and updates of {@link net.pet.project.simplerest.controller.AbstractController} are committed
+     * in batches, every request still waits for commit of own write
+     */
+    private boolean enabled;
+
+    /**
+     * Max count of writes in one transaction
+     */
+    private int batchSize = 100;
+
+    /**
+     * Max time that the first write of batch waits for other writes, it's added to latency of write at low load
+     */
+    private Duration maxDelay = Duration.ofMillis(5);
+
+    /**
+     * Max count of queued writes of one entity type, next writes are rejected with 503
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Max time that request waits for commit of own write, then request fails with 503
+     * (write may still be committed later)
+     */
+    private Duration awaitTimeout = Duration.ofSeconds(30);
+}
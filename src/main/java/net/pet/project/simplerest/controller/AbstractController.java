@@ -1,14 +1,40 @@
 package net.pet.project.simplerest.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.pet.project.simplerest.dto.BatchResult;
 import net.pet.project.simplerest.dto.IDto;
 import net.pet.project.simplerest.exception.ControllerException;
+import net.pet.project.simplerest.exception.OverloadException;
 import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.model.IVersionedEntity;
+import net.pet.project.simplerest.repository.copy.CopyFormat;
+import net.pet.project.simplerest.repository.filter.Filter;
+import net.pet.project.simplerest.repository.filter.FilterCondition;
+import net.pet.project.simplerest.repository.filter.FilterOperator;
+import net.pet.project.simplerest.repository.filter.FilterSpecification;
+import net.pet.project.simplerest.repository.keyset.Keyset;
+import net.pet.project.simplerest.repository.keyset.KeysetPage;
+import net.pet.project.simplerest.repository.keyset.KeysetRequest;
+import net.pet.project.simplerest.repository.projection.Projection;
 import net.pet.project.simplerest.service.IBaseService;
+import net.pet.project.simplerest.service.idempotency.IdempotencyService;
+import net.pet.project.simplerest.service.idempotency.IdempotentResult;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,14 +42,43 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.persistence.Tuple;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.ParameterizedType;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
+import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 /**
  * Abstract crud realisation for rest controller {@link RestController}
@@ -34,10 +89,37 @@ import static java.util.stream.Collectors.toList;
  */
 public abstract class AbstractController<E extends IEntity<T>, D extends IDto, T> {
 
+    /** Paths of streaming responses, they aren't buffered for ETag */
+    public static final String STREAM_ALL_PATH = "/all";
+    public static final String EXPORT_PATH = "/export";
+
     private static final String ERROR_MSG = "something went wrong";
+    private static final int IDEMPOTENCY_KEY_MAX_LENGTH = 255;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final String GZIP = "gzip";
 
     protected final IBaseService<E, T> service;
 
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected Validator validator;
+
+    @Value("${simple-rest.stream.fetch-size:500}")
+    protected int streamFetchSize;
+
+    @Value("${simple-rest.batch-get.max-size:1000}")
+    protected int batchGetMaxSize;
+
+    @Value("${simple-rest.bulk.max-size:1000}")
+    protected int bulkMaxSize;
+
+    @Value("${simple-rest.write-behind.await-timeout:30s}")
+    protected Duration writeAwaitTimeout;
+
+    protected IdempotencyService idempotencyService;
+
     public AbstractController(IBaseService<E, T> service) {
         this.service = service;
     }
@@ -57,73 +139,251 @@ public abstract class AbstractController<E extends IEntity<T>, D extends IDto, T
                 .orElseThrow(() -> new ControllerException(ERROR_MSG));
     }
 
+    /**
+     * Stream all entities {@link E} in format ndjson (one json per line).
+     * Entities are read from DB cursor and written to response one by one
+     */
+    @Operation(
+            summary = "Stream all entities",
+            description = "Return all entities in format ndjson without loading all entities to memory"
+    )
+    @GetMapping(value = STREAM_ALL_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+                service.streamAll(streamFetchSize, e -> {
+                    try {
+                        writer.write(toDTO(e));
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Export all entities {@link E} with one request by PostgreSQL COPY: rows are written by DB driver
+     * to response as is, without mapping to entities and dto. Response is compressed by gzip if client accepts it
+     * @param fields fields of export, every field must be in {@link AbstractController#getSelectableFields()},
+     *               if null then {@link AbstractController#getExportFields()}
+     * @param format csv with header or binary format of PostgreSQL
+     */
+    @Operation(
+            summary = "Export all entities",
+            description = "Export all entities as csv with header (?format=CSV, default) or binary format of " +
+                    "PostgreSQL (?format=BINARY), only requested fields are exported (for example ?fields=id,login). " +
+                    "With header Accept-Encoding: gzip response is compressed"
+    )
+    @GetMapping(EXPORT_PATH)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "fields", required = false) List<String> fields,
+                                                        @RequestParam(value = "format", defaultValue = "CSV") CopyFormat format,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        final Set<String> exported = checkFields(fields != null ? fields : getExportFields());
+        final boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (!gzip) {
+                service.export(exported, format, out);
+                return;
+            }
+            // driver writes row by row, so rows are buffered before deflater
+            GZIPOutputStream zip = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+            BufferedOutputStream buffered = new BufferedOutputStream(zip, EXPORT_BUFFER_SIZE);
+            service.export(exported, format, buffered);
+            buffered.flush();
+            zip.finish();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(getEntityName().toLowerCase() + "." + format.getExtension())
+                        .build()
+                        .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.body(body);
+    }
+
     /**
      * Return page with entities {@link E}
+     * @param filter conditions of entities, every condition must be allowed by
+     *               {@link AbstractController#getFilterableFields()}
      */
     @Operation(
             summary = "Get page with entities",
-            description = "Return page with entities without filtering and sorting"
+            description = "Return page with entities, filtered by conditions field:operator:value separated by ';' " +
+                    "(for example ?filter=id:gt:100;login:prefix:adm)"
     )
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public Page<D> getPage(@PageableDefault Pageable page) {
-        return Optional.ofNullable(service.getAll(page))
+    public Page<D> getPage(@RequestParam(value = "filter", required = false) Filter filter,
+                           @PageableDefault Pageable page) {
+        final Specification<E> spec = toSpecification(filter);
+        final Projection<D> projection = getProjection();
+        if (projection != null) {
+            return Optional.ofNullable(service.getAll(spec, page, projection))
+                    .orElseThrow(() -> new ControllerException(ERROR_MSG));
+        }
+        return Optional.ofNullable(service.getAll(spec, page))
                 .map(p -> p.map(this::toDTO))
                 .orElseThrow(() -> new ControllerException(ERROR_MSG));
     }
 
     /**
-     * Get entity {@link E} with id
+     * Return page with only requested fields of dto {@link D}, only columns of these fields are selected from DB
+     * @param fields names of fields, every field must be in {@link AbstractController#getSelectableFields()}
+     * @param filter conditions of entities as in {@link AbstractController#getPage(Filter, Pageable)}
+     */
+    @Operation(
+            summary = "Get page with selected fields",
+            description = "Return page with only requested fields (sparse fieldset), for example ?fields=id,login"
+    )
+    @GetMapping(params = {"fields", "!ids"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Page<Tuple> getFieldsPage(@RequestParam("fields") List<String> fields,
+                                     @RequestParam(value = "filter", required = false) Filter filter,
+                                     @PageableDefault Pageable page) {
+        return Optional.ofNullable(service.getAll(toSpecification(filter), page, checkFields(fields)))
+                .orElseThrow(() -> new ControllerException(ERROR_MSG));
+    }
+
+    /**
+     * Return page with entities {@link E} by keyset (without offset and count)
+     * @param after token of last row from previous page {@link KeysetPage#getNext()}
+     * @param count is needed count all entities
+     * @param page size and sort (only first property) of page, page number is ignored,
+     *             sort must be in {@link AbstractController#getSortableFields()}
+     */
+    @Operation(
+            summary = "Get page with entities by keyset",
+            description = "Return page with entities after token 'next' from previous page. " +
+                    "Sort (one property) is taken from first request, only sortable fields are allowed"
+    )
+    @GetMapping(value = "/keyset", produces = MediaType.APPLICATION_JSON_VALUE)
+    public KeysetPage<D> getKeysetPage(@RequestParam(value = "after", required = false) Keyset after,
+                                       @RequestParam(value = "count", defaultValue = "false") boolean count,
+                                       @PageableDefault Pageable page) {
+        return Optional.ofNullable(service.getAll(checkSortable(KeysetRequest.of(page, after, count))))
+                .map(p -> p.map(this::toDTO))
+                .orElseThrow(() -> new ControllerException(ERROR_MSG));
+    }
+
+    /**
+     * Get entity {@link E} with id.
+     * Version is checked by query of version column only, so entity isn't loaded if client has actual version
      * @param id identifier
-     * @return page with entities
+     * @return entity or null if it isn't modified (304)
      */
     @Operation(
             summary = "Get entity by id",
-            description = "Get entity by id"
+            description = "Get entity by id, ETag is version of entity. " +
+                    "If header If-None-Match contains current version then 304 without body"
     )
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public D get(@PathVariable("id") T id) {
-        return Optional.ofNullable(service.get(id))
-                .map(this::toDTO)
+    public D get(@PathVariable("id") T id, ServletWebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> eTag = service.findVersion(id).map(this::toETag);
+            if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+                return null;
+            }
+        }
+        final D dto = Optional.ofNullable(service.get(id, getDtoType(), this::toDTO))
                 .orElseThrow(() -> new ControllerException(ERROR_MSG));
+        Optional.ofNullable(getVersion(dto))
+                .map(this::toETag)
+                .ifPresent(eTag -> Objects.requireNonNull(request.getResponse()).setHeader(HttpHeaders.ETAG, eTag));
+        return dto;
+    }
+
+    /**
+     * Get entities {@link E} by ids with one query
+     * @param ids identifiers, count must not be greater than {@code simple-rest.batch-get.max-size}
+     * @param fields isn't supported together with ids, if present then 400
+     * @return found entities in order of ids and ids that weren't found
+     */
+    @Operation(
+            summary = "Get entities by ids",
+            description = "Get entities by ids (?ids=1,2,3) with one query, missing ids are returned in 'missing'. " +
+                    "Can't be combined with fields"
+    )
+    @GetMapping(params = "ids", produces = MediaType.APPLICATION_JSON_VALUE)
+    public BatchResult<D, T> getAllById(@RequestParam("ids") List<T> ids,
+                                        @RequestParam(value = "fields", required = false) List<String> fields) {
+        Assert.isNull(fields, "ids can't be combined with fields");
+        return findAllById(ids);
+    }
+
+    /**
+     * Get entities {@link E} by ids with one query, variant of {@link AbstractController#getAllById(List, List)}
+     * for long lists of ids that don't fit to url
+     */
+    @Operation(
+            summary = "Get entities by ids in body",
+            description = "Get entities by ids from body with one query, missing ids are returned in 'missing'"
+    )
+    @PostMapping(value = "/by-ids", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public BatchResult<D, T> getAllByIdInBody(@RequestBody List<T> ids) {
+        return findAllById(ids);
     }
 
     /**
      * Create entity {@link E}
      * @param dto entity that need create
+     * @param idempotencyKey unique key of request, repeat of request with the same key returns the same response
+     *                       without creation of another entity
      * @return created entity
      */
     @Operation(
             summary = "Create entity",
-            description = "Create entity"
+            description = "Create entity, ETag is version of created entity. With header Idempotency-Key repeat " +
+                    "of request returns stored response and ETag (with header Idempotent-Replayed: true), " +
+                    "repeat with another body fails with 422"
     )
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
-    public D create(@Valid @RequestBody D dto) {
-        return Optional.of(dto)
+    public D create(@Valid @RequestBody D dto,
+                    @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                    HttpServletRequest request,
+                    HttpServletResponse response) {
+        return executeIdempotent(idempotencyKey, request, response, () -> Optional.of(dto)
                 .map(this::toEntity)
                 .map(this::checkNew)
-                .map(service::create)
+                .map(this::createEntity)
                 .map(this::toDTO)
-                .orElseThrow(() -> new ControllerException(ERROR_MSG));
+                .orElseThrow(() -> new ControllerException(ERROR_MSG)), dto);
     }
 
     /**
      * Update existing entity {@link E}
      * @param id entity identifier
      * @param dto entity that need save
+     * @param ifMatch ETag of entity that client changed, update fails with 412 if entity was changed after it
+     * @param idempotencyKey unique key of request, repeat of request with the same key returns the same response
      * @return updated entity
      */
     @Operation(
             summary = "Update entity by id",
-            description = "Update existing entity"
+            description = "Update existing entity. With header If-Match (ETag from get) entity is updated only " +
+                    "if it wasn't changed by someone else, otherwise 412. " +
+                    "With header Idempotency-Key repeat of request returns stored response"
     )
     @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public D update(@PathVariable("id") T id, @Valid @RequestBody D dto) {
-        return Optional.of(dto)
+    public D update(@PathVariable("id") T id,
+                    @Valid @RequestBody D dto,
+                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                    @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                    HttpServletRequest request,
+                    HttpServletResponse response) {
+        return executeIdempotent(idempotencyKey, request, response, () -> Optional.of(dto)
                 .map(this::toEntity)
                 .map(e -> assureIdConsistent(e, id))
-                .map(service::update)
+                .map(e -> assureVersion(e, ifMatch))
+                .map(this::updateEntity)
                 .map(this::toDTO)
-                .orElseThrow(() -> new ControllerException(ERROR_MSG));
+                .orElseThrow(() -> new ControllerException(ERROR_MSG)), dto, ifMatch);
     }
 
     /**
@@ -139,17 +399,164 @@ public abstract class AbstractController<E extends IEntity<T>, D extends IDto, T
         service.delete(id);
     }
 
+    /**
+     * Create entities {@link E} in one transaction
+     * @param dtos entities that need create
+     * @return created entities
+     */
+    @Operation(
+            summary = "Create entities",
+            description = "Create entities in one transaction, whole batch is validated before create"
+    )
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<D> createAll(@RequestBody List<D> dtos) {
+        return Optional.of(validate(dtos))
+                .map(l -> l.stream().map(this::toEntity).map(this::checkNew).collect(toList()))
+                .map(service::createAll)
+                .map(l -> l.stream().map(this::toDTO).collect(toList()))
+                .orElseThrow(() -> new ControllerException(ERROR_MSG));
+    }
+
+    /**
+     * Update existing entities {@link E} in one transaction
+     * @param dtos entities with ids that need save
+     * @return updated entities
+     */
+    @Operation(
+            summary = "Update entities",
+            description = "Update existing entities in one transaction, whole batch is validated before update"
+    )
+    @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<D> updateAll(@RequestBody List<D> dtos) {
+        return Optional.of(validate(dtos))
+                .map(l -> l.stream().map(this::toEntity).collect(toList()))
+                .map(service::updateAll)
+                .map(l -> l.stream().map(this::toDTO).collect(toList()))
+                .orElseThrow(() -> new ControllerException(ERROR_MSG));
+    }
+
+    /**
+     * Delete entities {@link E} with ids in one transaction
+     * @param ids entity identifiers, count must not be greater than {@code simple-rest.bulk.max-size}
+     */
+    @Operation(
+            summary = "Delete entities by ids",
+            description = "Delete entities by ids in one transaction"
+    )
+    @DeleteMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void deleteAll(@RequestBody List<T> ids) {
+        Assert.isTrue(ids.size() <= bulkMaxSize, "size of batch must not be greater than " + bulkMaxSize);
+        service.deleteAll(ids);
+    }
+
+    /**
+     * Requests with header {@code Idempotency-Key} are executed by {@link IdempotencyService}, if it's enabled
+     */
+    @Autowired(required = false)
+    public void setIdempotencyService(IdempotencyService idempotencyService) {
+        this.idempotencyService = idempotencyService;
+    }
+
     //================================================= UTIL METHODS ===================================================
 
     protected abstract E toEntity(D dto);
     protected abstract D toDTO(E entity);
 
+    /**
+     * Projection for read dto {@link D} directly from DB in {@link AbstractController#getPage(Filter, Pageable)},
+     * override this method if dto needs only part of entity attributes
+     * @return projection or null if pages are read as entities and mapped by {@link AbstractController#toDTO(IEntity)}
+     */
+    protected Projection<D> getProjection() {
+        //override me for customize
+        return null;
+    }
+
+    /**
+     * Fields of dto {@link D} that may be requested in {@link AbstractController#getFieldsPage(List, Filter, Pageable)},
+     * every field must be attribute of entity {@link E} with the same name.
+     * By default, attributes of {@link AbstractController#getProjection()}, so sensitive fields aren't selectable
+     * @return selectable fields or empty set if sparse fieldsets aren't supported
+     */
+    protected Set<String> getSelectableFields() {
+        //override me for customize
+        return Optional.ofNullable(getProjection())
+                .map(p -> Set.copyOf(p.getAttributes()))
+                .orElse(Set.of());
+    }
+
+    /**
+     * Fields of {@link AbstractController#export(List, CopyFormat, String)} if client doesn't
+     * request fields, every field must be selectable {@link AbstractController#getSelectableFields()}.
+     * By default, attributes of {@link AbstractController#getProjection()} in the same order
+     * @return fields or empty list if export isn't supported
+     */
+    protected List<String> getExportFields() {
+        //override me for customize
+        return Optional.ofNullable(getProjection())
+                .map(Projection::getAttributes)
+                .orElse(List.of());
+    }
+
+    /**
+     * Fields of entity {@link E} that may be sort of {@link AbstractController#getKeysetPage(Keyset, boolean, Pageable)}.
+     * Value of sort field is put to token 'next', so only indexed, not null and not sensitive fields must be here
+     * @return sortable fields, by default only identifier
+     */
+    protected Set<String> getSortableFields() {
+        //override me for customize
+        return Set.of("id");
+    }
+
+    /**
+     * Fields of entity {@link E} with operators that may be used in filter.
+     * Only fields with index must be here, so filter is always served by index and doesn't scan whole table
+     * @return filterable fields or empty map if filter isn't supported
+     */
+    protected Map<String, Set<FilterOperator>> getFilterableFields() {
+        //override me for customize
+        return Map.of();
+    }
+
+    /**
+     * Version of dto {@link D} for ETag of {@link AbstractController#get(Object, ServletWebRequest)},
+     * must be the same as version of entity {@link IBaseService#findVersion(Object)}
+     * @return version or null if dto hasn't version (ETag isn't set)
+     */
+    protected Object getVersion(D dto) {
+        //override me for customize
+        return null;
+    }
+
+    /**
+     * Strong ETag by version
+     */
+    protected String toETag(final Object version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * ETag of dto by {@link AbstractController#getVersion(Object)}
+     * @return ETag or null if dto hasn't version
+     */
+    @Nullable
+    protected String getETag(final D dto) {
+        return Optional.ofNullable(getVersion(dto))
+                .map(this::toETag)
+                .orElse(null);
+    }
+
     @SuppressWarnings("unchecked")
     protected String getEntityName() {
         return ((Class<E>) ((ParameterizedType) getClass()
                 .getGenericSuperclass()).getActualTypeArguments()[0]).getSimpleName();
     }
 
+    @SuppressWarnings("unchecked")
+    protected Class<D> getDtoType() {
+        return (Class<D>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[1];
+    }
+
     protected E assureIdConsistent(E bean, T id) {
         if (bean.isNew()) {
             bean.setId(id);
@@ -159,6 +566,30 @@ public abstract class AbstractController<E extends IEntity<T>, D extends IDto, T
         return bean;
     }
 
+    /**
+     * Set version from header If-Match to entity, so entity is updated only if it has the same version in DB
+     * @param ifMatch one strong ETag {@link AbstractController#toETag(Object)}, if null or '*' then version isn't checked
+     * @throws IllegalArgumentException if ETag is malformed or entity isn't versioned
+     */
+    protected E assureVersion(final E entity, @Nullable final String ifMatch) throws IllegalArgumentException {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return entity;
+        }
+        if (!(entity instanceof IVersionedEntity)) {
+            throw new IllegalArgumentException(getEntityName() + " isn't versioned, If-Match isn't supported");
+        }
+        final String eTag = ifMatch.trim();
+        if (eTag.length() < 3 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match must be one strong ETag, but was " + ifMatch);
+        }
+        try {
+            ((IVersionedEntity<?>) entity).setVersion(Long.valueOf(eTag.substring(1, eTag.length() - 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must contain version, but was " + ifMatch, e);
+        }
+        return entity;
+    }
+
     /**
      * Проверка, что сущность не содержит id
      * @throws IllegalArgumentException если сущность содержит id
@@ -170,4 +601,170 @@ public abstract class AbstractController<E extends IEntity<T>, D extends IDto, T
         }
         return entity;
     }
+
+    /**
+     * Check that all fields are selectable, duplicates are removed and order of fields is kept
+     * @throws IllegalArgumentException if some field isn't selectable
+     */
+    protected Set<String> checkFields(final List<String> fields) throws IllegalArgumentException {
+        Assert.notEmpty(fields, "fields must not be empty");
+        final Set<String> selectable = getSelectableFields();
+        final Set<String> result = new LinkedHashSet<>(fields);
+        if (!selectable.containsAll(result)) {
+            throw new IllegalArgumentException(format("%s supports only fields %s, but requested %s",
+                    getEntityName(), new TreeSet<>(selectable), result));
+        }
+        return result;
+    }
+
+    /**
+     * Check that sort of keyset request (from page or from token 'after') is sortable
+     * @throws IllegalArgumentException if sort field isn't in {@link AbstractController#getSortableFields()}
+     */
+    protected KeysetRequest checkSortable(final KeysetRequest request) throws IllegalArgumentException {
+        final Set<String> sortable = getSortableFields();
+        if (request.getOrder() != null && !sortable.contains(request.getOrder().getProperty())) {
+            throw new IllegalArgumentException(format("%s can't be sorted by %s, allowed %s",
+                    getEntityName(), request.getOrder().getProperty(), new TreeSet<>(sortable)));
+        }
+        return request;
+    }
+
+    /**
+     * Check that all conditions of filter are allowed and compile filter to {@link Specification}
+     * @return specification or null if filter is null
+     * @throws IllegalArgumentException if some field or operator isn't allowed
+     */
+    protected Specification<E> toSpecification(@Nullable final Filter filter) throws IllegalArgumentException {
+        if (filter == null) {
+            return null;
+        }
+        final Map<String, Set<FilterOperator>> filterable = getFilterableFields();
+        for (FilterCondition condition : filter.getConditions()) {
+            if (!filterable.getOrDefault(condition.getField(), Set.of()).contains(condition.getOperator())) {
+                throw new IllegalArgumentException(format("%s can't be filtered by %s:%s, allowed %s",
+                        getEntityName(), condition.getField(), condition.getOperator(), new TreeMap<>(filterable)));
+            }
+        }
+        return new FilterSpecification<>(filter);
+    }
+
+    /**
+     * Check that header Accept-Encoding allows gzip (gzip isn't accepted with q=0)
+     */
+    protected boolean acceptsGzip(@Nullable final String acceptEncoding) {
+        return acceptEncoding != null && Arrays.stream(acceptEncoding.split(","))
+                .map(e -> e.trim().toLowerCase().replace(" ", ""))
+                .anyMatch(e -> e.equals(GZIP) || e.startsWith(GZIP + ";") && !e.matches(GZIP + ";q=0(\\.0*)?"));
+    }
+
+    /**
+     * Get entities by ids and collect ids that weren't found
+     * @throws IllegalArgumentException if ids are empty or count of ids is greater than {@code batchGetMaxSize}
+     */
+    protected BatchResult<D, T> findAllById(final List<T> ids) throws IllegalArgumentException {
+        Assert.notEmpty(ids, "ids must not be empty");
+        Assert.isTrue(ids.size() <= batchGetMaxSize, "count of ids must not be greater than " + batchGetMaxSize);
+        final List<E> found = service.getAllById(ids);
+        final Set<T> foundIds = found.stream().map(IEntity::getId).collect(toSet());
+        return new BatchResult<>(
+                found.stream().map(this::toDTO).collect(toList()),
+                ids.stream().distinct().filter(id -> !foundIds.contains(id)).collect(toList()));
+    }
+
+    /**
+     * Execute request once for {@code idempotencyKey}, key is scoped by method and path of request.
+     * ETag of response is set to header, replay gets ETag that was stored with response
+     * @param idempotencyKey key from client, if null (or idempotency is disabled) then request is just executed
+     * @param requestParts body and headers of request that must be the same in every repeat with the key
+     * @throws IllegalArgumentException if key is blank or longer than {@link AbstractController#IDEMPOTENCY_KEY_MAX_LENGTH}
+     */
+    protected D executeIdempotent(@Nullable final String idempotencyKey,
+                                  final HttpServletRequest request,
+                                  final HttpServletResponse response,
+                                  final Supplier<D> action,
+                                  final Object... requestParts) throws IllegalArgumentException {
+        if (idempotencyKey == null || idempotencyService == null) {
+            final D dto = action.get();
+            Optional.ofNullable(getETag(dto)).ifPresent(eTag -> response.setHeader(HttpHeaders.ETAG, eTag));
+            return dto;
+        }
+        Assert.hasText(idempotencyKey, IdempotencyService.IDEMPOTENCY_KEY + " must not be blank");
+        Assert.isTrue(idempotencyKey.length() <= IDEMPOTENCY_KEY_MAX_LENGTH,
+                IdempotencyService.IDEMPOTENCY_KEY + " must not be longer than " + IDEMPOTENCY_KEY_MAX_LENGTH);
+        final IdempotentResult<D> result = idempotencyService.execute(
+                request.getMethod() + " " + request.getRequestURI() + " " + idempotencyKey,
+                idempotencyService.hash(requestParts),
+                getDtoType(),
+                action,
+                this::getETag);
+        Optional.ofNullable(result.getETag()).ifPresent(eTag -> response.setHeader(HttpHeaders.ETAG, eTag));
+        if (result.isReplayed()) {
+            response.setHeader(IdempotencyService.IDEMPOTENT_REPLAYED, Boolean.TRUE.toString());
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Create entity in group commit with concurrent creates if service supports write-behind
+     * {@link IBaseService#isWriteBehind()}, request waits for commit anyway
+     */
+    protected E createEntity(final E entity) {
+        return service.isWriteBehind() ? await(service.createAsync(entity)) : service.create(entity);
+    }
+
+    /**
+     * Update entity in group commit with concurrent updates if service supports write-behind
+     * {@link IBaseService#isWriteBehind()}, request waits for commit anyway
+     */
+    protected E updateEntity(final E entity) {
+        return service.isWriteBehind() ? await(service.updateAsync(entity)) : service.update(entity);
+    }
+
+    /**
+     * Wait for result of write not longer than {@code simple-rest.write-behind.await-timeout},
+     * exception of write is thrown as is (not wrapped to {@link ExecutionException})
+     * @throws OverloadException if write isn't completed in time (it may still be committed later)
+     */
+    protected <V> V await(final CompletableFuture<V> result) throws OverloadException {
+        try {
+            return result.get(writeAwaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new OverloadException(format("Write of %s isn't committed in %s", getEntityName(), writeAwaitTimeout),
+                    writeAwaitTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ControllerException("Waiting for write of " + getEntityName() + " is interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ControllerException("Write of " + getEntityName() + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Validate all dto in batch
+     * @throws IllegalArgumentException if batch is empty or size of batch is greater than {@code bulkMaxSize}
+     * @throws ConstraintViolationException with violations of all dto, path contains index of dto (items[0].field)
+     */
+    protected List<D> validate(final List<D> dtos) throws ConstraintViolationException {
+        Assert.notEmpty(dtos, "batch must not be empty");
+        Assert.isTrue(dtos.size() <= bulkMaxSize, "size of batch must not be greater than " + bulkMaxSize);
+        Set<ConstraintViolation<Batch<D>>> violations = validator.validate(new Batch<>(dtos));
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return dtos;
+    }
+
+    /**
+     * Wrap for validate list of dto
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Batch<D> {
+        @Valid
+        private final List<D> items;
+    }
 }
\ No newline at end of file
@@ -5,11 +5,26 @@ import net.pet.project.simplerest.controller.AbstractController;
 import net.pet.project.simplerest.dto.administrating.UserDto;
 import net.pet.project.simplerest.mapper.administrating.UserMapper;
 import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.repository.filter.FilterOperator;
+import net.pet.project.simplerest.repository.projection.Projection;
 import net.pet.project.simplerest.service.administrating.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static net.pet.project.simplerest.repository.filter.FilterOperator.EQ;
+import static net.pet.project.simplerest.repository.filter.FilterOperator.GE;
+import static net.pet.project.simplerest.repository.filter.FilterOperator.GT;
+import static net.pet.project.simplerest.repository.filter.FilterOperator.IN;
+import static net.pet.project.simplerest.repository.filter.FilterOperator.LE;
+import static net.pet.project.simplerest.repository.filter.FilterOperator.LT;
+import static net.pet.project.simplerest.repository.filter.FilterOperator.PREFIX;
+
 /**
  * Realisation {@link RestController} for {@link User}.
  * @author VN
@@ -17,8 +32,22 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/admin/user")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController extends AbstractController<User, UserDto, Long> {
 
+    /**
+     * Indexed fields: id (primary key), login (unique constraint)
+     */
+    private static final Map<String, Set<FilterOperator>> FILTERABLE_FIELDS = Map.of(
+            "id", EnumSet.of(EQ, IN, GT, GE, LT, LE),
+            "login", EnumSet.of(EQ, IN, PREFIX)
+    );
+
+    /**
+     * Indexed not null fields: id (primary key), login (unique constraint)
+     */
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "login");
+
     @Autowired
     public UserController(UserService service) {
         super(service);
@@ -35,4 +64,24 @@ public class UserController extends AbstractController<User, UserDto, Long> {
     protected UserDto toDTO(User entity) {
         return UserMapper.toDto(entity);
     }
+
+    @Override
+    protected Projection<UserDto> getProjection() {
+        return UserMapper.PROJECTION;
+    }
+
+    @Override
+    protected Object getVersion(UserDto dto) {
+        return dto.getVersion();
+    }
+
+    @Override
+    protected Set<String> getSortableFields() {
+        return SORTABLE_FIELDS;
+    }
+
+    @Override
+    protected Map<String, Set<FilterOperator>> getFilterableFields() {
+        return FILTERABLE_FIELDS;
+    }
 }
\ No newline at end of file
@@ -1,11 +1,17 @@
 package net.pet.project.simplerest.controller.error;
 
 import lombok.extern.slf4j.Slf4j;
+import net.pet.project.simplerest.exception.IdempotencyKeyReusedException;
+import net.pet.project.simplerest.exception.OverloadException;
+import net.pet.project.simplerest.exception.VersionConflictException;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindException;
 import org.springframework.validation.Errors;
@@ -18,12 +24,16 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolationException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static java.lang.String.format;
 import static net.pet.project.simplerest.controller.error.ErrorType.APP_ERROR;
+import static net.pet.project.simplerest.controller.error.ErrorType.DATA_CONFLICT;
+import static net.pet.project.simplerest.controller.error.ErrorType.OVERLOADED;
 import static net.pet.project.simplerest.controller.error.ErrorType.VALIDATION_ERROR;
 
 /**
@@ -34,6 +44,7 @@ import static net.pet.project.simplerest.controller.error.ErrorType.VALIDATION_E
  */
 @Slf4j
 @ControllerAdvice(annotations = RestController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Order(Ordered.HIGHEST_PRECEDENCE + 5)
 @ResponseBody
 public class ApiExceptionHandler {
@@ -74,6 +85,48 @@ public class ApiExceptionHandler {
         );
     }
 
+    @ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)  // 422
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ApiErrorInfo handleConstraintViolationEx(ConstraintViolationException ex, HttpServletRequest request) {
+        return logAndGetErrorInfo(
+                request,
+                ex,
+                false,
+                VALIDATION_ERROR,
+                "Validation error", //todo 21.03.18 replace to i18n
+                ex.getConstraintViolations().stream()
+                        .map(v -> format("%s: %s", v.getPropertyPath(), v.getMessage()))
+                        .sorted()
+                        .toArray(String[]::new)
+        );
+    }
+
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)  // 412
+    @ExceptionHandler({VersionConflictException.class, OptimisticLockingFailureException.class})
+    public ApiErrorInfo handleVersionConflictEx(Exception ex, HttpServletRequest request) {
+        return logAndGetErrorInfo(request, ex, false, DATA_CONFLICT, ex.getMessage());
+    }
+
+    /**
+     * Idempotency-Key is repeated with another request, client must use new key for new request
+     */
+    @ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)  // 422
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ApiErrorInfo handleIdempotencyKeyReusedEx(IdempotencyKeyReusedException ex, HttpServletRequest request) {
+        return logAndGetErrorInfo(request, ex, false, DATA_CONFLICT, ex.getMessage());
+    }
+
+    /**
+     * Request is rejected by concurrency limit, client may retry after {@code Retry-After} seconds
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)  // 503
+    @ExceptionHandler(OverloadException.class)
+    public ApiErrorInfo handleOverloadEx(OverloadException ex, HttpServletRequest request, HttpServletResponse response) {
+        final long seconds = Math.max(1, ex.getRetryAfter().plusMillis(999).getSeconds());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        return logAndGetErrorInfo(request, ex, false, OVERLOADED, ex.getMessage());
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(Exception.class)
     public ApiErrorInfo handleError(HttpServletRequest req, Exception e) {
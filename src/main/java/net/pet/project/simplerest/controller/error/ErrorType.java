@@ -10,6 +10,8 @@ public enum ErrorType {
     APP_ERROR("error.appError"),
     DATA_NOT_FOUND("error.dataNotFound"),
     DATA_ERROR("error.dataError"),
+    DATA_CONFLICT("error.dataConflict"),
+    OVERLOADED("error.overloaded"),
     VALIDATION_ERROR("error.validationError");
 
     @Getter
@@ -0,0 +1,137 @@
+package net.pet.project.simplerest.controller.error;
+
+import lombok.extern.slf4j.Slf4j;
+import net.pet.project.simplerest.exception.NotFoundException;
+import net.pet.project.simplerest.exception.VersionConflictException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import javax.validation.ConstraintViolationException;
+import java.util.List;
+
+import static java.lang.String.format;
+import static net.pet.project.simplerest.controller.error.ErrorType.APP_ERROR;
+import static net.pet.project.simplerest.controller.error.ErrorType.DATA_CONFLICT;
+import static net.pet.project.simplerest.controller.error.ErrorType.DATA_NOT_FOUND;
+import static net.pet.project.simplerest.controller.error.ErrorType.VALIDATION_ERROR;
+
+/**
+ * Global exception handler of WebFlux, the same errors {@link ApiErrorInfo} as {@link ApiExceptionHandler}
+ *
+ * @author VN
+ */
+@Slf4j
+@ControllerAdvice(annotations = RestController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@ResponseBody
+public class ReactiveApiExceptionHandler {
+
+    private static final String LOG_TAG = "[EX HANDLER] ::";
+
+    protected final Environment env;
+
+    @Autowired
+    public ReactiveApiExceptionHandler(Environment env) {
+        this.env = env;
+    }
+
+    @ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)  // 422
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ApiErrorInfo handleValidationEx(WebExchangeBindException ex, ServerHttpRequest request) {
+        return logAndGetErrorInfo(
+                request,
+                ex,
+                false,
+                VALIDATION_ERROR,
+                "Validation error",
+                ex.getFieldErrors().stream()
+                        .map(f -> format("%s: %s", f.getField(), f.getDefaultMessage()))
+                        .toArray(String[]::new)
+        );
+    }
+
+    @ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)  // 422
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ApiErrorInfo handleConstraintViolationEx(ConstraintViolationException ex, ServerHttpRequest request) {
+        return logAndGetErrorInfo(
+                request,
+                ex,
+                false,
+                VALIDATION_ERROR,
+                "Validation error",
+                ex.getConstraintViolations().stream()
+                        .map(v -> format("%s: %s", v.getPropertyPath(), v.getMessage()))
+                        .sorted()
+                        .toArray(String[]::new)
+        );
+    }
+
+    @ResponseStatus(HttpStatus.NOT_FOUND)  // 404
+    @ExceptionHandler(NotFoundException.class)
+    public ApiErrorInfo handleNotFoundEx(NotFoundException ex, ServerHttpRequest request) {
+        return logAndGetErrorInfo(request, ex, false, DATA_NOT_FOUND, ex.getMessage());
+    }
+
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)  // 412
+    @ExceptionHandler({VersionConflictException.class, OptimisticLockingFailureException.class})
+    public ApiErrorInfo handleVersionConflictEx(Exception ex, ServerHttpRequest request) {
+        return logAndGetErrorInfo(request, ex, false, DATA_CONFLICT, ex.getMessage());
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(Exception.class)
+    public ApiErrorInfo handleError(ServerHttpRequest request, Exception e) {
+        return logAndGetErrorInfo(request, e, true, APP_ERROR, null);
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    protected ApiErrorInfo logAndGetErrorInfo(ServerHttpRequest request,
+                                              Exception e,
+                                              boolean logException,
+                                              ErrorType errorType,
+                                              final String message,
+                                              String... details) {
+        Throwable rootCause = getRootCause(e);
+        final String url = request.getPath().pathWithinApplication().value();
+        if (logException) {
+            log.error("{} {} at request {}", LOG_TAG, errorType, url, rootCause);
+        } else {
+            log.warn("{} {} at request  {}: {}", LOG_TAG, errorType, url, rootCause.toString());
+        }
+        return ApiErrorInfo.builder()
+                .url(url)
+                .type(errorType)
+                .message(
+                        StringUtils.isBlank(message)
+                                ? env.getProperty(errorType.getErrorCode(), errorType.getErrorCode())
+                                : message
+                )
+                .details(details.length != 0 ? List.of(details) : List.of(rootCause.toString()))
+                .build();
+    }
+
+    private static Throwable getRootCause(Throwable t) {
+        Throwable result = t;
+        Throwable cause;
+
+        while (null != (cause = result.getCause()) && (result != cause)) {
+            result = cause;
+        }
+        return result;
+    }
+}
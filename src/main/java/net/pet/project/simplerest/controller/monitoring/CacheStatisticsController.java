@@ -0,0 +1,47 @@
+package net.pet.project.simplerest.controller.monitoring;
+
+import io.swagger.v3.oas.annotations.Operation;
+import net.pet.project.simplerest.dto.monitoring.CacheStatisticsDto;
+import net.pet.project.simplerest.dto.monitoring.CoalescingStatisticsDto;
+import net.pet.project.simplerest.service.monitoring.CacheStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Realisation {@link RestController} for cache statistics
+ * @author VN
+ */
+@RestController
+@RequestMapping("/api/v1/admin/cache")
+public class CacheStatisticsController {
+
+    private final CacheStatisticsService service;
+
+    @Autowired
+    public CacheStatisticsController(CacheStatisticsService service) {
+        this.service = service;
+    }
+
+    @Operation(
+            summary = "Get cache statistics",
+            description = "Return hit/miss/eviction counts for every region of second level cache and for every service cache"
+    )
+    @GetMapping(value = "/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<CacheStatisticsDto> getStatistics() {
+        return service.getAll();
+    }
+
+    @Operation(
+            summary = "Get coalescing statistics",
+            description = "Return count of reads and share of reads that got result of concurrent identical read for every service"
+    )
+    @GetMapping(value = "/coalescing", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<CoalescingStatisticsDto> getCoalescing() {
+        return service.getCoalescing();
+    }
+}
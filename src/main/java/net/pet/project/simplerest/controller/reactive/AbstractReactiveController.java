@@ -0,0 +1,225 @@
+package net.pet.project.simplerest.controller.reactive;
+
+import io.swagger.v3.oas.annotations.Operation;
+import net.pet.project.simplerest.dto.IDto;
+import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.model.IVersionedEntity;
+import net.pet.project.simplerest.service.reactive.IReactiveBaseService;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.lang.reflect.ParameterizedType;
+import java.util.Objects;
+
+/**
+ * Abstract non-blocking crud realisation for rest controller {@link RestController} (WebFlux),
+ * counterpart of {@link net.pet.project.simplerest.controller.AbstractController} with the same contract of
+ * main endpoints
+ * @param <E> - entity
+ * @param <D> - dto
+ * @param <T> - type of identifier
+ * @author VN
+ */
+public abstract class AbstractReactiveController<E extends IEntity<T>, D extends IDto, T> {
+
+    protected final IReactiveBaseService<E, T> service;
+
+    @Value("${simple-rest.stream.fetch-size:500}")
+    protected int streamFetchSize;
+
+    public AbstractReactiveController(IReactiveBaseService<E, T> service) {
+        this.service = service;
+    }
+
+    /**
+     * Stream all entities {@link E} in format ndjson or json array.
+     * Entities are read from DB cursor on demand of client (backpressure)
+     */
+    @Operation(
+            summary = "Stream all entities",
+            description = "Return all entities, rows are read from DB as fast as client reads response"
+    )
+    @GetMapping(value = "/all", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<D> streamAll() {
+        return service.streamAll(streamFetchSize).map(this::toDTO);
+    }
+
+    /**
+     * Return page with entities {@link E}
+     */
+    @Operation(
+            summary = "Get page with entities",
+            description = "Return page with entities"
+    )
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Page<D>> getPage(@PageableDefault Pageable page) {
+        return service.getAll(page).map(p -> p.map(this::toDTO));
+    }
+
+    /**
+     * Get entity {@link E} with id, ETag is version of entity
+     * @param id identifier
+     * @return entity or 304 if client has actual version (If-None-Match)
+     */
+    @Operation(
+            summary = "Get entity by id",
+            description = "Get entity by id, ETag is version of entity. " +
+                    "If header If-None-Match contains current version then 304 without body"
+    )
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<D>> get(@PathVariable("id") T id, ServerWebExchange exchange) {
+        return service.get(id)
+                .map(this::toDTO)
+                .map(dto -> {
+                    final String eTag = toETag(getVersion(dto));
+                    if (eTag != null && exchange.checkNotModified(eTag)) {
+                        return ResponseEntity.status(exchange.getResponse().getStatusCode()).eTag(eTag).build();
+                    }
+                    return ResponseEntity.ok().eTag(eTag).body(dto);
+                });
+    }
+
+    /**
+     * Create entity {@link E}
+     * @param dto entity that need create
+     * @return created entity
+     */
+    @Operation(
+            summary = "Create entity",
+            description = "Create entity"
+    )
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<D> create(@Valid @RequestBody D dto) {
+        return Mono.fromCallable(() -> checkNew(toEntity(dto)))
+                .flatMap(service::create)
+                .map(this::toDTO);
+    }
+
+    /**
+     * Update existing entity {@link E}
+     * @param id entity identifier
+     * @param dto entity that need save
+     * @param ifMatch ETag of entity that client changed, update fails with 412 if entity was changed after it
+     * @return updated entity
+     */
+    @Operation(
+            summary = "Update entity by id",
+            description = "Update existing entity. With header If-Match (ETag from get) entity is updated only " +
+                    "if it wasn't changed by someone else, otherwise 412"
+    )
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<D>> update(@PathVariable("id") T id,
+                                          @Valid @RequestBody D dto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.fromCallable(() -> assureVersion(assureIdConsistent(toEntity(dto), id), ifMatch))
+                .flatMap(service::update)
+                .map(this::toDTO)
+                .map(updated -> ResponseEntity.ok().eTag(toETag(getVersion(updated))).body(updated));
+    }
+
+    /**
+     * Delete entity {@link E} with id
+     * @param id entity identifier
+     */
+    @Operation(
+            summary = "Delete entity by id",
+            description = "Delete entity by id"
+    )
+    @DeleteMapping("/{id}")
+    public Mono<Void> delete(@PathVariable("id") T id) {
+        return service.delete(id);
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    protected abstract E toEntity(D dto);
+
+    protected abstract D toDTO(E entity);
+
+    /**
+     * Version of dto for ETag
+     * @return version or null if dto isn't versioned
+     */
+    protected Object getVersion(D dto) {
+        //override me for customize
+        return null;
+    }
+
+    /**
+     * @return strong ETag of version or null if version is null
+     */
+    @Nullable
+    protected String toETag(@Nullable final Object version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    @SuppressWarnings("unchecked")
+    protected String getEntityName() {
+        return ((Class<E>) ((ParameterizedType) getClass()
+                .getGenericSuperclass()).getActualTypeArguments()[0]).getSimpleName();
+    }
+
+    protected E assureIdConsistent(E bean, T id) {
+        if (bean.isNew()) {
+            bean.setId(id);
+        } else if (!Objects.equals(bean.getId(), id)) {
+            throw new IllegalArgumentException(bean + " must be with id=" + id);
+        }
+        return bean;
+    }
+
+    /**
+     * Set version from If-Match to entity, so it is updated only if it has this version in DB
+     * @param ifMatch one strong ETag {@link AbstractReactiveController#toETag(Object)}, if null or '*' then version isn't checked
+     * @throws IllegalArgumentException if ETag is malformed or entity isn't versioned
+     */
+    protected E assureVersion(final E entity, @Nullable final String ifMatch) throws IllegalArgumentException {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return entity;
+        }
+        if (!(entity instanceof IVersionedEntity)) {
+            throw new IllegalArgumentException(getEntityName() + " isn't versioned, If-Match isn't supported");
+        }
+        final String eTag = ifMatch.trim();
+        if (eTag.length() < 3 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match must be one strong ETag, but was " + ifMatch);
+        }
+        try {
+            ((IVersionedEntity<?>) entity).setVersion(Long.valueOf(eTag.substring(1, eTag.length() - 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must contain version, but was " + ifMatch, e);
+        }
+        return entity;
+    }
+
+    /**
+     * Check that entity doesn't contain id
+     * @throws IllegalArgumentException if entity contains id
+     */
+    protected E checkNew(final E entity) throws IllegalArgumentException {
+        Assert.notNull(entity, getEntityName() + " must not be null");
+        if (!entity.isNew()) {
+            throw new IllegalArgumentException(getEntityName() + " must be new (id=null)");
+        }
+        return entity;
+    }
+}
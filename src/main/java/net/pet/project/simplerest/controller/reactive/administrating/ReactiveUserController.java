@@ -0,0 +1,44 @@
+package net.pet.project.simplerest.controller.reactive.administrating;
+
+import net.pet.project.simplerest.controller.reactive.AbstractReactiveController;
+import net.pet.project.simplerest.dto.administrating.UserDto;
+import net.pet.project.simplerest.mapper.administrating.UserMapper;
+import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.service.reactive.administrating.ReactiveUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Non-blocking realisation {@link RestController} for {@link User}, used instead of
+ * {@link net.pet.project.simplerest.controller.administrating.UserController} in profile {@code reactive}
+ * @author VN
+ */
+@RestController
+@RequestMapping("/api/v1/admin/user")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController extends AbstractReactiveController<User, UserDto, Long> {
+
+    @Autowired
+    public ReactiveUserController(ReactiveUserService service) {
+        super(service);
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    @Override
+    protected User toEntity(UserDto dto) {
+        return UserMapper.toEntity(dto);
+    }
+
+    @Override
+    protected UserDto toDTO(User entity) {
+        return UserMapper.toDto(entity);
+    }
+
+    @Override
+    protected Object getVersion(UserDto dto) {
+        return dto.getVersion();
+    }
+}
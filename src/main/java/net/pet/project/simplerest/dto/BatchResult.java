@@ -0,0 +1,20 @@
+package net.pet.project.simplerest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Result of get by several identifiers: found items in order of request and identifiers that weren't found
+ * @param <D> - dto
+ * @param <T> - type of identifier
+ * @author VN
+ */
+@Getter
+@AllArgsConstructor
+public class BatchResult<D, T> {
+
+    private final List<D> items;
+    private final List<T> missing;
+}
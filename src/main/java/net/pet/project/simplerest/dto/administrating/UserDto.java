@@ -1,5 +1,6 @@
 package net.pet.project.simplerest.dto.administrating;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -27,4 +28,16 @@ public class UserDto implements IDto {
     @Size(min = 5, max = 64)
     private String password;
     private boolean active;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    /**
+     * Constructor for {@link net.pet.project.simplerest.mapper.administrating.UserMapper#PROJECTION}
+     */
+    public UserDto(Long id, String login, boolean active, Long version) {
+        this.id = id;
+        this.login = login;
+        this.active = active;
+        this.version = version;
+    }
 }
@@ -0,0 +1,28 @@
+package net.pet.project.simplerest.dto.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.pet.project.simplerest.dto.IDto;
+
+/**
+ * Statistics of cache region
+ * @author VN
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatisticsDto implements IDto {
+
+    private String cacheManager;
+    private String region;
+    private long gets;
+    private long hits;
+    private long misses;
+    private float hitPercentage;
+    private long puts;
+    private long removals;
+    private long evictions;
+}
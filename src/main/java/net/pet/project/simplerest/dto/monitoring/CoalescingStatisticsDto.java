@@ -0,0 +1,24 @@
+package net.pet.project.simplerest.dto.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.pet.project.simplerest.dto.IDto;
+
+/**
+ * Statistics of coalescing of concurrent reads (single-flight)
+ * @author VN
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoalescingStatisticsDto implements IDto {
+
+    private String name;
+    private long calls;
+    private long executions;
+    private long shared;
+    private float coalescingPercentage;
+}
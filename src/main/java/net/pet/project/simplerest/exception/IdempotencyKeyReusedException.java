@@ -0,0 +1,20 @@
+package net.pet.project.simplerest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static java.lang.String.format;
+
+/**
+ * Service layer exception for cases when {@code Idempotency-Key} is repeated with another request
+ * @author VN
+ */
+@ResponseStatus(code = HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends ServiceException {
+
+    public static final String MESSAGE_PATTERN = "Idempotency key [%s] was already used for another request";
+
+    public IdempotencyKeyReusedException(String key) {
+        super(format(MESSAGE_PATTERN, key));
+    }
+}
@@ -0,0 +1,33 @@
+package net.pet.project.simplerest.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+import static java.lang.String.format;
+
+/**
+ * Controller layer exception for requests that are rejected by concurrency limit or aren't completed in time
+ * because of load
+ * @author VN
+ */
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE)
+public class OverloadException extends ControllerException {
+
+    public static final String MESSAGE_PATTERN = "Too many concurrent %s requests, limit is [%s]";
+
+    @Getter
+    private final Duration retryAfter;
+
+    public OverloadException(String limiterName, int limit, Duration retryAfter) {
+        super(format(MESSAGE_PATTERN, limiterName, limit));
+        this.retryAfter = retryAfter;
+    }
+
+    public OverloadException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,20 @@
+package net.pet.project.simplerest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static java.lang.String.format;
+
+/**
+ * Service layer exception for cases when entity was changed by someone else (version in DB differs from expected)
+ * @author VN
+ */
+@ResponseStatus(code = HttpStatus.PRECONDITION_FAILED)
+public class VersionConflictException extends ServiceException {
+
+    public static final String MESSAGE_PATTERN = "Entity with id [%s] was changed, expected version [%s]";
+
+    public VersionConflictException(Object id, Object expectedVersion) {
+        super(format(MESSAGE_PATTERN, id, expectedVersion));
+    }
+}
@@ -3,6 +3,7 @@ package net.pet.project.simplerest.mapper.administrating;
 import lombok.experimental.UtilityClass;
 import net.pet.project.simplerest.dto.administrating.UserDto;
 import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.repository.projection.Projection;
 
 import java.util.Objects;
 
@@ -12,6 +13,11 @@ import java.util.Objects;
 @UtilityClass
 public class UserMapper {
 
+    /**
+     * Projection of {@link User} to {@link UserDto} without password, the same as {@link UserMapper#toDto(User)}
+     */
+    public static final Projection<UserDto> PROJECTION = Projection.of(UserDto.class, "id", "login", "active", "version");
+
     public static User toEntity(UserDto dto) {
         if (Objects.isNull(dto)) {
             return null;
@@ -32,6 +38,7 @@ public class UserMapper {
                 .id(entity.getId())
                 .login(entity.getLogin())
                 .active(entity.isActive())
+                .version(entity.getVersion())
                 .build();
     }
 }
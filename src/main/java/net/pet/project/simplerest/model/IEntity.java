@@ -1,20 +1,25 @@
 package net.pet.project.simplerest.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.domain.Persistable;
 
 import java.io.Serializable;
 import java.util.Objects;
 
 /**
- * Interface for entity with identifier {@link T}
+ * Interface for entity with identifier {@link T}.
+ * Entity is new if it hasn't identifier, so {@link javax.persistence.Version} of entity doesn't affect
+ * choice between persist and merge
  * @param <T> type of identifier
  * @author VN
  */
-public interface IEntity<T> extends Serializable {
+public interface IEntity<T> extends Persistable<T>, Serializable {
+    @Override
     T getId();
 
     void setId(final T id);
 
+    @Override
     @JsonIgnore
     default boolean isNew() {
         return Objects.isNull(getId());
@@ -0,0 +1,17 @@
+package net.pet.project.simplerest.model;
+
+/**
+ * Interface for entity with version {@link javax.persistence.Version} for optimistic locking.
+ * Version of changed entity is compared with version in DB, update of outdated entity fails
+ * @param <T> type of identifier
+ * @author VN
+ */
+public interface IVersionedEntity<T> extends IEntity<T> {
+
+    /**
+     * @return version or null if it is unknown (entity is updated without check of version)
+     */
+    Long getVersion();
+
+    void setVersion(final Long version);
+}
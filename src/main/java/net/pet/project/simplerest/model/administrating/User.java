@@ -6,17 +6,22 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
-import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.model.IVersionedEntity;
+import net.pet.project.simplerest.repository.id.EntityIdGenerator;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
@@ -26,17 +31,23 @@ import javax.validation.constraints.Size;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode
-@Table(name = "users")
+@Table(name = "users",
+        uniqueConstraints = @UniqueConstraint(name = User.LOGIN_UNIQUE_CONSTRAINT, columnNames = "login"))
+@Cacheable
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
-public class User implements IEntity<Long> {
+public class User implements IVersionedEntity<Long> {
+
+    public static final String LOGIN_UNIQUE_CONSTRAINT = "users_login_key";
 
     @Id
-    @SequenceGenerator(name = "user_seq", sequenceName = "s_users_seq", allocationSize = 1)
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @GeneratedValue(generator = "user_id")
+    @GenericGenerator(name = "user_id", strategy = EntityIdGenerator.NAME, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "s_users_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")})
     private Long id;
 
     @NotBlank
-    @Column(name = "login", nullable = false, unique = true)
+    @Column(name = "login", nullable = false)
     private String login;
 
     @NotBlank
@@ -47,4 +58,12 @@ public class User implements IEntity<Long> {
 
     @Column(name = "active")
     private boolean active;
+
+    /**
+     * Version for optimistic locking and ETag, incremented on every update.
+     * Default value is needed for existing rows
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
 }
\ No newline at end of file
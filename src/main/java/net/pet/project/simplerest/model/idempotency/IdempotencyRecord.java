@@ -0,0 +1,61 @@
+package net.pet.project.simplerest.model.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.pet.project.simplerest.model.IEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Stored response of request with header {@code Idempotency-Key}.
+ * Record is written in the same transaction as result of request, so it exists only for completed requests,
+ * while request is in progress its uncommitted row locks key for concurrent duplicates
+ * @author VN
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idempotency_keys_expires_at_idx", columnList = "expires_at"))
+public class IdempotencyRecord implements IEntity<String> {
+
+    /**
+     * Key of client with method and path of request, so the same key may be used for different resources
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 512)
+    private String id;
+
+    /**
+     * SHA-256 of request, repeat with the same key must be the same request
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * Serialized response
+     */
+    @Column(name = "response", columnDefinition = "text")
+    private String response;
+
+    /**
+     * ETag of response, it is restored in header of replay
+     */
+    @Column(name = "etag", length = 64)
+    private String etag;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "timestamptz")
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false, columnDefinition = "timestamptz")
+    private Instant expiresAt;
+}
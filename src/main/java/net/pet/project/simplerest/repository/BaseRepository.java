@@ -0,0 +1,532 @@
+package net.pet.project.simplerest.repository;
+
+import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.repository.copy.CopyFormat;
+import net.pet.project.simplerest.repository.keyset.Keyset;
+import net.pet.project.simplerest.repository.keyset.KeysetPage;
+import net.pet.project.simplerest.repository.keyset.KeysetRequest;
+import net.pet.project.simplerest.repository.projection.Projection;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.mapping.Column;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.Type;
+import org.jetbrains.annotations.Nullable;
+import org.postgresql.PGConnection;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static net.pet.project.simplerest.util.BatchUtils.MAX_IN_SIZE;
+import static net.pet.project.simplerest.util.BatchUtils.partition;
+
+/**
+ * Base realisation of {@link IBaseRepository}, registered as repository base class for all repositories
+ * @param <E> - entity that stored in DB
+ * @param <T> - identifier type
+ * @author VN
+ */
+public class BaseRepository<E extends IEntity<T>, T> extends SimpleJpaRepository<E, T> implements IBaseRepository<E, T> {
+
+    private static final ConversionService CONVERSION = DefaultConversionService.getSharedInstance();
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    protected final JpaEntityInformation<E, ?> entityInformation;
+    protected final EntityManager em;
+
+    public BaseRepository(JpaEntityInformation<E, ?> entityInformation, EntityManager em) {
+        super(entityInformation, em);
+        this.entityInformation = entityInformation;
+        this.em = em;
+    }
+
+    @Override
+    public KeysetPage<E> findAll(KeysetRequest request) {
+        Assert.notNull(request, "request must not be null");
+        Assert.isTrue(request.getSize() > 0, "size must be greater than 0");
+        final String idName = getIdName();
+        final Sort.Order order = Objects.requireNonNullElse(request.getOrder(), Sort.Order.asc(idName));
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<E> query = cb.createQuery(getDomainClass());
+        Root<E> root = query.from(getDomainClass());
+        Path<Comparable<Object>> sortPath = root.get(order.getProperty());
+        Path<Comparable<Object>> idPath = root.get(idName);
+        boolean bySortOnly = idName.equals(order.getProperty());
+
+        Keyset after = request.getAfter();
+        if (after != null) {
+            Comparable<Object> id = convert(after.getId(), idPath);
+            query.where(bySortOnly
+                    ? greater(cb, order, idPath, id)
+                    : seekPredicate(cb, order, sortPath, convert(after.getValue(), sortPath), idPath, id));
+        }
+        query.orderBy(bySortOnly
+                ? List.of(toOrder(cb, order, idPath))
+                : List.of(toOrder(cb, order, sortPath), toOrder(cb, order, idPath)));
+
+        List<E> content = em.createQuery(query)
+                .setMaxResults(request.getSize() + 1)
+                .getResultList();
+        Keyset next = null;
+        if (content.size() > request.getSize()) {
+            content = content.subList(0, request.getSize());
+            next = toKeyset(content.get(content.size() - 1), order);
+        }
+        return new KeysetPage<>(content, next, request.isWithCount() ? count() : null);
+    }
+
+    @Override
+    public <P> Page<P> findAll(@Nullable Specification<E> spec, Pageable pageable, Projection<P> projection) {
+        Assert.notNull(pageable, "pageable must not be null");
+        Assert.notNull(projection, "projection must not be null");
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<P> query = cb.createQuery(projection.getType());
+        Root<E> root = query.from(getDomainClass());
+        query.select(cb.construct(projection.getType(), projection.getAttributes().stream()
+                .map(root::get)
+                .toArray(Selection[]::new)));
+        return readSelectedPage(query, root, spec, pageable);
+    }
+
+    @Override
+    public Page<Tuple> findAll(@Nullable Specification<E> spec, Pageable pageable, Collection<String> attributes) {
+        Assert.notNull(pageable, "pageable must not be null");
+        Assert.notEmpty(attributes, "attributes must not be empty");
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(getDomainClass());
+        query.multiselect(attributes.stream()
+                .map(a -> root.get(a).alias(a))
+                .collect(toList()));
+        return readSelectedPage(query, root, spec, pageable);
+    }
+
+    @Override
+    public Stream<E> streamAll(int fetchSize) {
+        Assert.isTrue(fetchSize > 0, "fetch size must be greater than 0");
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<E> query = cb.createQuery(getDomainClass());
+        Root<E> root = query.from(getDomainClass());
+        query.orderBy(cb.asc(root.get(getIdName())));
+        return em.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .peek(em::detach);
+    }
+
+    @Override
+    public long copyOut(Collection<String> attributes, CopyFormat format, OutputStream out) {
+        Assert.notEmpty(attributes, "attributes must not be empty");
+        Assert.notNull(format, "format must not be null");
+        Assert.notNull(out, "out must not be null");
+        AbstractEntityPersister persister = getPersister();
+        final String select = attributes.stream()
+                .map(a -> format("%s AS \"%s\"", toColumn(persister, a), a))
+                .collect(joining(", "));
+        final String sql = format("COPY (SELECT %s FROM %s ORDER BY %s) TO STDOUT WITH (%s)",
+                select, persister.getTableName(), persister.getIdentifierColumnNames()[0], format.getOptions());
+        // rows are passed from connection to out by pgjdbc, without result set and hibernate
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public Set<T> findExistingIds(Collection<T> ids) {
+        Assert.notNull(ids, "ids must not be null");
+        final String query = format("select e.%s from %s e where e.%1$s in :ids", getIdName(), entityInformation.getEntityName());
+        Set<T> result = new HashSet<>(ids.size());
+        for (List<T> chunk : partition(ids, MAX_IN_SIZE)) {
+            result.addAll(em.createQuery(query, getIdType())
+                    .setParameter("ids", chunk)
+                    .getResultList());
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<E> findAllByIdAny(Collection<T> ids) {
+        Assert.notNull(ids, "ids must not be null");
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        SessionFactoryImplementor factory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        AbstractEntityPersister persister = getPersister();
+        final String idSqlType = factory.getJdbcServices().getDialect().getTypeName(
+                persister.getIdentifierType().sqlTypes(factory)[0],
+                Column.DEFAULT_LENGTH, Column.DEFAULT_PRECISION, Column.DEFAULT_SCALE);
+        final String sql = format("select * from %s where %s = any(cast(?1 as %s[]))",
+                persister.getTableName(), persister.getIdentifierColumnNames()[0], idSqlType);
+        return em.createNativeQuery(sql, getDomainClass())
+                .setParameter(1, toArrayLiteral(ids))
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultList();
+    }
+
+    @Override
+    public Optional<Object> findVersionById(T id) {
+        Assert.notNull(id, "id must not be null");
+        AbstractEntityPersister persister = getPersister();
+        if (!persister.isVersioned()) {
+            return Optional.empty();
+        }
+        final String query = format("select e.%s from %s e where e.%s = :id",
+                persister.getPropertyNames()[persister.getVersionProperty()], entityInformation.getEntityName(), getIdName());
+        // type of version column differs between entities (int, long, timestamp)
+        return em.createQuery(query, Object.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Save entity, version of existing entity without version is taken from DB (last write wins)
+     */
+    @Override
+    @Transactional
+    public <S extends E> S save(S entity) {
+        Assert.notNull(entity, "entity must not be null");
+        if (!entityInformation.isNew(entity)) {
+            fillVersion(entity);
+        }
+        return super.save(entity);
+    }
+
+    @Override
+    @Transactional
+    public List<E> saveAllInBatch(Collection<E> entities) {
+        Assert.notNull(entities, "entities must not be null");
+        List<E> result = new ArrayList<>(entities.size());
+        for (List<E> chunk : partition(entities, getBatchSize())) {
+            List<T> existingIds = chunk.stream()
+                    .filter(e -> !entityInformation.isNew(e))
+                    .map(IEntity::getId)
+                    .collect(toList());
+            if (!existingIds.isEmpty()) {
+                // load to persistence context, so merge doesn't select every entity
+                findAllById(existingIds);
+            }
+            List<E> saved = new ArrayList<>(chunk.size());
+            for (E entity : chunk) {
+                if (entityInformation.isNew(entity)) {
+                    em.persist(entity);
+                    saved.add(entity);
+                } else {
+                    fillVersion(entity);
+                    saved.add(em.merge(entity));
+                }
+            }
+            em.flush();
+            // detach only this chunk, other managed entities of caller's transaction stay managed
+            saved.forEach(em::detach);
+            result.addAll(saved);
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByIdInBatch(Collection<T> ids) {
+        Assert.notNull(ids, "ids must not be null");
+        final String query = format("delete from %s e where e.%s in :ids", entityInformation.getEntityName(), getIdName());
+        for (List<T> chunk : partition(ids, MAX_IN_SIZE)) {
+            em.createQuery(query).setParameter("ids", chunk).executeUpdate();
+        }
+    }
+
+    @Override
+    @Transactional
+    public int deleteInOneStatement(T id) {
+        Assert.notNull(id, "id must not be null");
+        return em.createQuery(format("delete from %s e where e.%s = :id", entityInformation.getEntityName(), getIdName()))
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Optional<E> updateReturning(E entity) {
+        Assert.notNull(entity, "entity must not be null");
+        Assert.notNull(entity.getId(), "id must not be null");
+        AbstractEntityPersister persister = getPersister();
+        Object[] values = persister.getPropertyValues(entity);
+        Type[] types = persister.getPropertyTypes();
+
+        StringJoiner set = new StringJoiner(", ");
+        List<Integer> updatable = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (!persister.getPropertyUpdateability()[i]) {
+                continue;
+            }
+            String[] columns = persister.getPropertyColumnNames(i);
+            Assert.state(columns.length == 1 && !types[i].isAssociationType() && !types[i].isComponentType(),
+                    "update returning supports only basic properties, but found " + persister.getPropertyNames()[i]);
+            if (persister.isVersioned() && i == persister.getVersionProperty()) {
+                set.add(format("%s = %1$s + 1", columns[0]));
+                continue;
+            }
+            updatable.add(i);
+            set.add(format("%s = ?%d", columns[0], updatable.size()));
+        }
+        final Object version = persister.isVersioned() ? persister.getVersion(entity) : null;
+        final String sql = format("update %s set %s where %s = ?%d%s returning *",
+                persister.getTableName(), set, persister.getIdentifierColumnNames()[0], updatable.size() + 1,
+                version == null ? "" : format(" and %s = ?%d",
+                        persister.getPropertyColumnNames(persister.getVersionProperty())[0], updatable.size() + 2));
+
+        NativeQuery<E> query = em.createNativeQuery(sql, getDomainClass()).unwrap(NativeQuery.class);
+        for (int i = 0; i < updatable.size(); i++) {
+            int property = updatable.get(i);
+            query.setParameter(i + 1, values[property], types[property]);
+        }
+        query.setParameter(updatable.size() + 1, entity.getId(), persister.getIdentifierType());
+        if (version != null) {
+            query.setParameter(updatable.size() + 2, version, persister.getVersionType());
+        }
+        // managed entity with the same id would be returned instead of updated row
+        detachManaged(entity.getId());
+        invalidateCache(entity.getId());
+        return query.getResultList().stream().findFirst();
+    }
+
+    /**
+     * Doesn't need transaction, so it doesn't take connection
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void evictFromCache(Collection<T> ids) {
+        Assert.notNull(ids, "ids must not be null");
+        SessionFactoryImplementor factory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        ids.forEach(id -> factory.getCache().evictEntityData(getDomainClass(), (Serializable) id));
+        factory.getCache().evictQueryRegions();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void evictAllFromCache() {
+        SessionFactoryImplementor factory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        factory.getCache().evictEntityData(getDomainClass());
+        factory.getCache().evictQueryRegions();
+    }
+
+    //================================================= UTIL METHODS ===================================================
+
+    /**
+     * Invalidate second level cache and query cache for entity tables like hibernate does for own writes.
+     * Must be called before native statements, because they aren't tracked by cache.
+     * Before write entity is evicted and entity tables are pre-invalidated, so results of queries that are executed
+     * until end of transaction aren't cached. After end of transaction (commit or rollback, rollback must end
+     * pre-invalidation too) entity is evicted and tables are invalidated again, so state that was read by
+     * concurrent transaction before commit doesn't stay in cache
+     * @throws IllegalStateException if transaction isn't active
+     */
+    protected void invalidateCache(final T id) {
+        Assert.state(TransactionSynchronizationManager.isSynchronizationActive(),
+                "invalidation of cache requires transaction");
+        final SessionFactoryImplementor factory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        final SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        final boolean queryCacheEnabled = factory.getSessionFactoryOptions().isQueryCacheEnabled();
+        final Serializable[] spaces = getPersister().getQuerySpaces();
+        factory.getCache().evictEntityData(getDomainClass(), (Serializable) id);
+        if (queryCacheEnabled) {
+            factory.getCache().getTimestampsCache().preInvalidate(spaces, session);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                factory.getCache().evictEntityData(getDomainClass(), (Serializable) id);
+                if (queryCacheEnabled) {
+                    factory.getCache().getTimestampsCache().invalidate(spaces, session);
+                }
+            }
+        });
+    }
+
+    /**
+     * Flush and detach entity with id if it's managed by persistence context (without loading of entity)
+     */
+    protected void detachManaged(final T id) {
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        Object managed = session.getPersistenceContext()
+                .getEntity(session.generateEntityKey((Serializable) id, getPersister()));
+        if (managed != null) {
+            em.flush();
+            em.detach(managed);
+        }
+    }
+
+    /**
+     * Set version of managed entity with the same id to {@code entity} if it hasn't version,
+     * otherwise merge fails because versions are different
+     */
+    protected void fillVersion(final E entity) {
+        AbstractEntityPersister persister = getPersister();
+        if (!persister.isVersioned() || persister.getVersion(entity) != null) {
+            return;
+        }
+        Optional.ofNullable(em.find(getDomainClass(), entity.getId()))
+                .map(persister::getVersion)
+                .ifPresent(v -> persister.setPropertyValue(entity, persister.getVersionProperty(), v));
+    }
+
+    /**
+     * Hibernate metadata of entity (table, columns and types)
+     */
+    protected AbstractEntityPersister getPersister() {
+        return (AbstractEntityPersister) em.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(getDomainClass());
+    }
+
+    /**
+     * Column of basic attribute
+     * @throws IllegalStateException if attribute is association, embedded or has several columns
+     */
+    protected String toColumn(final AbstractEntityPersister persister, final String attribute) throws IllegalStateException {
+        if (attribute.equals(persister.getIdentifierPropertyName())) {
+            return persister.getIdentifierColumnNames()[0];
+        }
+        Type type = persister.getPropertyType(attribute);
+        String[] columns = persister.getPropertyColumnNames(attribute);
+        Assert.state(columns.length == 1 && !type.isAssociationType() && !type.isComponentType(),
+                "only basic attributes are supported, but found " + attribute);
+        return columns[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Class<T> getIdType() {
+        return (Class<T>) entityInformation.getIdType();
+    }
+
+    /**
+     * Jdbc batch size from {@link AvailableSettings#STATEMENT_BATCH_SIZE}
+     */
+    protected int getBatchSize() {
+        Object batchSize = em.getEntityManagerFactory().getProperties().get(AvailableSettings.STATEMENT_BATCH_SIZE);
+        return batchSize == null ? DEFAULT_BATCH_SIZE : Integer.parseInt(batchSize.toString());
+    }
+
+    protected String getIdName() {
+        return Objects.requireNonNull(entityInformation.getIdAttribute(), "entity must have id attribute").getName();
+    }
+
+    /**
+     * Read page of selected values (not entities) matching {@code spec}, values aren't tracked by persistence context
+     */
+    private <P> Page<P> readSelectedPage(CriteriaQuery<P> query, Root<E> root, @Nullable Specification<E> spec, Pageable pageable) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        if (spec != null) {
+            query.where(spec.toPredicate(root, query, cb));
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        TypedQuery<P> typedQuery = em.createQuery(query).setHint(QueryHints.HINT_READONLY, true);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(spec));
+    }
+
+    /**
+     * Expanded form of {@code (sort, id) > (value, id)}: {@code sort >= value AND (sort > value OR id > id)}.
+     * First part allows to use index by sort column
+     */
+    private Predicate seekPredicate(CriteriaBuilder cb,
+                                    Sort.Order order,
+                                    Path<Comparable<Object>> sortPath,
+                                    Comparable<Object> value,
+                                    Path<Comparable<Object>> idPath,
+                                    Comparable<Object> id) {
+        return cb.and(
+                order.isAscending()
+                        ? cb.greaterThanOrEqualTo(sortPath, value)
+                        : cb.lessThanOrEqualTo(sortPath, value),
+                cb.or(greater(cb, order, sortPath, value), greater(cb, order, idPath, id))
+        );
+    }
+
+    private Predicate greater(CriteriaBuilder cb, Sort.Order order, Path<Comparable<Object>> path, Comparable<Object> value) {
+        return order.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+
+    private javax.persistence.criteria.Order toOrder(CriteriaBuilder cb, Sort.Order order, Path<?> path) {
+        return order.isAscending() ? cb.asc(path) : cb.desc(path);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> convert(final String value, final Path<?> path) {
+        Assert.notNull(value, "keyset doesn't support null values");
+        return (Comparable<Object>) CONVERSION.convert(value, path.getJavaType());
+    }
+
+    /**
+     * Postgres array literal {@code {"1","2"}}, every element is quoted, so it is parsed by type of array
+     */
+    private String toArrayLiteral(final Collection<T> ids) {
+        return ids.stream()
+                .map(id -> '"' + String.valueOf(id).replace("\\", "\\\\").replace("\"", "\\\"") + '"')
+                .collect(joining(",", "{", "}"));
+    }
+
+    private Keyset toKeyset(final E entity, final Sort.Order order) {
+        Object value = new DirectFieldAccessFallbackBeanWrapper(entity).getPropertyValue(order.getProperty());
+        return new Keyset(
+                order.getProperty(),
+                order.getDirection(),
+                String.valueOf(entity.getId()),
+                value == null ? null : CONVERSION.convert(value, String.class)
+        );
+    }
+}
@@ -1,10 +1,27 @@
 package net.pet.project.simplerest.repository;
 
 import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.repository.copy.CopyFormat;
+import net.pet.project.simplerest.repository.keyset.KeysetPage;
+import net.pet.project.simplerest.repository.keyset.KeysetRequest;
+import net.pet.project.simplerest.repository.projection.Projection;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import javax.persistence.Tuple;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
 /**
  * Common realisation repository layer for entity {@link IEntity}
  * @param <E> - entity that stored in DB
@@ -13,4 +30,119 @@ import org.springframework.data.repository.NoRepositoryBean;
  */
 @NoRepositoryBean
 public interface IBaseRepository<E extends IEntity<T>, T> extends JpaRepository<E, T>, JpaSpecificationExecutor<E> {
+
+    /**
+     * Return page by keyset (without OFFSET), cost of every page is the same as first page
+     * @see BaseRepository#findAll(KeysetRequest)
+     */
+    KeysetPage<E> findAll(KeysetRequest request);
+
+    /**
+     * Return page of dto {@link P}: only attributes of projection are selected and dto is created directly
+     * from row, without entity in persistence context
+     * @see Projection
+     */
+    default <P> Page<P> findAll(Pageable pageable, Projection<P> projection) {
+        return findAll(null, pageable, projection);
+    }
+
+    /**
+     * Return page of dto {@link P} matching {@code spec}
+     * @param spec condition of rows, if null then all rows
+     * @see IBaseRepository#findAll(Pageable, Projection)
+     */
+    <P> Page<P> findAll(@Nullable Specification<E> spec, Pageable pageable, Projection<P> projection);
+
+    /**
+     * Return page of tuples with only {@code attributes} selected, element alias is name of attribute.
+     * IMPORTANT: attributes must be validated by caller, unknown attribute fails query
+     */
+    default Page<Tuple> findAll(Pageable pageable, Collection<String> attributes) {
+        return findAll(null, pageable, attributes);
+    }
+
+    /**
+     * Return page of tuples matching {@code spec}
+     * @param spec condition of rows, if null then all rows
+     * @see IBaseRepository#findAll(Pageable, Collection)
+     */
+    Page<Tuple> findAll(@Nullable Specification<E> spec, Pageable pageable, Collection<String> attributes);
+
+    /**
+     * Return all entities ordered by id from forward-only cursor.
+     * Entities are read-only and detached after reading, so persistence context doesn't grow.
+     * IMPORTANT: must be called inside transaction, stream must be closed
+     * @param fetchSize count of rows that fetched from DB per round trip
+     */
+    Stream<E> streamAll(int fetchSize);
+
+    /**
+     * Write {@code attributes} of all entities ordered by id to {@code out} with one statement
+     * {@code COPY (SELECT ...) TO STDOUT} (PostgreSQL, pgjdbc driver). Rows aren't mapped to entities or objects,
+     * bytes of DB are written to {@code out} as is. Column names of result are names of attributes.
+     * IMPORTANT: attributes must be validated by caller, only basic attributes are supported
+     * @return count of written rows
+     * @throws UncheckedIOException if {@code out} can't be written
+     */
+    long copyOut(Collection<String> attributes, CopyFormat format, OutputStream out);
+
+    /**
+     * Return version of entity (select only version column, without entity hydration)
+     * @return version or empty if entity with id doesn't exist or entity isn't versioned
+     */
+    Optional<Object> findVersionById(T id);
+
+    /**
+     * Return identifiers from {@code ids} that exist in DB (select only identifiers)
+     */
+    Set<T> findExistingIds(Collection<T> ids);
+
+    /**
+     * Return entities by identifiers with one statement {@code SELECT ... WHERE id = ANY(?)}: all ids are bound
+     * as one array parameter, so statement is the same for any count of ids (PostgreSQL syntax).
+     * Order of result isn't defined, missing ids are skipped
+     */
+    List<E> findAllByIdAny(Collection<T> ids);
+
+    /**
+     * Save entities with jdbc batching: new entities are persisted, existing are merged
+     * (they are loaded by one query per batch before merge).
+     * Persistence context is flushed after each batch and entities of the batch are detached, so returned entities
+     * are detached, other managed entities stay managed
+     */
+    List<E> saveAllInBatch(Collection<E> entities);
+
+    /**
+     * Delete entities by identifiers with one query per {@link net.pet.project.simplerest.util.BatchUtils#MAX_IN_SIZE} ids.
+     * IMPORTANT: cascades and entity callbacks aren't applied
+     */
+    void deleteAllByIdInBatch(Collection<T> ids);
+
+    /**
+     * Delete entity by identifier with one statement {@code DELETE ... WHERE id = ?}
+     * (without select before delete). IMPORTANT: cascades and entity callbacks aren't applied
+     * @return count of deleted rows (0 if entity with id doesn't exist)
+     */
+    int deleteInOneStatement(T id);
+
+    /**
+     * Update existing entity with one statement {@code UPDATE ... WHERE id = ? RETURNING *}
+     * (without select before update). Supports only basic properties (PostgreSQL syntax),
+     * version of entity is incremented by DB. If entity has version then it is checked by the same statement
+     * {@code UPDATE ... WHERE id = ? AND version = ?}.
+     * Managed entity with the same id is flushed and detached, so result always has state of updated row
+     * @return updated entity or empty if entity with id (and version) doesn't exist
+     */
+    Optional<E> updateReturning(E entity);
+
+    /**
+     * Evict entities from second level cache and all cached query results, for changes that were made
+     * outside of this application (for example, by other node)
+     */
+    void evictFromCache(Collection<T> ids);
+
+    /**
+     * Evict all entities of this type from second level cache and all cached query results
+     */
+    void evictAllFromCache();
 }
\ No newline at end of file
@@ -2,8 +2,15 @@ package net.pet.project.simplerest.repository.administrating;
 
 import net.pet.project.simplerest.model.administrating.User;
 import net.pet.project.simplerest.repository.IBaseRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,5 +19,23 @@ import java.util.Optional;
  */
 @Repository
 public interface UserRepository extends IBaseRepository<User, Long> {
+    /**
+     * Result is stored in query cache (invalidated by any change of users)
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByLogin(String login);
+
+    /**
+     * Read from primary (not read-only transaction), replica could miss recent logins
+     */
+    @Transactional
+    @Query("select u.login from User u")
+    List<String> findAllLogins();
+
+    /**
+     * @see UserRepository#findAllLogins()
+     */
+    @Transactional
+    @Query("select u.login from User u where u.id in :ids")
+    List<String> findAllLoginsByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package net.pet.project.simplerest.repository.copy;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+/**
+ * Format of PostgreSQL {@code COPY ... TO STDOUT}
+ * @author VN
+ */
+@Getter
+@AllArgsConstructor
+public enum CopyFormat {
+
+    /**
+     * Csv with header row (names of attributes)
+     */
+    CSV("FORMAT csv, HEADER true", new MediaType("text", "csv"), "csv"),
+    /**
+     * Binary format of PostgreSQL, it is faster to write and read than csv, but readable only by COPY FROM
+     */
+    BINARY("FORMAT binary", MediaType.APPLICATION_OCTET_STREAM, "bin");
+
+    /**
+     * Options of COPY statement
+     */
+    private final String options;
+    private final MediaType mediaType;
+    private final String extension;
+}
@@ -0,0 +1,48 @@
+package net.pet.project.simplerest.repository.filter;
+
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Filter of request param {@code ?filter=id:gt:100;login:prefix:adm}: conditions separated by
+ * {@link Filter#CONDITIONS_DELIMITER} are joined by AND. Compiled to query by {@link FilterSpecification}
+ * @author VN
+ */
+@Value
+public class Filter {
+
+    public static final String CONDITIONS_DELIMITER = ";";
+    public static final String PARTS_DELIMITER = ":";
+    public static final String VALUES_DELIMITER = ",";
+
+    List<FilterCondition> conditions;
+
+    /**
+     * Parse filter from request param, used by spring conversion for request params
+     * @throws IllegalArgumentException if filter is malformed
+     */
+    public static Filter valueOf(final String filter) throws IllegalArgumentException {
+        if (StringUtils.isBlank(filter)) {
+            throw new IllegalArgumentException("filter must not be blank");
+        }
+        return new Filter(Arrays.stream(filter.split(CONDITIONS_DELIMITER))
+                .filter(StringUtils::isNotBlank)
+                .map(Filter::parseCondition)
+                .collect(toList()));
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private static FilterCondition parseCondition(final String condition) {
+        final String[] parts = condition.split(PARTS_DELIMITER, 3);
+        if (parts.length != 3 || StringUtils.isBlank(parts[0])) {
+            throw new IllegalArgumentException("malformed filter condition " + condition + ", expected field:operator:value");
+        }
+        return new FilterCondition(parts[0].trim(), FilterOperator.of(parts[1].trim()), parts[2]);
+    }
+}
@@ -0,0 +1,22 @@
+package net.pet.project.simplerest.repository.filter;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * One condition of {@link Filter}: {@code field:operator:value}
+ * @author VN
+ */
+@Value
+public class FilterCondition {
+
+    @NonNull
+    String field;
+    @NonNull
+    FilterOperator operator;
+    /**
+     * Raw value, converted to type of field when predicate is built
+     */
+    @NonNull
+    String value;
+}
@@ -0,0 +1,37 @@
+package net.pet.project.simplerest.repository.filter;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Operator of {@link Filter} condition, every operator can be served by btree index
+ * @author VN
+ */
+public enum FilterOperator {
+    EQ,
+    GT,
+    GE,
+    LT,
+    LE,
+    /**
+     * One of values separated by {@link Filter#VALUES_DELIMITER}
+     */
+    IN,
+    /**
+     * String starts with value ({@code LIKE 'value%'}), index must support pattern matching
+     * (C collation or {@code text_pattern_ops})
+     */
+    PREFIX;
+
+    /**
+     * Operator by name ignoring case
+     * @throws IllegalArgumentException if operator is unknown
+     */
+    public static FilterOperator of(final String name) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(o -> o.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "unknown filter operator " + name + ", allowed " + Arrays.toString(values()).toLowerCase(Locale.ROOT)));
+    }
+}
@@ -0,0 +1,72 @@
+package net.pet.project.simplerest.repository.filter;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Arrays;
+
+/**
+ * {@link Specification} from {@link Filter}: conditions are joined by AND, values are converted to types of fields.
+ * IMPORTANT: fields and operators must be validated by caller
+ * @param <E> - entity
+ * @author VN
+ */
+public class FilterSpecification<E> implements Specification<E> {
+
+    private static final ConversionService CONVERSION = DefaultConversionService.getSharedInstance();
+    private static final char ESCAPE = '\\';
+
+    private final Filter filter;
+
+    public FilterSpecification(Filter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<E> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        return cb.and(filter.getConditions().stream()
+                .map(c -> toPredicate(root.get(c.getField()), c, cb))
+                .toArray(Predicate[]::new));
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private Predicate toPredicate(final Path<Comparable<Object>> path, final FilterCondition condition, final CriteriaBuilder cb) {
+        switch (condition.getOperator()) {
+            case GT:
+                return cb.greaterThan(path, convert(condition.getValue(), path));
+            case GE:
+                return cb.greaterThanOrEqualTo(path, convert(condition.getValue(), path));
+            case LT:
+                return cb.lessThan(path, convert(condition.getValue(), path));
+            case LE:
+                return cb.lessThanOrEqualTo(path, convert(condition.getValue(), path));
+            case IN:
+                return path.in(Arrays.stream(condition.getValue().split(Filter.VALUES_DELIMITER))
+                        .map(v -> convert(v, path))
+                        .toArray());
+            case PREFIX:
+                return cb.like(path.as(String.class), escapeLike(condition.getValue()) + "%", ESCAPE);
+            case EQ:
+            default:
+                return cb.equal(path, convert(condition.getValue(), path));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> convert(final String value, final Path<?> path) {
+        return (Comparable<Object>) CONVERSION.convert(value, path.getJavaType());
+    }
+
+    private String escapeLike(final String value) {
+        return value.replace(String.valueOf(ESCAPE), "" + ESCAPE + ESCAPE)
+                .replace("%", ESCAPE + "%")
+                .replace("_", ESCAPE + "_");
+    }
+}
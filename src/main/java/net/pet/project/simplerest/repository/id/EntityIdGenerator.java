@@ -0,0 +1,55 @@
+package net.pet.project.simplerest.repository.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Generator of identifiers of {@link net.pet.project.simplerest.model.IEntity} with strategy from settings of
+ * Hibernate {@link EntityIdGenerator#STRATEGY_SETTING} (default is {@link IdGenerationStrategy#POOLED_LO}).
+ * Id is known before insert without separate call of DB for every entity, so inserts can be batched.
+ * Sequence of entity ({@code sequence_name}, {@code increment_size}) is created for every strategy
+ * @author VN
+ */
+public class EntityIdGenerator extends SequenceStyleGenerator {
+
+    public static final String NAME = "net.pet.project.simplerest.repository.id.EntityIdGenerator";
+
+    public static final String STRATEGY_SETTING = "simple_rest.id_generation.strategy";
+    public static final String TIME_BASED_GENERATOR_SETTING = "simple_rest.id_generation.time_based_generator";
+
+    private static final String POOLED_LO_OPTIMIZER = "pooled-lo";
+
+    private TimeBasedIdGenerator timeBasedGenerator;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        final Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        final IdGenerationStrategy strategy = Optional.ofNullable(settings.get(STRATEGY_SETTING))
+                .map(Object::toString)
+                .map(IdGenerationStrategy::valueOf)
+                .orElse(IdGenerationStrategy.POOLED_LO);
+        if (strategy == IdGenerationStrategy.TIME_BASED) {
+            if (!Long.class.equals(type.getReturnedClass())) {
+                throw new MappingException("time based id requires Long identifier, but was " + type.getReturnedClass());
+            }
+            timeBasedGenerator = Optional.ofNullable((TimeBasedIdGenerator) settings.get(TIME_BASED_GENERATOR_SETTING))
+                    .orElseThrow(() -> new MappingException(TIME_BASED_GENERATOR_SETTING + " must be set for time based id"));
+        }
+        params.putIfAbsent(OPT_PARAM, POOLED_LO_OPTIMIZER);
+        super.configure(type, params, serviceRegistry);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return timeBasedGenerator != null ? timeBasedGenerator.nextId() : super.generate(session, object);
+    }
+}
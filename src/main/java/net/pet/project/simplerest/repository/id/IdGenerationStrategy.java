@@ -0,0 +1,18 @@
+package net.pet.project.simplerest.repository.id;
+
+/**
+ * Strategy of generation of entity identifiers by {@link EntityIdGenerator}
+ * @author VN
+ */
+public enum IdGenerationStrategy {
+    /**
+     * Value of DB sequence is the lowest id of block of {@code increment_size} ids that are given out in memory,
+     * so sequence is called once per block
+     */
+    POOLED_LO,
+    /**
+     * Ids are generated in memory by {@link TimeBasedIdGenerator}, DB isn't called at all.
+     * Every node of application must have own node id
+     */
+    TIME_BASED
+}
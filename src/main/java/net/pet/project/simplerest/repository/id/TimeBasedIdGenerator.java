@@ -0,0 +1,64 @@
+package net.pet.project.simplerest.repository.id;
+
+import org.springframework.util.Assert;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Coordination-free generator of 64-bit ids: 41 bits of milliseconds since {@code epoch} (about 69 years),
+ * 10 bits of node id and 12 bits of counter inside millisecond (4096 ids per millisecond on node).
+ * Ids of node grow monotonically: if clock goes back or counter is exhausted, the last millisecond is continued.
+ * Ids of different nodes don't intersect while node ids are different
+ * @author VN
+ */
+public class TimeBasedIdGenerator {
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_TIMESTAMP = (1L << (Long.SIZE - 1 - NODE_BITS - SEQUENCE_BITS)) - 1;
+
+    private final long nodeId;
+    private final long epochMillis;
+    private final Clock clock;
+
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    public TimeBasedIdGenerator(final long nodeId, final Instant epoch) {
+        this(nodeId, epoch, Clock.systemUTC());
+    }
+
+    public TimeBasedIdGenerator(final long nodeId, final Instant epoch, final Clock clock) {
+        Assert.isTrue(nodeId >= 0 && nodeId <= MAX_NODE_ID, "node id must be between 0 and " + MAX_NODE_ID);
+        Assert.notNull(epoch, "epoch must not be null");
+        Assert.isTrue(!epoch.isAfter(clock.instant()), "epoch must not be in the future");
+        this.nodeId = nodeId;
+        this.epochMillis = epoch.toEpochMilli();
+        this.clock = clock;
+    }
+
+    public synchronized long nextId() {
+        final long timestamp = Math.max(clock.millis() - epochMillis, lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                lastTimestamp++;
+            }
+        } else {
+            sequence = 0;
+            lastTimestamp = timestamp;
+        }
+        if (lastTimestamp > MAX_TIMESTAMP) {
+            throw new IllegalStateException("timestamp of id is out of range, epoch must be moved");
+        }
+        return (lastTimestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    public static long getNodeId(final long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+}
@@ -0,0 +1,28 @@
+package net.pet.project.simplerest.repository.idempotency;
+
+import net.pet.project.simplerest.model.idempotency.IdempotencyRecord;
+import net.pet.project.simplerest.repository.IBaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Repository for {@link IdempotencyRecord}.
+ * Claim of key is in {@link net.pet.project.simplerest.service.idempotency.IdempotencyService}: it's native
+ * insert, and native modifying query of hibernate evicts all regions of second level cache
+ * @author VN
+ */
+@Repository
+public interface IdempotencyRecordRepository extends IBaseRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.response = :response, r.etag = :etag where r.id = :key")
+    int complete(@Param("key") String key, @Param("response") String response, @Param("etag") String etag);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteAllExpired(@Param("now") Instant now);
+}
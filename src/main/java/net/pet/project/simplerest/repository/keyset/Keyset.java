@@ -0,0 +1,73 @@
+package net.pet.project.simplerest.repository.keyset;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.NonNull;
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Position of the last row of {@link KeysetPage} (sort key + id).
+ * Serialized to client as opaque "after" token
+ * @author VN
+ */
+@Value
+public class Keyset {
+
+    private static final String DELIMITER = ":";
+
+    @NonNull
+    String property;
+    @NonNull
+    Sort.Direction direction;
+    @NonNull
+    String id;
+    String value;
+
+    public Sort.Order getOrder() {
+        return new Sort.Order(direction, property);
+    }
+
+    /**
+     * Encode keyset to opaque url-safe token
+     */
+    @JsonValue
+    public String encode() {
+        final String raw = String.join(DELIMITER,
+                direction.name(),
+                property,
+                URLEncoder.encode(id, UTF_8),
+                value == null ? "" : URLEncoder.encode(value, UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(UTF_8));
+    }
+
+    /**
+     * Decode keyset from token that was created by {@link Keyset#encode()}.
+     * Used by spring conversion for request params
+     * @throws IllegalArgumentException if token is malformed
+     */
+    @JsonCreator
+    public static Keyset valueOf(final String token) throws IllegalArgumentException {
+        final String[] parts = new String(Base64.getUrlDecoder().decode(token), UTF_8).split(DELIMITER, 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("malformed keyset token " + token);
+        }
+        return new Keyset(
+                parts[1],
+                Sort.Direction.fromString(parts[0]),
+                URLDecoder.decode(parts[2], UTF_8),
+                parts[3].isEmpty() ? null : URLDecoder.decode(parts[3], UTF_8)
+        );
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
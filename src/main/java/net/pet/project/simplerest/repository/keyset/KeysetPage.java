@@ -0,0 +1,36 @@
+package net.pet.project.simplerest.repository.keyset;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Page of content that was received by {@link KeysetRequest}
+ * @param <X> type of content
+ * @author VN
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetPage<X> {
+
+    private final List<X> content;
+    /**
+     * Keyset for next page, null if it's last page
+     */
+    @Nullable
+    private final Keyset next;
+    /**
+     * Count of all rows, null if it wasn't requested
+     */
+    @Nullable
+    private final Long total;
+
+    public <U> KeysetPage<U> map(Function<? super X, ? extends U> converter) {
+        return new KeysetPage<>(content.stream().map(converter).collect(toList()), next, total);
+    }
+}
@@ -0,0 +1,46 @@
+package net.pet.project.simplerest.repository.keyset;
+
+import lombok.Builder;
+import lombok.Value;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Request for page by keyset (seek method): {@code WHERE (sort, id) > (?, ?) LIMIT size}.
+ * Sort supports only one property, identifier is used as tiebreaker
+ * @author VN
+ */
+@Value
+@Builder
+public class KeysetRequest {
+
+    int size;
+    /**
+     * Sort by property, if null then sort by identifier
+     */
+    Sort.Order order;
+    /**
+     * Last row of previous page, if null then return first page
+     */
+    Keyset after;
+    /**
+     * Is needed count all rows (additional query)
+     */
+    boolean withCount;
+
+    /**
+     * Build request from {@link Pageable} (page number is ignored).
+     * If {@code after} is present, sort is taken from it
+     */
+    public static KeysetRequest of(final Pageable page, @Nullable final Keyset after, final boolean withCount) {
+        return KeysetRequest.builder()
+                .size(page.getPageSize())
+                .order(after != null
+                        ? after.getOrder()
+                        : page.getSort().stream().findFirst().orElse(null))
+                .after(after)
+                .withCount(withCount)
+                .build();
+    }
+}
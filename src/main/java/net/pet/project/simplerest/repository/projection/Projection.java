@@ -0,0 +1,26 @@
+package net.pet.project.simplerest.repository.projection;
+
+import lombok.Value;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * Projection of entity to dto: only {@code attributes} are selected and dto is created by constructor with
+ * the same parameters in the same order ({@code SELECT new Dto(e.a, e.b) FROM Entity e}).
+ * Dto isn't managed by persistence context, so there is no entity hydration and no snapshot for dirty checking
+ * @param <P> - dto type
+ * @author VN
+ */
+@Value
+public class Projection<P> {
+
+    Class<P> type;
+    List<String> attributes;
+
+    public static <P> Projection<P> of(final Class<P> type, final String... attributes) {
+        Assert.notNull(type, "type must not be null");
+        Assert.notEmpty(attributes, "attributes must not be empty");
+        return new Projection<>(type, List.of(attributes));
+    }
+}
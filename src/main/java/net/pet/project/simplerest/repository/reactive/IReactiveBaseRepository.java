@@ -0,0 +1,58 @@
+package net.pet.project.simplerest.repository.reactive;
+
+import net.pet.project.simplerest.model.IEntity;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking repository layer for entity {@link IEntity} (R2DBC), counterpart of
+ * {@link net.pet.project.simplerest.repository.IBaseRepository}
+ * @param <E> - entity that stored in DB
+ * @param <T> - identifier type
+ * @author VN
+ */
+public interface IReactiveBaseRepository<E extends IEntity<T>, T> {
+
+    /**
+     * @return entity or empty if entity with id doesn't exist
+     */
+    Mono<E> findById(T id);
+
+    Mono<Boolean> existsById(T id);
+
+    /**
+     * Return entities of page, sort properties must be sortable columns
+     * @throws IllegalArgumentException if sort property isn't sortable
+     */
+    Flux<E> findAll(Pageable pageable);
+
+    Mono<Long> count();
+
+    /**
+     * Return all entities ordered by id from DB cursor: rows are fetched by {@code fetchSize} on demand of subscriber,
+     * so slow subscriber slows down reading from DB (backpressure) instead of buffering rows.
+     * IMPORTANT: must be subscribed inside transaction, then cursor is kept on one connection
+     * @param fetchSize count of rows that fetched from DB per round trip
+     */
+    Flux<E> streamAll(int fetchSize);
+
+    /**
+     * Insert new entity with one statement {@code INSERT ... RETURNING *}
+     * @return inserted entity with id
+     */
+    Mono<E> insert(E entity);
+
+    /**
+     * Update existing entity with one statement {@code UPDATE ... WHERE id = ? RETURNING *}, version of entity is
+     * incremented by DB and checked by the same statement if entity has version
+     * @return updated entity or empty if entity with id (and version) doesn't exist
+     */
+    Mono<E> updateReturning(E entity);
+
+    /**
+     * Delete entity by identifier with one statement {@code DELETE ... WHERE id = ?}
+     * @return count of deleted rows (0 if entity with id doesn't exist)
+     */
+    Mono<Integer> deleteById(T id);
+}
@@ -0,0 +1,173 @@
+package net.pet.project.simplerest.repository.reactive;
+
+import io.r2dbc.spi.Row;
+import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.model.IVersionedEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Realisation of {@link IReactiveBaseRepository} with {@link DatabaseClient}: every method is one SQL statement.
+ * Columns of entity are mapped by subclass, id of new row is generated by DB ({@link ReactiveBaseRepository#getIdGenerator()}),
+ * version of {@link IVersionedEntity} is kept in column {@code version} and incremented by DB
+ * @param <E> - entity that stored in DB
+ * @param <T> - identifier type
+ * @author VN
+ */
+public abstract class ReactiveBaseRepository<E extends IEntity<T>, T> implements IReactiveBaseRepository<E, T> {
+
+    private static final String ID = "id";
+    private static final String VERSION = "version";
+
+    protected final DatabaseClient client;
+
+    protected ReactiveBaseRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Mono<E> findById(final T id) {
+        Assert.notNull(id, "id must not be null");
+        return client.sql(format("SELECT * FROM %s WHERE %s = :id", getTableName(), ID))
+                .bind(ID, id)
+                .map((row, metadata) -> toEntity(row))
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(final T id) {
+        Assert.notNull(id, "id must not be null");
+        return client.sql(format("SELECT 1 FROM %s WHERE %s = :id", getTableName(), ID))
+                .bind(ID, id)
+                .map((row, metadata) -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    @Override
+    public Flux<E> findAll(final Pageable pageable) {
+        return client.sql(format("SELECT * FROM %s ORDER BY %s LIMIT %d OFFSET %d",
+                getTableName(), toOrderBy(pageable.getSort()), pageable.getPageSize(), pageable.getOffset()))
+                .map((row, metadata) -> toEntity(row))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return client.sql(format("SELECT count(*) FROM %s", getTableName()))
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    @Override
+    public Flux<E> streamAll(final int fetchSize) {
+        return client.sql(format("SELECT * FROM %s ORDER BY %s", getTableName(), ID))
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, metadata) -> toEntity(row))
+                .all();
+    }
+
+    @Override
+    public Mono<E> insert(final E entity) {
+        Assert.notNull(entity, "entity must not be null");
+        final Map<String, Parameter> columns = toColumns(entity);
+        DatabaseClient.GenericExecuteSpec spec = client.sql(format("INSERT INTO %s (%s, %s) VALUES (%s, %s) RETURNING *",
+                getTableName(),
+                ID,
+                String.join(", ", columns.keySet()),
+                getIdGenerator(),
+                columns.keySet().stream().map(c -> ":" + c).collect(joining(", "))));
+        for (Map.Entry<String, Parameter> column : columns.entrySet()) {
+            spec = spec.bind(column.getKey(), column.getValue());
+        }
+        return spec.map((row, metadata) -> toEntity(row)).one();
+    }
+
+    @Override
+    public Mono<E> updateReturning(final E entity) {
+        Assert.notNull(entity, "entity must not be null");
+        Assert.notNull(entity.getId(), "id must not be null");
+        final Map<String, Parameter> columns = toColumns(entity);
+        final boolean versioned = entity instanceof IVersionedEntity;
+        final Long version = versioned ? ((IVersionedEntity<?>) entity).getVersion() : null;
+        final StringJoiner set = new StringJoiner(", ");
+        columns.keySet().forEach(c -> set.add(c + " = :" + c));
+        if (versioned) {
+            set.add(VERSION + " = " + VERSION + " + 1");
+        }
+        DatabaseClient.GenericExecuteSpec spec = client.sql(format("UPDATE %s SET %s WHERE %s = :id%s RETURNING *",
+                getTableName(), set, ID, version != null ? format(" AND %s = :%s", VERSION, VERSION) : ""))
+                .bind(ID, entity.getId());
+        for (Map.Entry<String, Parameter> column : columns.entrySet()) {
+            spec = spec.bind(column.getKey(), column.getValue());
+        }
+        if (version != null) {
+            spec = spec.bind(VERSION, version);
+        }
+        return spec.map((row, metadata) -> toEntity(row)).one();
+    }
+
+    @Override
+    public Mono<Integer> deleteById(final T id) {
+        Assert.notNull(id, "id must not be null");
+        return client.sql(format("DELETE FROM %s WHERE %s = :id", getTableName(), ID))
+                .bind(ID, id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    //================================================= CUSTOMIZE METHODS ==============================================
+
+    protected abstract String getTableName();
+
+    /**
+     * SQL expression of identifier of new row, for example {@code nextval('sequence')}
+     */
+    protected abstract String getIdGenerator();
+
+    /**
+     * Columns of entity without id and version that are inserted and updated, parameter keeps type for null values
+     */
+    protected abstract Map<String, Parameter> toColumns(E entity);
+
+    protected abstract E toEntity(Row row);
+
+    /**
+     * Columns that can be used in ORDER BY besides id (they should be indexed)
+     */
+    protected Set<String> getSortableColumns() {
+        //override me for customize
+        return Set.of();
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    /**
+     * Order by sort and by id as the last column, so order of pages is stable
+     */
+    private String toOrderBy(final Sort sort) {
+        final StringJoiner orderBy = new StringJoiner(", ");
+        for (Sort.Order order : sort) {
+            if (!ID.equals(order.getProperty()) && !getSortableColumns().contains(order.getProperty())) {
+                throw new IllegalArgumentException("sort by " + order.getProperty() + " isn't supported");
+            }
+            orderBy.add(order.getProperty() + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        if (sort.getOrderFor(ID) == null) {
+            orderBy.add(ID);
+        }
+        return orderBy.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package net.pet.project.simplerest.repository.reactive.administrating;
+
+import io.r2dbc.spi.Row;
+import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.repository.reactive.ReactiveBaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Non-blocking repository for {@link User}, table and sequence are the same as of JPA mapping
+ * @author VN
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository extends ReactiveBaseRepository<User, Long> {
+
+    private static final Set<String> SORTABLE_COLUMNS = Set.of("login", "active");
+
+    @Autowired
+    public ReactiveUserRepository(DatabaseClient client) {
+        super(client);
+    }
+
+    @Override
+    protected String getTableName() {
+        return "users";
+    }
+
+    /**
+     * Value of pooled-lo sequence is the first id of block that is reserved by this call, so this value isn't used
+     * by Hibernate. With time based ids of JPA sequence values are much less than time based ones
+     */
+    @Override
+    protected String getIdGenerator() {
+        return "nextval('s_users_seq')";
+    }
+
+    @Override
+    protected Map<String, Parameter> toColumns(User entity) {
+        Map<String, Parameter> columns = new LinkedHashMap<>();
+        columns.put("login", Parameter.fromOrEmpty(entity.getLogin(), String.class));
+        columns.put("password", Parameter.fromOrEmpty(entity.getPassword(), String.class));
+        columns.put("active", Parameter.from(entity.isActive()));
+        return columns;
+    }
+
+    @Override
+    protected User toEntity(Row row) {
+        return User.builder()
+                .id(row.get("id", Long.class))
+                .login(row.get("login", String.class))
+                .password(row.get("password", String.class))
+                .active(Boolean.TRUE.equals(row.get("active", Boolean.class)))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+    @Override
+    protected Set<String> getSortableColumns() {
+        return SORTABLE_COLUMNS;
+    }
+}
@@ -5,19 +5,56 @@ import lombok.extern.slf4j.Slf4j;
 import net.pet.project.simplerest.exception.ApplicationException;
 import net.pet.project.simplerest.exception.NotFoundException;
 import net.pet.project.simplerest.exception.ServiceException;
+import net.pet.project.simplerest.exception.VersionConflictException;
 import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.model.IVersionedEntity;
 import net.pet.project.simplerest.repository.IBaseRepository;
+import net.pet.project.simplerest.repository.copy.CopyFormat;
+import net.pet.project.simplerest.repository.keyset.KeysetPage;
+import net.pet.project.simplerest.repository.keyset.KeysetRequest;
+import net.pet.project.simplerest.repository.projection.Projection;
+import net.pet.project.simplerest.service.cache.CacheInvalidationBus;
+import net.pet.project.simplerest.service.cache.EntityCache;
+import net.pet.project.simplerest.service.cache.EntityCacheSettings;
+import net.pet.project.simplerest.service.cache.SingleFlight;
+import net.pet.project.simplerest.service.constraint.UniqueConstraint;
+import net.pet.project.simplerest.service.write.GroupCommitWriter;
+import net.pet.project.simplerest.service.write.GroupCommitWriterFactory;
+import org.hibernate.exception.ConstraintViolationException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
+import javax.persistence.Tuple;
+import java.io.OutputStream;
 import java.lang.reflect.ParameterizedType;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 /**
  * Abstract CRUD service realisation for {@link IEntity}
@@ -32,10 +69,42 @@ public abstract class AbstractService<E extends IEntity<T>, T, R extends IBaseRe
 
     protected final R repository;
 
+    private volatile EntityCache<T, E> cache;
+
+    private CacheInvalidationBus invalidationBus;
+
+    private GroupCommitWriter<E> groupCommitWriter;
+
+    private static final String BY_ID_FLIGHT = "byId";
+
+    /**
+     * Single-flights by name, they are created on first read, because name of entity isn't known in constructor
+     */
+    private final Map<String, SingleFlight<?, ?>> singleFlights = new ConcurrentHashMap<>();
+
     public AbstractService(R repository) {
         this.repository = repository;
     }
 
+    /**
+     * Subscribe to cluster-wide invalidation, if bus is enabled: entities that are changed by other nodes are
+     * evicted from second level cache and from cache {@link AbstractService#getCache()}
+     */
+    @Autowired(required = false)
+    public void setInvalidationBus(CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(getEntityName(), getIdType(), this::evictChanged, this::evictAllCached);
+    }
+
+    /**
+     * Enable write-behind with group commit {@link AbstractService#createAsync(IEntity)}, if
+     * {@code simple-rest.write-behind.enabled}. Writes are executed by writer thread inside transaction of batch
+     */
+    @Autowired(required = false)
+    public void setGroupCommitWriterFactory(GroupCommitWriterFactory groupCommitWriterFactory) {
+        this.groupCommitWriter = groupCommitWriterFactory.create(getEntityName(), this::createAll, this::update);
+    }
+
     @Override
     public List<E> getAll() {
         log.info("get all entity");
@@ -48,49 +117,359 @@ public abstract class AbstractService<E extends IEntity<T>, T, R extends IBaseRe
         return repository.findAll(page);
     }
 
+    /**
+     * Return page of entities matching {@code spec}, filtering is done by DB
+     */
+    @Override
+    public Page<E> getAll(@Nullable Specification<E> spec, Pageable page) {
+        log.info("get all entity by specification");
+        return repository.findAll(spec, page);
+    }
+
+    /**
+     * Return page of dto that are selected directly by {@code projection}, without loading entities
+     */
+    @Override
+    public <P> Page<P> getAll(@Nullable Specification<E> spec, Pageable page, Projection<P> projection) {
+        log.info("get all entity as {}", projection.getType().getSimpleName());
+        return repository.findAll(spec, page, projection);
+    }
+
+    /**
+     * Return page of tuples with only {@code fields} selected, without loading entities
+     */
+    @Override
+    public Page<Tuple> getAll(@Nullable Specification<E> spec, Pageable page, Collection<String> fields) {
+        log.info("get all entity with fields {}", fields);
+        return repository.findAll(spec, page, fields);
+    }
+
+    @Override
+    public KeysetPage<E> getAll(KeysetRequest request) {
+        log.info("get entity page after {}", request.getAfter());
+        return repository.findAll(request);
+    }
+
+    /**
+     * Pass all entities to {@code action} one by one, without loading all entities to memory
+     * @param fetchSize count of rows that fetched from DB per round trip
+     */
+    @Override
+    public void streamAll(int fetchSize, Consumer<? super E> action) {
+        log.info("stream all entity with fetch size {}", fetchSize);
+        try (Stream<E> stream = repository.streamAll(fetchSize)) {
+            stream.forEach(action);
+        }
+    }
+
+    /**
+     * Write {@code fields} of all entities by PostgreSQL COPY, rows are passed to {@code out} without mapping
+     * @see IBaseRepository#copyOut(Collection, CopyFormat, OutputStream)
+     */
+    @Override
+    public long export(Collection<String> fields, CopyFormat format, OutputStream out) {
+        log.info("export all entity with fields {} as {}", fields, format);
+        return repository.copyOut(fields, format, out);
+    }
+
+    /**
+     * Get entity by id. Method doesn't open transaction, so hit of cache {@link AbstractService#getCache()}
+     * doesn't take connection from pool
+     */
     @NotNull
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public E get(T id) throws NotFoundException {
         return find(id).orElseThrow(() -> new NotFoundException(id));
     }
 
+    /**
+     * Get version of entity with query of version column only, cache isn't used
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Object> findVersion(T id) {
+        log.info("find version of entity by id {}", id);
+        return repository.findVersionById(id);
+    }
+
+    /**
+     * Get entities by ids with one query {@link IBaseRepository#findAllByIdAny(Collection)}
+     * @return entities in order of ids without duplicates, missing ids are skipped
+     */
+    @Override
+    public List<E> getAllById(Collection<T> ids) {
+        Assert.notEmpty(ids, "ids must not be empty");
+        final Set<T> uniqueIds = new LinkedHashSet<>(ids);
+        log.info("get {} entities by ids", uniqueIds.size());
+        final Map<T, E> found = repository.findAllByIdAny(uniqueIds).stream()
+                .collect(toMap(IEntity::getId, Function.identity()));
+        return uniqueIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    /**
+     * Get view of entity by id, view is cached together with entity in {@link AbstractService#getCache()}
+     */
+    @NotNull
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public <V> V get(T id, Class<V> viewType, Function<? super E, ? extends V> mapper) throws NotFoundException {
+        Assert.notNull(id, "id must not be null");
+        log.info("get entity by id {}", id);
+        return getCache().get(id, viewType, mapper, this::loadById).orElseThrow(() -> new NotFoundException(id));
+    }
+
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<E> find(T id) {
         Assert.notNull(id, "id must not be null");
         log.info("get entity by id {}", id);
-        return repository.findById(id);
+        return getCache().get(id, this::loadById);
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean exist(T id) {
-        return repository.existsById(id);
+        return getCache().contains(id) || repository.existsById(id);
     }
 
+    /**
+     * Create entity, insert is flushed, so violations of DB constraints are translated by
+     * {@link AbstractService#translate(DataIntegrityViolationException, IEntity)}
+     */
     @Override
     @Transactional
     public E create(E entity) {
-        E created = repository.save(checkNew(validateBeforeCreate(entity)));
+        E checked = checkNew(validateBeforeCreate(entity));
+        E created = translateViolation(checked, () -> {
+            E saved = repository.save(checked);
+            repository.flush();
+            return saved;
+        });
+        invalidate(List.of(created.getId()));
+        postWrite(Collections.singletonList(created));
         log.info("create entity {}", created);
         return created;
     }
 
+    /**
+     * Update existing entity.
+     * If {@link AbstractService#isSingleStatementUpdate()} then entity is updated with one statement
+     * {@code UPDATE ... RETURNING} without checks of existing and version before update.
+     * Entity is validated by {@link AbstractService#validateBeforeUpdate(IEntity)} in both cases.
+     * If entity is {@link IVersionedEntity} with version then update fails if version in DB is different
+     * @throws NotFoundException if entity doesn't exist
+     * @throws VersionConflictException if entity was changed (version in DB isn't expected)
+     */
     @Override
     @Transactional
-    public E update(E entity) throws NotFoundException {
-        E saved = repository.save(checkExist(validateBeforeUpdate(entity)));
+    public E update(E entity) throws NotFoundException, VersionConflictException {
+        E saved = isSingleStatementUpdate()
+                ? updateReturning(validateBeforeUpdate(entity))
+                : updateAndFlush(checkExistAndVersion(validateBeforeUpdate(entity)));
+        invalidate(List.of(saved.getId()));
+        postWrite(Collections.singletonList(saved));
         log.info("updated entity {} with id={}", saved, saved.getId());
         return saved;
     }
 
+    /**
+     * Delete entity by id.
+     * If {@link AbstractService#isSingleStatementDelete()} then entity is deleted with one statement
+     * {@code DELETE ... WHERE id = ?} without check of existing
+     */
     @Override
     @Transactional
     public void delete(T id) throws NotFoundException {
-        repository.deleteById(preDelete(checkExist(id)));
+        if (isSingleStatementDelete()) {
+            deleteInOneStatement(id);
+        } else {
+            repository.deleteById(preDelete(checkExist(id)));
+        }
+        invalidate(List.of(id));
         log.info("delete entity by {}", id);
     }
 
+    @Override
+    public boolean isWriteBehind() {
+        return groupCommitWriter != null;
+    }
+
+    /**
+     * Create entity in batch of concurrent writes {@link GroupCommitWriter}, one commit for whole batch.
+     * Inside transaction entity is created at once, because it must be committed with that transaction
+     * @throws IllegalStateException if write-behind is disabled
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CompletableFuture<E> createAsync(E entity) throws IllegalStateException {
+        Assert.state(isWriteBehind(), "write-behind is disabled");
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                ? CompletableFuture.completedFuture(create(entity))
+                : groupCommitWriter.create(entity);
+    }
+
+    /**
+     * Update entity in batch of concurrent writes {@link GroupCommitWriter}, one commit for whole batch.
+     * Inside transaction entity is updated at once, because it must be committed with that transaction
+     * @throws IllegalStateException if write-behind is disabled
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CompletableFuture<E> updateAsync(E entity) throws IllegalStateException {
+        Assert.state(isWriteBehind(), "write-behind is disabled");
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                ? CompletableFuture.completedFuture(update(entity))
+                : groupCommitWriter.update(entity);
+    }
+
+    /**
+     * Create entities in one transaction with jdbc batching.
+     * Whole batch is validated before insert
+     */
+    @Override
+    @Transactional
+    public List<E> createAll(List<E> entities) {
+        Assert.notEmpty(entities, "entities must not be empty");
+        entities.forEach(this::checkNew);
+        List<E> validated = validateBeforeCreateAll(entities);
+        List<E> created = translateViolation(null, () -> repository.saveAllInBatch(validated));
+        invalidate(created.stream().map(IEntity::getId).collect(toList()));
+        postWrite(created);
+        log.info("create {} entities", created.size());
+        return created;
+    }
+
+    /**
+     * Update existing entities in one transaction with jdbc batching.
+     * Whole batch is validated before update
+     */
+    @Override
+    @Transactional
+    public List<E> updateAll(List<E> entities) throws NotFoundException {
+        Assert.notEmpty(entities, "entities must not be empty");
+        entities.forEach(e -> Assert.notNull(e, getEntityName() + " must not be null"));
+        checkAllExist(entities.stream().map(IEntity::getId).collect(toList()));
+        List<E> validated = validateBeforeUpdateAll(entities);
+        List<E> saved = translateViolation(null, () -> repository.saveAllInBatch(validated));
+        invalidate(saved.stream().map(IEntity::getId).collect(toList()));
+        postWrite(saved);
+        log.info("updated {} entities", saved.size());
+        return saved;
+    }
+
+    /**
+     * Delete entities by ids in one transaction with one query per batch
+     */
+    @Override
+    @Transactional
+    public void deleteAll(Collection<T> ids) throws NotFoundException {
+        Assert.notEmpty(ids, "ids must not be empty");
+        checkAllExist(ids).forEach(this::preDelete);
+        repository.deleteAllByIdInBatch(ids);
+        invalidate(ids);
+        log.info("delete {} entities", ids.size());
+    }
+
+    /**
+     * Read-through cache of entities by id that is used by {@link AbstractService#get(Object)},
+     * {@link AbstractService#find(Object)} and {@link AbstractService#exist(Object)}.
+     * Absence of entity isn't cached.
+     * Cache is disabled if {@link AbstractService#getCacheSettings()} returns null
+     */
+    public EntityCache<T, E> getCache() {
+        EntityCache<T, E> result = cache;
+        if (result == null) {
+            synchronized (this) {
+                if (cache == null) {
+                    cache = EntityCache.create(getEntityName(), getCacheSettings());
+                }
+                result = cache;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Single-flights of reads of service, for statistics of coalescing
+     */
+    public List<SingleFlight<?, ?>> getSingleFlights() {
+        return List.copyOf(singleFlights.values());
+    }
+
     //================================================= CUSTOMIZE METHODS ==============================================
 
+    /**
+     * Settings of read-through cache {@link AbstractService#getCache()}.
+     * Entities are shared between callers on cache hit, so enable cache only if entities aren't modified
+     * by callers of {@link AbstractService#get(Object)}.
+     * Override and return settings for enable
+     * @return settings or null if cache is disabled
+     */
+    protected EntityCacheSettings getCacheSettings() {
+        //override me for customize
+        return null;
+    }
+
+    /**
+     * Coalesce concurrent reads of entity by id (misses of {@link AbstractService#getCache()}) with
+     * {@link SingleFlight}: callers share one query and one entity, so enable only if entities aren't modified
+     * by callers of {@link AbstractService#get(Object)}. Reads inside transaction aren't coalesced, because they
+     * must see changes of own transaction.
+     * Override and return true for enable
+     */
+    protected boolean isCoalesceReads() {
+        //override me for customize
+        return false;
+    }
+
+    /**
+     * Use one statement {@code UPDATE ... RETURNING} in {@link AbstractService#update(IEntity)} instead of
+     * check of existing and merge, entity is validated anyway. Violations of DB constraints are translated by
+     * {@link AbstractService#translateConstraintViolation(String, IEntity)}.
+     * Override and return true for enable
+     */
+    protected boolean isSingleStatementUpdate() {
+        //override me for customize
+        return false;
+    }
+
+    /**
+     * Use one statement {@code DELETE ... WHERE id = ?} in {@link AbstractService#delete(Object)} instead of
+     * check of existing, select and delete. Entity callbacks and cascades aren't applied.
+     * Override and return true for enable
+     */
+    protected boolean isSingleStatementDelete() {
+        //override me for customize
+        return false;
+    }
+
+    /**
+     * Unique constraints of DB that are mapped to fields of entity, their violations are translated to
+     * "already exist" exception. Uniqueness of these fields shouldn't be checked before write: constraint
+     * doesn't need extra query and is correct for concurrent writes.
+     * Override this method if entity has unique constraints
+     */
+    protected List<UniqueConstraint<E>> getUniqueConstraints() {
+        //override me for customize
+        return List.of();
+    }
+
+    /**
+     * Translate violation of DB constraint that isn't in {@link AbstractService#getUniqueConstraints()}
+     * to application exception.
+     * Override this method if you need to map other constraints of entity
+     * @param constraintName name of violated constraint, may be null
+     * @return exception for throw, or null if violation isn't known
+     */
+    protected ApplicationException translateConstraintViolation(final String constraintName, final E entity) {
+        //override me for customize
+        return null;
+    }
+
     /**
      * Entity validation before call method {@link AbstractService#create(IEntity)}
      * Override this method if you need to add custom logic before create
@@ -113,6 +492,30 @@ public abstract class AbstractService<E extends IEntity<T>, T, R extends IBaseRe
         return entity;
     }
 
+    /**
+     * Batch validation before call method {@link AbstractService#createAll(List)}.
+     * By default calls {@link AbstractService#validateBeforeCreate(IEntity)} for every entity,
+     * override this method if validation can be done for whole batch at once (for example, with one query)
+     * IMPORTANT: this method must be pure (doesn't modif <strong>entities</strong>)
+     * @return not modified entities
+     */
+    protected List<E> validateBeforeCreateAll(final List<E> entities) {
+        entities.forEach(this::validateBeforeCreate);
+        return entities;
+    }
+
+    /**
+     * Batch validation before call method {@link AbstractService#updateAll(List)}.
+     * By default calls {@link AbstractService#validateBeforeUpdate(IEntity)} for every entity,
+     * override this method if validation can be done for whole batch at once (for example, with one query)
+     * IMPORTANT: this method must be pure (doesn't modif <strong>entities</strong>)
+     * @return not modified entities
+     */
+    protected List<E> validateBeforeUpdateAll(final List<E> entities) {
+        entities.forEach(this::validateBeforeUpdate);
+        return entities;
+    }
+
     /**
      *
      * Preparatory actions before entity was delete. For example, remove association in outer table
@@ -124,8 +527,147 @@ public abstract class AbstractService<E extends IEntity<T>, T, R extends IBaseRe
         return id;
     }
 
+    /**
+     * Actions after entities were created or updated, before commit. For example, update of in-memory index
+     */
+    protected void postWrite(final List<E> entities) {
+        //override me for customize
+    }
+
     //================================================= UTIL METHODS ===================================================
 
+    /**
+     * Evict entities from {@link AbstractService#getCache()} and forget reads of them that are in flight.
+     * Entities are evicted at once and after end of transaction, so entity that was loaded by concurrent
+     * transaction before commit doesn't stay in cache (and isn't shared by single-flight). Other nodes evict
+     * entities after commit by {@link CacheInvalidationBus}. Created entities are invalidated too: query cache
+     * and reads by other keys (for example, by unique field) could hold their absence
+     */
+    protected void invalidate(final Collection<T> ids) {
+        if (invalidationBus != null) {
+            // other nodes have second level cache even if entity cache is disabled
+            invalidationBus.publish(getEntityName(), ids);
+        }
+        final EntityCache<T, E> entityCache = getCache();
+        if (!entityCache.isEnabled() && !isCoalesceReads()) {
+            return;
+        }
+        evict(entityCache, ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(entityCache, ids);
+                }
+            });
+        }
+    }
+
+    /**
+     * Load entity by id for {@link AbstractService#getCache()}, coalesced if {@link AbstractService#isCoalesceReads()}
+     */
+    protected Optional<E> loadById(final T id) {
+        return isCoalesceReads()
+                ? coalesce(this.<T, Optional<E>>getSingleFlight(BY_ID_FLIGHT), id, repository::findById)
+                : repository.findById(id);
+    }
+
+    /**
+     * Execute read in {@code flight} if there is no actual transaction, otherwise execute read directly
+     */
+    protected <K, V> V coalesce(final SingleFlight<K, V> flight, final K key, final Function<? super K, ? extends V> loader) {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                ? loader.apply(key)
+                : flight.execute(key, loader);
+    }
+
+    /**
+     * Single-flight with {@code name} that is shown in statistics of service, it is created on first call.
+     * IMPORTANT: the same name must be used with the same types of key and result
+     */
+    @SuppressWarnings("unchecked")
+    protected <K, V> SingleFlight<K, V> getSingleFlight(final String name) {
+        return (SingleFlight<K, V>) singleFlights.computeIfAbsent(name,
+                n -> SingleFlight.create(getEntityName() + "." + n));
+    }
+
+    /**
+     * Update entity with one statement
+     * @throws NotFoundException if entity doesn't exist (no rows was updated)
+     * @throws VersionConflictException if entity has version and it was changed
+     */
+    protected E updateReturning(final E entity) throws NotFoundException, VersionConflictException {
+        Assert.notNull(entity, getEntityName() + " must not be null");
+        Assert.notNull(entity.getId(), "id must not be null");
+        return translateViolation(entity,
+                () -> repository.updateReturning(entity).orElseThrow(() -> notUpdatedException(entity)));
+    }
+
+    /**
+     * Delete entity with one statement.
+     * {@link AbstractService#preDelete(Object)} is called before delete, if entity doesn't exist then
+     * exception rolls back its changes together with transaction
+     * @throws NotFoundException if entity doesn't exist (no rows was deleted)
+     */
+    protected void deleteInOneStatement(final T id) throws NotFoundException {
+        Assert.notNull(id, "id must not be null");
+        if (repository.deleteInOneStatement(preDelete(id)) == 0) {
+            throw new NotFoundException(id);
+        }
+    }
+
+    /**
+     * Update entity with merge, update is flushed, so violations of DB constraints are translated
+     */
+    protected E updateAndFlush(final E entity) {
+        return translateViolation(entity, () -> {
+            E saved = repository.save(entity);
+            repository.flush();
+            return saved;
+        });
+    }
+
+    /**
+     * Call {@code write} and translate its {@link DataIntegrityViolationException}
+     * @param entity written entity, null for batch
+     */
+    protected <V> V translateViolation(@Nullable final E entity, final Supplier<V> write) {
+        try {
+            return write.get();
+        } catch (DataIntegrityViolationException ex) {
+            throw translate(ex, entity);
+        }
+    }
+
+    /**
+     * Translate {@link DataIntegrityViolationException} by {@link AbstractService#getUniqueConstraints()} and
+     * {@link AbstractService#translateConstraintViolation(String, IEntity)}
+     * @param entity written entity, null for batch
+     * @return translated exception or {@code ex} if violation isn't known
+     */
+    protected RuntimeException translate(final DataIntegrityViolationException ex, @Nullable final E entity) {
+        final String constraintName = ex.getCause() instanceof ConstraintViolationException
+                ? ((ConstraintViolationException) ex.getCause()).getConstraintName()
+                : null;
+        ApplicationException translated = getUniqueConstraints().stream()
+                .filter(c -> c.getName().equals(constraintName))
+                .findFirst()
+                .map(c -> notUniqueException(c.getField(), c.getValue(entity, ex)))
+                .orElseGet(() -> translateConstraintViolation(constraintName, entity));
+        if (translated == null) {
+            return ex;
+        }
+        translated.initCause(ex);
+        return translated;
+    }
+
+    /**
+     * @return cluster-wide bus of changes, if it's enabled
+     */
+    protected Optional<CacheInvalidationBus> getInvalidationBus() {
+        return Optional.ofNullable(invalidationBus);
+    }
+
     protected String getEntityName() {
         return getEntityType().getSimpleName();
     }
@@ -135,6 +677,11 @@ public abstract class AbstractService<E extends IEntity<T>, T, R extends IBaseRe
         return (Class<E>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
     }
 
+    @SuppressWarnings("unchecked")
+    protected Class<T> getIdType() {
+        return (Class<T>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[1];
+    }
+
     protected void throwNotUniqueException(final String fieldName, final String value) throws ServiceException {
         throwNotUniqueException(getEntityName(), fieldName, value);
     }
@@ -142,7 +689,17 @@ public abstract class AbstractService<E extends IEntity<T>, T, R extends IBaseRe
     protected void throwNotUniqueException(final String entityName,
                                            final String fieldName,
                                            final String value) throws ServiceException {
-        throw new ApplicationException(format(
+        throw notUniqueException(entityName, fieldName, value);
+    }
+
+    protected ApplicationException notUniqueException(final String fieldName, final String value) {
+        return notUniqueException(getEntityName(), fieldName, value);
+    }
+
+    protected ApplicationException notUniqueException(final String entityName,
+                                                      final String fieldName,
+                                                      final String value) {
+        return new ApplicationException(format(
                 "%s with %s '%s' already exist",
                 entityName,
                 fieldName,
@@ -156,6 +713,42 @@ public abstract class AbstractService<E extends IEntity<T>, T, R extends IBaseRe
         return entity;
     }
 
+    /**
+     * Check that entity exists and has expected version (if entity is {@link IVersionedEntity} with version).
+     * Entity is loaded to persistence context instead of {@code existsById}, so merge doesn't select it again
+     * @throws NotFoundException if entity doesn't exist
+     * @throws VersionConflictException if version in DB isn't expected
+     */
+    protected E checkExistAndVersion(final E entity) throws NotFoundException, VersionConflictException {
+        Assert.notNull(entity, getEntityName() + " must not be null");
+        Assert.notNull(entity.getId(), "id must not be null");
+        E current = repository.findById(entity.getId()).orElseThrow(() -> new NotFoundException(entity.getId()));
+        Long expected = getExpectedVersion(entity);
+        if (expected != null && !expected.equals(((IVersionedEntity<?>) current).getVersion())) {
+            throw new VersionConflictException(entity.getId(), expected);
+        }
+        return entity;
+    }
+
+    /**
+     * Exception for update that didn't change any row: without version entity doesn't exist,
+     * with version entity is checked additionally (only in this case)
+     */
+    protected ServiceException notUpdatedException(final E entity) {
+        Long expected = getExpectedVersion(entity);
+        return expected != null && repository.existsById(entity.getId())
+                ? new VersionConflictException(entity.getId(), expected)
+                : new NotFoundException(entity.getId());
+    }
+
+    /**
+     * Version that entity must have in DB for update
+     * @return version or null if entity isn't versioned or version is unknown
+     */
+    protected Long getExpectedVersion(final E entity) {
+        return entity instanceof IVersionedEntity ? ((IVersionedEntity<?>) entity).getVersion() : null;
+    }
+
     /**
      * Check that entity with id is exist
      * @throws IllegalArgumentException if id = null
@@ -169,6 +762,23 @@ public abstract class AbstractService<E extends IEntity<T>, T, R extends IBaseRe
         return id;
     }
 
+    /**
+     * Check that all entities with ids are exist (one query per {@link net.pet.project.simplerest.util.BatchUtils#MAX_IN_SIZE} ids)
+     * @throws IllegalArgumentException if some id = null
+     * @throws NotFoundException with first not existing id
+     */
+    protected Collection<T> checkAllExist(final Collection<T> ids) {
+        ids.forEach(id -> Assert.notNull(id, "id must not be null"));
+        Set<T> existing = repository.findExistingIds(ids);
+        ids.stream()
+                .filter(id -> !existing.contains(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new NotFoundException(id);
+                });
+        return ids;
+    }
+
     /**
      * Check that entity new (id is null)
      * @throws IllegalArgumentException if entity contains nonNull id
@@ -180,4 +790,38 @@ public abstract class AbstractService<E extends IEntity<T>, T, R extends IBaseRe
         }
         return entity;
     }
-}
\ No newline at end of file
+
+    //================================================= PRIVATE METHODS ================================================
+
+    /**
+     * Entities are changed by other node: second level cache is evicted before entity cache,
+     * so entity cache is reloaded from DB
+     */
+    private void evictChanged(final List<T> ids) {
+        repository.evictFromCache(ids);
+        evict(getCache(), ids);
+    }
+
+    /**
+     * Changes of other nodes could be missed
+     */
+    private void evictAllCached() {
+        repository.evictAllFromCache();
+        singleFlights.values().forEach(SingleFlight::forgetAll);
+        getCache().clear();
+    }
+
+    /**
+     * Reads by other keys (for example, by unique field) can't be matched with ids, so they are forgotten all
+     */
+    private void evict(final EntityCache<T, E> entityCache, final Collection<T> ids) {
+        singleFlights.forEach((name, flight) -> {
+            if (BY_ID_FLIGHT.equals(name)) {
+                ids.forEach(this.<T, Optional<E>>getSingleFlight(name)::forget);
+            } else {
+                flight.forgetAll();
+            }
+        });
+        entityCache.evictAll(ids);
+    }
+}
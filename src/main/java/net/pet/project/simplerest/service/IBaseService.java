@@ -1,12 +1,26 @@
 package net.pet.project.simplerest.service;
 
 import net.pet.project.simplerest.exception.NotFoundException;
+import net.pet.project.simplerest.exception.VersionConflictException;
 import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.model.IVersionedEntity;
+import net.pet.project.simplerest.repository.copy.CopyFormat;
+import net.pet.project.simplerest.repository.keyset.KeysetPage;
+import net.pet.project.simplerest.repository.keyset.KeysetRequest;
+import net.pet.project.simplerest.repository.projection.Projection;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.Tuple;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Interface for base CRUD service for {@link IEntity}
@@ -20,15 +34,80 @@ public interface IBaseService<E extends IEntity<T>, T> {
 
     Page<E> getAll(Pageable page);
 
+    /**
+     * @param spec condition of entities, if null then all entities
+     */
+    Page<E> getAll(@Nullable Specification<E> spec, Pageable page);
+
+    <P> Page<P> getAll(@Nullable Specification<E> spec, Pageable page, Projection<P> projection);
+
+    /**
+     * Return page with only {@code fields} selected from DB, fields must be validated by caller
+     */
+    Page<Tuple> getAll(@Nullable Specification<E> spec, Pageable page, Collection<String> fields);
+
+    KeysetPage<E> getAll(KeysetRequest request);
+
+    void streamAll(int fetchSize, Consumer<? super E> action);
+
+    /**
+     * Write {@code fields} of all entities to {@code out} in {@code format}, fields must be validated by caller
+     * @return count of written entities
+     */
+    long export(Collection<String> fields, CopyFormat format, OutputStream out);
+
     E get(T id) throws NotFoundException;
 
+    /**
+     * Get version of entity without loading entity
+     * @return version or empty if entity doesn't exist or isn't versioned
+     */
+    Optional<Object> findVersion(T id);
+
+    /**
+     * Get entities by ids with one query
+     * @return entities in order of ids without duplicates, missing ids are skipped
+     */
+    List<E> getAllById(Collection<T> ids);
+
+    /**
+     * Get entity by id mapped to view (for example, dto)
+     * @param viewType type of view, {@code mapper} must always return the same view for this type
+     */
+    <V> V get(T id, Class<V> viewType, Function<? super E, ? extends V> mapper) throws NotFoundException;
+
     Optional<E> find(T id);
 
     boolean exist(T id);
 
     E create(E entity);
 
-    E update(E entity) throws NotFoundException;
+    /**
+     * Update existing entity, entity {@link IVersionedEntity} with version is updated only if version isn't changed
+     */
+    E update(E entity) throws NotFoundException, VersionConflictException;
 
     void delete(T id) throws NotFoundException;
+
+    /**
+     * @return true if {@link IBaseService#createAsync(IEntity)} and {@link IBaseService#updateAsync(IEntity)}
+     * are supported
+     */
+    boolean isWriteBehind();
+
+    /**
+     * Create entity in group commit with concurrent writes, result is completed after commit
+     */
+    CompletableFuture<E> createAsync(E entity);
+
+    /**
+     * Update entity in group commit with concurrent writes, result is completed after commit
+     */
+    CompletableFuture<E> updateAsync(E entity);
+
+    List<E> createAll(List<E> entities);
+
+    List<E> updateAll(List<E> entities) throws NotFoundException;
+
+    void deleteAll(Collection<T> ids) throws NotFoundException;
 }
\ No newline at end of file
@@ -5,16 +5,31 @@ import net.pet.project.simplerest.exception.NotFoundException;
 import net.pet.project.simplerest.exception.ServiceException;
 import net.pet.project.simplerest.model.administrating.User;
 import net.pet.project.simplerest.repository.administrating.UserRepository;
+import net.pet.project.simplerest.configuration.index.LoginIndexConfig;
 import net.pet.project.simplerest.service.AbstractService;
+import net.pet.project.simplerest.service.cache.EntityCacheSettings;
+import net.pet.project.simplerest.service.cache.EvictionPolicy;
+import net.pet.project.simplerest.service.constraint.UniqueConstraint;
+import net.pet.project.simplerest.service.index.KeyIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
 
 /**
  * Service for {@link User}
@@ -25,49 +40,173 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class UserService extends AbstractService<User, Long, UserRepository> {
 
+    private static final EntityCacheSettings CACHE_SETTINGS = EntityCacheSettings.builder()
+            .policy(EvictionPolicy.TINY_LFU)
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    private static final List<UniqueConstraint<User>> UNIQUE_CONSTRAINTS = List.of(
+            UniqueConstraint.of(User.LOGIN_UNIQUE_CONSTRAINT, "login", User::getLogin));
+
+    private static final String BY_LOGIN_FLIGHT = "byLogin";
+
+    private KeyIndex loginIndex;
+
     @Autowired
     public UserService(UserRepository repository) {
         super(repository);
     }
 
+    /**
+     * Lookups of logins that aren't in index don't go to DB, if index is enabled
+     */
+    @Autowired(required = false)
+    public void setLoginIndex(@Qualifier(LoginIndexConfig.LOGIN_INDEX) KeyIndex loginIndex) {
+        this.loginIndex = loginIndex;
+    }
+
+    /**
+     * Build index of logins after start. Logins that are written by other nodes are received by
+     * {@link net.pet.project.simplerest.service.cache.CacheInvalidationBus}, index is rebuilt when they could be missed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void initLoginIndex() {
+        if (Objects.isNull(loginIndex)) {
+            return;
+        }
+        getInvalidationBus().ifPresent(bus -> bus.subscribe(getLoginTopic(), Long.class,
+                ids -> loginIndex.addAll(repository.findAllLoginsByIdIn(ids)),
+                this::rebuildLoginIndex));
+        rebuildLoginIndex();
+    }
+
+    /**
+     * Logins are read from primary, so index doesn't miss logins that aren't replicated yet
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildLoginIndex() {
+        if (Objects.isNull(loginIndex)) {
+            return;
+        }
+        loginIndex.reset();
+        loginIndex.rebuild(consumer -> repository.findAllLogins().forEach(consumer));
+    }
+
+    /**
+     * Get user by login. Method doesn't open transaction, so concurrent reads of the same login are coalesced
+     */
     @NotNull
+    @Transactional(propagation = Propagation.SUPPORTS)
     public User getByLogin(@Nullable String login) throws NotFoundException {
         return findByLogin(login).orElseThrow(() -> new NotFoundException("login", login));
     }
 
+    /**
+     * Find user by login. Method doesn't open transaction, so concurrent reads of the same login are coalesced
+     */
     @NotNull
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<User> findByLogin(@Nullable String login) {
         Assert.notNull(login, "login must not be null");
         log.info("find user by login {}", login);
-        return repository.findByLogin(login);
+        if (Objects.nonNull(loginIndex) && !loginIndex.mightContain(login)) {
+            return Optional.empty();
+        }
+        return isCoalesceReads()
+                ? coalesce(this.<String, Optional<User>>getSingleFlight(BY_LOGIN_FLIGHT), login,
+                        repository::findByLogin)
+                : repository.findByLogin(login);
     }
 
     //================================================= VALIDATE METHODS ===============================================
 
+    /**
+     * Users are read by id much more often than changed, controller maps them to dto without modification
+     */
+    @Override
+    protected EntityCacheSettings getCacheSettings() {
+        return CACHE_SETTINGS;
+    }
+
+    /**
+     * Hot users are read by many concurrent requests, they share one query of the same id or login
+     */
+    @Override
+    protected boolean isCoalesceReads() {
+        return true;
+    }
+
+    /**
+     * Update user with one statement
+     */
     @Override
-    protected User validateBeforeCreate(User entity) {
-        return checkLoginUnique(super.validateBeforeCreate(entity));
+    protected boolean isSingleStatementUpdate() {
+        return true;
     }
 
+    /**
+     * Delete user with one statement, existing is checked by count of deleted rows
+     */
     @Override
-    protected User validateBeforeUpdate(User entity) {
-        return checkLoginUnique(super.validateBeforeUpdate(entity));
+    protected boolean isSingleStatementDelete() {
+        return true;
     }
 
     /**
-     * Check that login {@link User#getLogin()} is unique
-     * @throws ServiceException if login isn't unique
-     * @return not modified user
+     * Uniqueness of login is checked by DB constraint {@link User#LOGIN_UNIQUE_CONSTRAINT} without query before write
      */
-    protected User checkLoginUnique(User entity) throws ServiceException {
-        Optional.ofNullable(entity)
-                .map(User::getLogin)
-                .flatMap(repository::findByLogin)
-                .ifPresent(e -> {
-                    if (Objects.isNull(entity.getId()) || !entity.getId().equals(e.getId())) {
-                        throwNotUniqueException("login", e.getLogin());
-                    }
-                });
-        return entity;
-    }
-}
\ No newline at end of file
+    @Override
+    protected List<UniqueConstraint<User>> getUniqueConstraints() {
+        return UNIQUE_CONSTRAINTS;
+    }
+
+    /**
+     * Add logins of created and updated users to index before commit and publish them to other nodes
+     */
+    @Override
+    protected void postWrite(List<User> entities) {
+        if (Objects.isNull(loginIndex)) {
+            return;
+        }
+        entities.forEach(e -> loginIndex.add(e.getLogin()));
+        getInvalidationBus().ifPresent(bus -> bus.publish(getLoginTopic(),
+                entities.stream().map(User::getId).collect(toList())));
+    }
+
+    /**
+     * Check that logins are unique inside batch, uniqueness in DB is checked by constraint
+     */
+    @Override
+    protected List<User> validateBeforeCreateAll(List<User> entities) {
+        return checkLoginUniqueInBatch(entities);
+    }
+
+    /**
+     * @see UserService#validateBeforeCreateAll(List)
+     */
+    @Override
+    protected List<User> validateBeforeUpdateAll(List<User> entities) {
+        return checkLoginUniqueInBatch(entities);
+    }
+
+    /**
+     * Check that logins {@link User#getLogin()} are unique inside batch
+     * @throws ServiceException if some login isn't unique
+     * @return not modified users
+     */
+    protected List<User> checkLoginUniqueInBatch(List<User> entities) throws ServiceException {
+        Set<String> logins = new HashSet<>(entities.size());
+        entities.forEach(e -> {
+            if (!logins.add(e.getLogin())) {
+                throwNotUniqueException("login", e.getLogin());
+            }
+        });
+        return entities;
+    }
+
+    private String getLoginTopic() {
+        return getEntityName() + ".login";
+    }
+}
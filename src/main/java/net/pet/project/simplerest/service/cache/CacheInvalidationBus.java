@@ -0,0 +1,237 @@
+package net.pet.project.simplerest.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Cluster-wide invalidation of {@link EntityCache} with PostgreSQL {@code LISTEN/NOTIFY}.
+ * Ids of changed entities are published with {@code pg_notify} in transaction of change, so postgres delivers
+ * notification to other nodes only after commit. Every node listens channel on dedicated connection (not from pool)
+ * and evicts ids from local cache of entity ({@link net.pet.project.simplerest.service.AbstractService} evicts
+ * second level cache and query cache too). Other subscribers can receive ids of own topic.
+ * If listener connection is lost, all subscribers are reset on loss and after connect,
+ * because notifications could be missed. Bus is disabled by default ({@code simple-rest.cache.invalidation.enabled})
+ * @author VN
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "simple-rest.cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationBus {
+
+    private static final String LOG_TAG = "[CACHE INVALIDATION]";
+    private static final String NOTIFY = "select pg_notify(?, ?)";
+    private static final String SEPARATOR = ";";
+    private static final String ID_SEPARATOR = ",";
+    /**
+     * Max payload of notification is 8000 bytes
+     */
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Subscriber<?>> subscribers = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listener;
+
+    @Autowired
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                DataSourceProperties dataSourceProperties,
+                                @Value("${simple-rest.cache.invalidation.channel:simple_rest_cache}") String channel) {
+        Assert.isTrue(channel.matches("[a-z_][a-z0-9_]*"), "channel must be lowercase sql identifier");
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+    }
+
+    /**
+     * Subscribe to ids that are published to {@code topic} by other nodes, ids are converted to {@code idType}
+     * @param onChange called with ids from notification
+     * @param onReset called when notifications could be missed (on loss of listener connection and after connect)
+     */
+    public <T> void subscribe(final String topic,
+                              final Class<T> idType,
+                              final Consumer<List<T>> onChange,
+                              final Runnable onReset) {
+        subscribers.put(topic, new Subscriber<>(idType, onChange, onReset));
+    }
+
+    /**
+     * Publish ids of changed entities to other nodes. If transaction is active, notification is delivered after
+     * commit and is discarded after rollback
+     */
+    public void publish(final String entityName, final Collection<?> ids) {
+        for (String payload : toPayloads(entityName, ids)) {
+            jdbcTemplate.query(NOTIFY, ResultSet::next, channel, payload);
+        }
+    }
+
+    /**
+     * @return true if listener connection is established and notifications are received
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        listener.join(POLL_TIMEOUT_MS * 2L);
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("{} :: listen channel {}", LOG_TAG, channel);
+                // notifications before LISTEN are missed, subscriber could be registered before first connect
+                subscribers.values().forEach(Subscriber::reset);
+                listening = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        Arrays.stream(notifications).map(PGNotification::getParameter).forEach(this::onNotification);
+                    }
+                }
+                listening = false;
+            } catch (SQLException e) {
+                listening = false;
+                log.error("{} :: listener connection is lost, clear all caches", LOG_TAG, e);
+                subscribers.values().forEach(Subscriber::reset);
+                sleep();
+            }
+        }
+    }
+
+    private void onNotification(final String payload) {
+        String[] parts = payload.split(SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        Subscriber<?> subscriber = subscribers.get(parts[1]);
+        if (subscriber != null) {
+            log.debug("{} :: change of {} with ids {}", LOG_TAG, parts[1], parts[2]);
+            subscriber.change(parts[2].split(ID_SEPARATOR));
+        }
+    }
+
+    /**
+     * Split ids to payloads {@code nodeId;entityName;id1,id2,...} that fit in max size of notification
+     */
+    private List<String> toPayloads(final String entityName, final Collection<?> ids) {
+        final String prefix = nodeId + SEPARATOR + entityName + SEPARATOR;
+        final int prefixBytes = prefix.getBytes(StandardCharsets.UTF_8).length;
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(prefix);
+        int payloadBytes = prefixBytes;
+        for (Object id : ids) {
+            String value = String.valueOf(id);
+            int valueBytes = value.getBytes(StandardCharsets.UTF_8).length;
+            if (payloadBytes > prefixBytes && payloadBytes + valueBytes + 1 > MAX_PAYLOAD_BYTES) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(prefix);
+                payloadBytes = prefixBytes;
+            }
+            if (payloadBytes > prefixBytes) {
+                payload.append(ID_SEPARATOR);
+                payloadBytes++;
+            }
+            payload.append(value);
+            payloadBytes += valueBytes;
+        }
+        if (payloadBytes > prefixBytes) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private static class Subscriber<T> {
+        private final Class<T> idType;
+        private final Consumer<List<T>> onChange;
+        private final Runnable onReset;
+
+        private Subscriber(Class<T> idType, Consumer<List<T>> onChange, Runnable onReset) {
+            this.idType = idType;
+            this.onChange = onChange;
+            this.onReset = onReset;
+        }
+
+        private void change(final String[] ids) {
+            try {
+                onChange.accept(Arrays.stream(ids)
+                        .map(id -> DefaultConversionService.getSharedInstance().convert(id, idType))
+                        .collect(toList()));
+            } catch (RuntimeException e) {
+                log.error("{} :: change of subscriber is failed, reset it", LOG_TAG, e);
+                reset();
+            }
+        }
+
+        private void reset() {
+            try {
+                onReset.run();
+            } catch (RuntimeException e) {
+                log.error("{} :: reset of subscriber is failed", LOG_TAG, e);
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package net.pet.project.simplerest.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * {@link Store} with {@link EvictionPolicy#TINY_LFU}, based on Caffeine
+ * @author VN
+ */
+class CaffeineStore<K, V> implements Store<K, V> {
+
+    private final Cache<K, V> cache;
+
+    CaffeineStore(final long maximumSize, final Duration expireAfterWrite, final Runnable onEviction) {
+        Caffeine<K, V> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .executor(Runnable::run)
+                .removalListener((K key, V value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        onEviction.run();
+                    }
+                });
+        if (Objects.nonNull(expireAfterWrite)) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        this.cache = builder.build();
+    }
+
+    @Override
+    public V get(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public boolean remove(K key) {
+        return cache.asMap().remove(key) != null;
+    }
+
+    @Override
+    public void remove(K key, V value) {
+        cache.asMap().remove(key, value);
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
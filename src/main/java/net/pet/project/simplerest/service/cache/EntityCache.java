@@ -0,0 +1,173 @@
+package net.pet.project.simplerest.service.cache;
+
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of entities by id, bounded by size and evicted by {@link EvictionPolicy}.
+ * Besides entity entry keeps its views (for example, dto), so entity isn't mapped again on every hit.
+ * Cached entities and views are shared between callers and must not be modified.
+ * Cache that is created without settings is disabled: every call goes to loader
+ * @param <T> - identifier type
+ * @param <E> - entity
+ * @author VN
+ */
+public class EntityCache<T, E> {
+
+    @Getter
+    private final String name;
+    private final Store<T, Entry<E>> store;
+
+    /**
+     * Incremented on every invalidation, entity that was loaded concurrently with invalidation isn't cached
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder removals = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private EntityCache(final String name, @Nullable final EntityCacheSettings settings) {
+        this.name = name;
+        this.store = Objects.isNull(settings) ? null : createStore(settings, evictions::increment);
+    }
+
+    public static <T, E> EntityCache<T, E> create(final String name, @Nullable final EntityCacheSettings settings) {
+        return new EntityCache<>(name, settings);
+    }
+
+    public boolean isEnabled() {
+        return Objects.nonNull(store);
+    }
+
+    /**
+     * Get entity from cache or load it by {@code loader} and put to cache
+     */
+    public Optional<E> get(final T id, final Function<T, Optional<E>> loader) {
+        return isEnabled()
+                ? getEntry(id, loader).map(Entry::getEntity)
+                : loader.apply(id);
+    }
+
+    /**
+     * Get view of entity from cache or map entity by {@code mapper} and put view to cache
+     * @param viewType type of view, mapper must return the same view for the same type
+     */
+    public <V> Optional<V> get(final T id,
+                               final Class<V> viewType,
+                               final Function<? super E, ? extends V> mapper,
+                               final Function<T, Optional<E>> loader) {
+        return isEnabled()
+                ? getEntry(id, loader).map(e -> e.getView(viewType, mapper))
+                : loader.apply(id).map(mapper);
+    }
+
+    /**
+     * @return true if entity is in cache, doesn't load entity and doesn't change statistics
+     */
+    public boolean contains(final T id) {
+        return isEnabled() && Objects.nonNull(store.get(id));
+    }
+
+    public void evict(final T id) {
+        if (isEnabled()) {
+            invalidations.incrementAndGet();
+            if (store.remove(id)) {
+                removals.increment();
+            }
+        }
+    }
+
+    public void evictAll(final Collection<T> ids) {
+        ids.forEach(this::evict);
+    }
+
+    public void clear() {
+        if (isEnabled()) {
+            invalidations.incrementAndGet();
+            removals.add(store.size());
+            store.clear();
+        }
+    }
+
+    public long getSize() {
+        return isEnabled() ? store.size() : 0;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getRemovals() {
+        return removals.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private Optional<Entry<E>> getEntry(final T id, final Function<T, Optional<E>> loader) {
+        Entry<E> cached = store.get(id);
+        if (Objects.nonNull(cached)) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        final long stamp = invalidations.get();
+        return loader.apply(id).map(entity -> {
+            Entry<E> entry = new Entry<>(entity);
+            store.put(id, entry);
+            puts.increment();
+            if (stamp != invalidations.get()) {
+                store.remove(id, entry);
+            }
+            return entry;
+        });
+    }
+
+    private static <T, E> Store<T, Entry<E>> createStore(final EntityCacheSettings settings, final Runnable onEviction) {
+        switch (settings.getPolicy()) {
+            case LRU:
+                return new LruStore<>(settings.getMaximumSize(), settings.getExpireAfterWrite(), onEviction);
+            case TINY_LFU:
+                return new CaffeineStore<>(settings.getMaximumSize(), settings.getExpireAfterWrite(), onEviction);
+            default:
+                throw new IllegalArgumentException("unknown eviction policy " + settings.getPolicy());
+        }
+    }
+
+    private static class Entry<E> {
+        @Getter
+        private final E entity;
+        private final Map<Class<?>, Object> views = new ConcurrentHashMap<>(2);
+
+        private Entry(E entity) {
+            this.entity = entity;
+        }
+
+        private <V> V getView(final Class<V> viewType, final Function<? super E, ? extends V> mapper) {
+            return viewType.cast(views.computeIfAbsent(viewType, t -> mapper.apply(entity)));
+        }
+    }
+}
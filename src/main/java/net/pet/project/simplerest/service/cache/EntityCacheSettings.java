@@ -0,0 +1,28 @@
+package net.pet.project.simplerest.service.cache;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Settings of {@link EntityCache}
+ * @author VN
+ */
+@Value
+@Builder
+public class EntityCacheSettings {
+
+    @Builder.Default
+    EvictionPolicy policy = EvictionPolicy.TINY_LFU;
+
+    /**
+     * Max count of entries, entries over it are evicted by {@link EntityCacheSettings#policy}
+     */
+    long maximumSize;
+
+    /**
+     * Time to live of entry after load, null if entries don't expire
+     */
+    Duration expireAfterWrite;
+}
@@ -0,0 +1,17 @@
+package net.pet.project.simplerest.service.cache;
+
+/**
+ * Policy of eviction from {@link EntityCache} when cache is full
+ * @author VN
+ */
+public enum EvictionPolicy {
+    /**
+     * Least recently used entry is evicted
+     */
+    LRU,
+    /**
+     * Window TinyLFU (Caffeine): entry is admitted only if it is accessed more frequently than entry that
+     * will be evicted. Keeps hit rate when hot entries are mixed with scans of rarely used entries
+     */
+    TINY_LFU
+}
@@ -0,0 +1,84 @@
+package net.pet.project.simplerest.service.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link Store} with {@link EvictionPolicy#LRU}, based on {@link LinkedHashMap} in access order
+ * @author VN
+ */
+class LruStore<K, V> implements Store<K, V> {
+
+    private final Map<K, Timed<V>> map;
+    private final long expireAfterWriteNanos;
+    private final Runnable onEviction;
+
+    LruStore(final long maximumSize, final Duration expireAfterWrite, final Runnable onEviction) {
+        this.expireAfterWriteNanos = Objects.isNull(expireAfterWrite) ? 0 : expireAfterWrite.toNanos();
+        this.onEviction = onEviction;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Timed<V>> eldest) {
+                if (size() > maximumSize) {
+                    onEviction.run();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        Timed<V> timed = map.get(key);
+        if (timed == null) {
+            return null;
+        }
+        if (expireAfterWriteNanos > 0 && System.nanoTime() - timed.writtenAt > expireAfterWriteNanos) {
+            map.remove(key);
+            onEviction.run();
+            return null;
+        }
+        return timed.value;
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        map.put(key, new Timed<>(value, System.nanoTime()));
+    }
+
+    @Override
+    public synchronized boolean remove(K key) {
+        return map.remove(key) != null;
+    }
+
+    @Override
+    public synchronized void remove(K key, V value) {
+        Timed<V> timed = map.get(key);
+        if (timed != null && timed.value == value) {
+            map.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    @Override
+    public synchronized long size() {
+        return map.size();
+    }
+
+    private static class Timed<V> {
+        private final V value;
+        private final long writtenAt;
+
+        private Timed(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
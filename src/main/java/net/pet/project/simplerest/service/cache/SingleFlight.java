@@ -0,0 +1,106 @@
+package net.pet.project.simplerest.service.cache;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalescing of concurrent identical calls: while call for key is in flight, other callers of the same key
+ * don't call {@code loader}, but wait and get result (or exception) of the first call.
+ * Result isn't kept after end of call, so it's not a cache: the next call after end loads again.
+ * Result is shared between callers and must not be modified
+ * @param <K> - key of call
+ * @param <V> - result of call
+ * @author VN
+ */
+public class SingleFlight<K, V> {
+
+    @Getter
+    private final String name;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+
+    private SingleFlight(final String name) {
+        this.name = name;
+    }
+
+    public static <K, V> SingleFlight<K, V> create(final String name) {
+        return new SingleFlight<>(name);
+    }
+
+    /**
+     * Call {@code loader} or join call of the same key that is in flight
+     */
+    public V execute(final K key, final Function<? super K, ? extends V> loader) {
+        calls.increment();
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> current = inFlight.putIfAbsent(key, flight);
+        if (current != null) {
+            return join(current);
+        }
+        executions.increment();
+        try {
+            V result = loader.apply(key);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Callers that come after forget don't join call that is in flight now (for example, after change of entity
+     * call could read old state). Callers that already joined get its result
+     */
+    public void forget(final K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * @return count of calls of {@link SingleFlight#execute(Object, Function)}
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * @return count of calls of loader, the rest of calls got shared result
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getShared() {
+        return getCalls() - getExecutions();
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private static <V> V join(final CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
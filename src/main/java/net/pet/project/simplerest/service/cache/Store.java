@@ -0,0 +1,29 @@
+package net.pet.project.simplerest.service.cache;
+
+/**
+ * Bounded storage of {@link EntityCache} entries, realisations differ by {@link EvictionPolicy}
+ * @author VN
+ */
+interface Store<K, V> {
+
+    /**
+     * @return value or null if there is no value or it is expired
+     */
+    V get(K key);
+
+    void put(K key, V value);
+
+    /**
+     * @return true if key was present
+     */
+    boolean remove(K key);
+
+    /**
+     * Remove key only if it is mapped to {@code value}
+     */
+    void remove(K key, V value);
+
+    void clear();
+
+    long size();
+}
@@ -0,0 +1,77 @@
+package net.pet.project.simplerest.service.constraint;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Unique constraint of DB that is mapped to field of entity.
+ * Uniqueness of field isn't checked before write, violation of constraint
+ * (postgres {@code 23505 unique_violation}) is translated to "already exist" exception with value of field
+ * @param <E> - entity that stored in DB
+ * @author VN
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class UniqueConstraint<E> {
+
+    private static final Pattern DUPLICATE_KEY = Pattern.compile("Key \\((.+?)\\)=\\((.*?)\\) already exists");
+
+    private final String name;
+    private final String field;
+    private final Function<? super E, ?> getter;
+
+    public static <E> UniqueConstraint<E> of(final String name, final String field, final Function<? super E, ?> getter) {
+        Assert.hasText(name, "name must not be empty");
+        Assert.hasText(field, "field must not be empty");
+        Assert.notNull(getter, "getter must not be null");
+        return new UniqueConstraint<>(name, field, getter);
+    }
+
+    /**
+     * Value of field that violated constraint: from entity if it's known (single write),
+     * otherwise from detail of postgres error {@code Key (field)=(value) already exists} (batch write)
+     */
+    public String getValue(final E entity, final Throwable violation) {
+        if (entity != null) {
+            return String.valueOf(getter.apply(entity));
+        }
+        return findDuplicateValue(violation).orElse("?");
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private static Optional<String> findDuplicateValue(final Throwable violation) {
+        Throwable current = violation;
+        while (current != null) {
+            Optional<String> value = matchDuplicateValue(current.getMessage());
+            if (value.isPresent()) {
+                return value;
+            }
+            if (current instanceof SQLException && ((SQLException) current).getNextException() != null) {
+                value = matchDuplicateValue(((SQLException) current).getNextException().getMessage());
+                if (value.isPresent()) {
+                    return value;
+                }
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> matchDuplicateValue(final String message) {
+        if (Objects.isNull(message)) {
+            return Optional.empty();
+        }
+        final Matcher matcher = DUPLICATE_KEY.matcher(message);
+        return matcher.find() ? Optional.of(matcher.group(2)) : Optional.empty();
+    }
+}
@@ -0,0 +1,182 @@
+package net.pet.project.simplerest.service.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotationIntrospectorPair;
+import com.fasterxml.jackson.databind.introspect.NopAnnotationIntrospector;
+import lombok.extern.slf4j.Slf4j;
+import net.pet.project.simplerest.configuration.idempotency.IdempotencyProperties;
+import net.pet.project.simplerest.exception.IdempotencyKeyReusedException;
+import net.pet.project.simplerest.exception.ServiceException;
+import net.pet.project.simplerest.model.idempotency.IdempotencyRecord;
+import net.pet.project.simplerest.repository.idempotency.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/**
+ * Requests with header {@code Idempotency-Key}: the first request is executed and its response (with ETag)
+ * is stored with key, repeats of request get stored response without execution.
+ * Key is claimed by insert in the same transaction as request, so:
+ * - concurrent duplicate waits on row lock of key until the first request ends and then gets its response;
+ * - if request fails then key is released with rollback and request may be repeated.
+ * Keys are deleted after {@code simple-rest.idempotency.ttl}
+ * @author VN
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "simple-rest.idempotency.enabled", matchIfMissing = true)
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final String LOG_TAG = "[IDEMPOTENCY] ::";
+
+    /**
+     * Native insert by jdbc: native modifying query of hibernate evicts all regions of second level cache
+     */
+    private static final String CLAIM_SQL = "INSERT INTO idempotency_keys " +
+            "(idempotency_key, request_hash, created_at, expires_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, response = NULL, " +
+            "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at < EXCLUDED.created_at";
+
+    /**
+     * Expired record could be deleted between claim and read of record, then key is claimed again
+     */
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final IdempotencyRecordRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper responseReader;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              JdbcTemplate jdbcTemplate,
+                              IdempotencyProperties properties,
+                              ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        // stored response is written by this application, so read-only properties (version) are read back too
+        this.responseReader = objectMapper.copy().setAnnotationIntrospector(new AnnotationIntrospectorPair(
+                objectMapper.getSerializationConfig().getAnnotationIntrospector(), NopAnnotationIntrospector.instance) {
+            @Override
+            public JsonProperty.Access findPropertyAccess(Annotated annotated) {
+                return JsonProperty.Access.AUTO;
+            }
+        });
+    }
+
+    /**
+     * Execute request or replay stored response of the first request with the same key.
+     * {@code action} is executed in transaction of key, response is stored only if transaction is committed
+     * @param key key of client with method and path of request
+     * @param requestHash hash of request {@link IdempotencyService#hash(Object...)}
+     * @param responseType type of response for replay
+     * @param action execution of request
+     * @param eTag ETag of response (null if response hasn't ETag), it is stored with response
+     * @throws IdempotencyKeyReusedException if key was used for request with another hash
+     */
+    @Transactional
+    public <V> IdempotentResult<V> execute(final String key,
+                                           final String requestHash,
+                                           final Class<V> responseType,
+                                           final Supplier<V> action,
+                                           final Function<V, String> eTag) throws IdempotencyKeyReusedException {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            if (claim(key, requestHash)) {
+                final V response = action.get();
+                final String responseETag = eTag.apply(response);
+                repository.complete(key, write(response), responseETag);
+                return IdempotentResult.executed(response, responseETag);
+            }
+            final Optional<IdempotencyRecord> record = repository.findById(key);
+            if (record.isPresent()) {
+                return replay(record.get(), requestHash, responseType);
+            }
+        }
+        throw new ServiceException(format("Idempotency key [%s] can't be claimed", key));
+    }
+
+    /**
+     * SHA-256 of json of request parts (body, headers that affect result)
+     */
+    public String hash(final Object... parts) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(Arrays.asList(parts)));
+            return format("%064x", new BigInteger(1, digest));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new ServiceException("Request can't be hashed", e);
+        }
+    }
+
+    /**
+     * Delete expired keys, new request with the same key is executed again
+     */
+    @Transactional
+    @Scheduled(initialDelayString = "${simple-rest.idempotency.cleanup-interval:PT1H}",
+            fixedDelayString = "${simple-rest.idempotency.cleanup-interval:PT1H}")
+    public void deleteExpired() {
+        final int deleted = repository.deleteAllExpired(Instant.now());
+        log.info("{} deleted {} expired keys", LOG_TAG, deleted);
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    /**
+     * @return true if key is inserted (or expired record is replaced) by current transaction
+     */
+    private boolean claim(final String key, final String requestHash) {
+        final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return jdbcTemplate.update(CLAIM_SQL, key, requestHash, now, now.plus(properties.getTtl())) > 0;
+    }
+
+    private <V> IdempotentResult<V> replay(final IdempotencyRecord record,
+                                           final String requestHash,
+                                           final Class<V> responseType) throws IdempotencyKeyReusedException {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(record.getId());
+        }
+        log.info("{} replay response of key {}", LOG_TAG, record.getId());
+        try {
+            return IdempotentResult.replayed(
+                    responseReader.readValue(record.getResponse(), responseType), record.getEtag());
+        } catch (JsonProcessingException e) {
+            throw new ServiceException(format("Response of idempotency key [%s] can't be read", record.getId()), e);
+        }
+    }
+
+    private String write(final Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new ServiceException("Response can't be stored", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package net.pet.project.simplerest.service.idempotency;
+
+import lombok.Value;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Result of request with {@code Idempotency-Key}
+ * @param <V> - type of response
+ * @author VN
+ */
+@Value
+public class IdempotentResult<V> {
+
+    V value;
+
+    /**
+     * ETag of response, the same in replay as in the first response
+     */
+    @Nullable
+    String eTag;
+
+    /**
+     * true if request wasn't executed and value is stored response of first request with the same key
+     */
+    boolean replayed;
+
+    public static <V> IdempotentResult<V> executed(final V value, @Nullable final String eTag) {
+        return new IdempotentResult<>(value, eTag, false);
+    }
+
+    public static <V> IdempotentResult<V> replayed(final V value, @Nullable final String eTag) {
+        return new IdempotentResult<>(value, eTag, true);
+    }
+}
@@ -0,0 +1,102 @@
+package net.pet.project.simplerest.service.index;
+
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings: {@link BloomFilter#mightContain(String)} never returns false for added key,
+ * and returns true for not added key with probability about {@code falsePositiveProbability}
+ * while count of keys doesn't exceed {@code expectedInsertions}.
+ * Keys can't be removed
+ * @author VN
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BloomFilter(final long bitCount, final int hashCount) {
+        this.bits = new AtomicLongArray(Math.toIntExact((bitCount + Long.SIZE - 1) / Long.SIZE));
+        this.bitCount = (long) bits.length() * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    public static BloomFilter create(final long expectedInsertions, final double falsePositiveProbability) {
+        Assert.isTrue(expectedInsertions > 0, "expectedInsertions must be positive");
+        Assert.isTrue(falsePositiveProbability > 0 && falsePositiveProbability < 1,
+                "falsePositiveProbability must be between 0 and 1");
+        long bitCount = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+        return new BloomFilter(Math.max(Long.SIZE, bitCount), hashCount);
+    }
+
+    public void put(final String key) {
+        final long hash = hash(key);
+        final long h1 = hash >>> 32;
+        final long h2 = hash & 0xFFFFFFFFL;
+        for (int i = 0; i < hashCount; i++) {
+            final long index = Math.floorMod(h1 + i * h2, bitCount);
+            final int word = (int) (index >>> 6);
+            final long mask = 1L << index;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * Add all keys of {@code other} filter that is created with the same parameters
+     */
+    public void putAll(final BloomFilter other) {
+        Assert.isTrue(bitCount == other.bitCount && hashCount == other.hashCount, "filters must have the same size");
+        for (int word = 0; word < bits.length(); word++) {
+            final long otherBits = other.bits.get(word);
+            long current = bits.get(word);
+            while ((current | otherBits) != current && !bits.compareAndSet(word, current, current | otherBits)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(final String key) {
+        final long hash = hash(key);
+        final long h1 = hash >>> 32;
+        final long h2 = hash & 0xFFFFFFFFL;
+        for (int i = 0; i < hashCount; i++) {
+            final long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return size of filter in bytes
+     */
+    public long getSizeInBytes() {
+        return bitCount / Byte.SIZE;
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    /**
+     * 64-bit FNV-1a of UTF-8 bytes with finalizer of SplitMix64, halves of result are used as two hashes
+     */
+    private static long hash(final String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,158 @@
+package net.pet.project.simplerest.service.index;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of unique keys (for example, logins) in front of DB: key that isn't in index doesn't exist,
+ * so lookup of it doesn't need query. Index is {@link BloomFilter}, so lookup of key that exists or
+ * false positive goes to DB.
+ * Index answers only after {@link KeyIndex#rebuild(Consumer)}, until then (and after {@link KeyIndex#reset()})
+ * every lookup goes to DB. Keys of every write must be added before commit. Removed keys stay in index,
+ * keys that were added before rebuild are kept by rebuild (their rows could be not committed yet)
+ * @author VN
+ */
+@Slf4j
+public class KeyIndex {
+
+    @Getter
+    private final String name;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private volatile boolean ready;
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong size = new AtomicLong();
+    private final Object rebuildLock = new Object();
+    /**
+     * Adds share read lock, swap of filter by rebuild takes write lock: key that is added during swap
+     * can't be missed by both old filter and filter that is building
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder negatives = new LongAdder();
+
+    public KeyIndex(final String name, final long expectedInsertions, final double falsePositiveProbability) {
+        this.name = name;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.filter = BloomFilter.create(expectedInsertions, falsePositiveProbability);
+    }
+
+    /**
+     * @return false if key doesn't exist for sure, true if key may exist (or index isn't ready)
+     */
+    public boolean mightContain(final String key) {
+        lookups.increment();
+        if (!ready || Objects.isNull(key) || filter.mightContain(key)) {
+            return true;
+        }
+        negatives.increment();
+        return false;
+    }
+
+    public void add(final String key) {
+        if (Objects.isNull(key)) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            filter.put(key);
+            final BloomFilter next = building;
+            if (Objects.nonNull(next)) {
+                next.put(key);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        if (size.incrementAndGet() == expectedInsertions) {
+            log.warn("{} :: index has {} keys, false positives will grow", name, expectedInsertions);
+        }
+    }
+
+    public void addAll(final Collection<String> keys) {
+        keys.forEach(this::add);
+    }
+
+    /**
+     * Build index from all keys of DB, keys that are added before and during build are kept
+     * @param loader loads all keys of DB to consumer
+     */
+    public void rebuild(final Consumer<Consumer<String>> loader) {
+        Assert.notNull(loader, "loader must not be null");
+        synchronized (rebuildLock) {
+            final long resetsBefore = resets.get();
+            final BloomFilter next = BloomFilter.create(expectedInsertions, falsePositiveProbability);
+            final AtomicLong loaded = new AtomicLong();
+            building = next;
+            try {
+                loader.accept(key -> {
+                    next.put(key);
+                    loaded.incrementAndGet();
+                });
+                swap(next);
+            } finally {
+                building = null;
+            }
+            size.set(loaded.get());
+            // reset during build means that keys could be missed by loader
+            ready = resets.get() == resetsBefore;
+            log.info("{} :: index is built with {} keys, {} bytes", name, loaded.get(), next.getSizeInBytes());
+        }
+    }
+
+    /**
+     * Replace filter by built one with keys of current filter
+     */
+    private void swap(final BloomFilter next) {
+        swapLock.writeLock().lock();
+        try {
+            next.putAll(filter);
+            filter = next;
+            building = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index doesn't answer until next {@link KeyIndex#rebuild(Consumer)}, for example, when writes of other nodes
+     * could be missed
+     */
+    public void reset() {
+        resets.incrementAndGet();
+        ready = false;
+        log.info("{} :: index is reset", name);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getSize() {
+        return size.get();
+    }
+
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * @return count of lookups that were answered without DB
+     */
+    public long getNegatives() {
+        return negatives.sum();
+    }
+}
@@ -0,0 +1,129 @@
+package net.pet.project.simplerest.service.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import net.pet.project.simplerest.dto.monitoring.CacheStatisticsDto;
+import net.pet.project.simplerest.dto.monitoring.CoalescingStatisticsDto;
+import net.pet.project.simplerest.exception.ServiceException;
+import net.pet.project.simplerest.service.AbstractService;
+import net.pet.project.simplerest.service.cache.EntityCache;
+import net.pet.project.simplerest.service.cache.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Service for statistics of JCache regions (second level cache), of services caches {@link EntityCache}
+ * and of coalescing of services reads {@link SingleFlight}.
+ * Statistics of JCache are read from {@code javax.cache:type=CacheStatistics} MBeans, so they must be enabled
+ * in cache config
+ * @author VN
+ */
+@Slf4j
+@Service
+public class CacheStatisticsService {
+
+    private static final String STATISTICS_MBEANS = "javax.cache:type=CacheStatistics,*";
+    private static final String SERVICE_CACHE_MANAGER = "service";
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    private final List<AbstractService<?, ?, ?>> services;
+
+    @Autowired
+    public CacheStatisticsService(List<AbstractService<?, ?, ?>> services) {
+        this.services = services;
+    }
+
+    public List<CacheStatisticsDto> getAll() {
+        log.info("get statistics of all cache regions");
+        try {
+            return Stream.concat(
+                    server.queryNames(new ObjectName(STATISTICS_MBEANS), null).stream().map(this::toDto),
+                    services.stream().map(AbstractService::getCache).filter(EntityCache::isEnabled).map(this::toDto)
+            )
+                    .sorted(Comparator.comparing(CacheStatisticsDto::getCacheManager)
+                            .thenComparing(CacheStatisticsDto::getRegion))
+                    .collect(toList());
+        } catch (JMException e) {
+            throw new ServiceException("cache statistics are unavailable", e);
+        }
+    }
+
+    /**
+     * Statistics of coalescing: share of calls that got result of concurrent identical call without query
+     */
+    public List<CoalescingStatisticsDto> getCoalescing() {
+        log.info("get statistics of coalescing of reads");
+        return services.stream()
+                .flatMap(service -> service.getSingleFlights().stream())
+                .map(this::toDto)
+                .sorted(Comparator.comparing(CoalescingStatisticsDto::getName))
+                .collect(toList());
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private CacheStatisticsDto toDto(final ObjectName name) {
+        return CacheStatisticsDto.builder()
+                .cacheManager(getKeyProperty(name, "CacheManager"))
+                .region(getKeyProperty(name, "Cache"))
+                .gets(getAttribute(name, "CacheGets"))
+                .hits(getAttribute(name, "CacheHits"))
+                .misses(getAttribute(name, "CacheMisses"))
+                .hitPercentage(getAttribute(name, "CacheHitPercentage"))
+                .puts(getAttribute(name, "CachePuts"))
+                .removals(getAttribute(name, "CacheRemovals"))
+                .evictions(getAttribute(name, "CacheEvictions"))
+                .build();
+    }
+
+    private CacheStatisticsDto toDto(final EntityCache<?, ?> cache) {
+        final long gets = cache.getHits() + cache.getMisses();
+        return CacheStatisticsDto.builder()
+                .cacheManager(SERVICE_CACHE_MANAGER)
+                .region(cache.getName())
+                .gets(gets)
+                .hits(cache.getHits())
+                .misses(cache.getMisses())
+                .hitPercentage(gets == 0 ? 0 : cache.getHits() * 100f / gets)
+                .puts(cache.getPuts())
+                .removals(cache.getRemovals())
+                .evictions(cache.getEvictions())
+                .build();
+    }
+
+    private CoalescingStatisticsDto toDto(final SingleFlight<?, ?> flight) {
+        final long calls = flight.getCalls();
+        final long shared = calls - flight.getExecutions();
+        return CoalescingStatisticsDto.builder()
+                .name(flight.getName())
+                .calls(calls)
+                .executions(calls - shared)
+                .shared(shared)
+                .coalescingPercentage(calls == 0 ? 0 : shared * 100f / calls)
+                .build();
+    }
+
+    private String getKeyProperty(final ObjectName name, final String key) {
+        final String value = name.getKeyProperty(key);
+        return value != null && value.startsWith("\"") ? ObjectName.unquote(value) : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <X> X getAttribute(final ObjectName name, final String attribute) {
+        try {
+            return (X) server.getAttribute(name, attribute);
+        } catch (JMException e) {
+            throw new ServiceException("cache statistics are unavailable for " + name, e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package net.pet.project.simplerest.service.reactive;
+
+import io.r2dbc.postgresql.api.PostgresqlException;
+import lombok.extern.slf4j.Slf4j;
+import net.pet.project.simplerest.configuration.reactive.ReactiveTransactions;
+import net.pet.project.simplerest.exception.ApplicationException;
+import net.pet.project.simplerest.exception.NotFoundException;
+import net.pet.project.simplerest.exception.VersionConflictException;
+import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.model.IVersionedEntity;
+import net.pet.project.simplerest.repository.reactive.IReactiveBaseRepository;
+import net.pet.project.simplerest.service.constraint.UniqueConstraint;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Abstract non-blocking CRUD service realisation for {@link IEntity}.
+ * Create, update and delete are one statement each, violations of DB constraints are translated by
+ * {@link AbstractReactiveService#getUniqueConstraints()} and
+ * {@link AbstractReactiveService#translateConstraintViolation(String, IEntity)}
+ * @param <E> - entity that stored in DB
+ * @param <T> - identifier type
+ * @param <R> - repository {@link IReactiveBaseRepository} for work with {@link E}
+ * @author VN
+ */
+@Slf4j
+public abstract class AbstractReactiveService<E extends IEntity<T>, T, R extends IReactiveBaseRepository<E, T>>
+        implements IReactiveBaseService<E, T> {
+
+    protected final R repository;
+    protected final ReactiveTransactions transactions;
+
+    public AbstractReactiveService(R repository, ReactiveTransactions transactions) {
+        this.repository = repository;
+        this.transactions = transactions;
+    }
+
+    /**
+     * Return page of entities and total count in one read-only transaction
+     */
+    @Override
+    public Mono<Page<E>> getAll(Pageable page) {
+        log.info("get all entity");
+        return Mono.zip(repository.findAll(page).collectList(), repository.count())
+                .<Page<E>>map(t -> new PageImpl<>(t.getT1(), page, t.getT2()))
+                .as(transactions.getReadOnly()::transactional);
+    }
+
+    @Override
+    public Flux<E> streamAll(int fetchSize) {
+        log.info("stream all entity with fetch size {}", fetchSize);
+        return repository.streamAll(fetchSize).as(transactions.getReadOnly()::transactional);
+    }
+
+    @Override
+    public Mono<E> get(T id) {
+        Assert.notNull(id, "id must not be null");
+        log.info("get entity by id {}", id);
+        return repository.findById(id).switchIfEmpty(Mono.error(() -> new NotFoundException(id)));
+    }
+
+    @Override
+    public Mono<E> create(E entity) {
+        return Mono.fromCallable(() -> checkNew(entity))
+                .flatMap(this::validateBeforeCreate)
+                .flatMap(repository::insert)
+                .onErrorMap(DataIntegrityViolationException.class, ex -> translate(ex, entity))
+                .doOnNext(created -> log.info("create entity {}", created))
+                .as(transactions.getWrite()::transactional);
+    }
+
+    /**
+     * Update existing entity with one statement {@code UPDATE ... RETURNING}.
+     * If entity is {@link IVersionedEntity} with version then update fails if version in DB is different
+     */
+    @Override
+    public Mono<E> update(E entity) {
+        Assert.notNull(entity, getEntityName() + " must not be null");
+        Assert.notNull(entity.getId(), "id must not be null");
+        return validateBeforeUpdate(entity)
+                .flatMap(repository::updateReturning)
+                .switchIfEmpty(Mono.defer(() -> notUpdatedError(entity)))
+                .onErrorMap(DataIntegrityViolationException.class, ex -> translate(ex, entity))
+                .doOnNext(saved -> log.info("updated entity {} with id={}", saved, saved.getId()))
+                .as(transactions.getWrite()::transactional);
+    }
+
+    /**
+     * Delete entity with one statement {@code DELETE ... WHERE id = ?}, existing is checked by count of deleted rows
+     */
+    @Override
+    public Mono<Void> delete(T id) {
+        Assert.notNull(id, "id must not be null");
+        return repository.deleteById(id)
+                .flatMap(count -> count == 0 ? Mono.<Void>error(new NotFoundException(id)) : Mono.<Void>empty())
+                .doOnSuccess(v -> log.info("delete entity by {}", id))
+                .as(transactions.getWrite()::transactional);
+    }
+
+    //================================================= CUSTOMIZE METHODS ==============================================
+
+    /**
+     * Unique constraints of DB that are mapped to fields of entity, their violations are translated to
+     * "already exist" exception.
+     * Override this method if entity has unique constraints
+     */
+    protected List<UniqueConstraint<E>> getUniqueConstraints() {
+        //override me for customize
+        return List.of();
+    }
+
+    /**
+     * Translate violation of DB constraint that isn't in {@link AbstractReactiveService#getUniqueConstraints()}
+     * to application exception.
+     * Override this method if you need to map other constraints of entity
+     * @param constraintName name of violated constraint, may be null
+     * @return exception for signal, or null if violation isn't known
+     */
+    protected ApplicationException translateConstraintViolation(final String constraintName, final E entity) {
+        //override me for customize
+        return null;
+    }
+
+    /**
+     * Entity validation before call method {@link AbstractReactiveService#create(IEntity)}
+     * IMPORTANT: this method must be pure (doesn't modif <strong>entity</strong>)
+     * @return not modified entity or error
+     */
+    protected Mono<E> validateBeforeCreate(final E entity) {
+        //override me for customize
+        return Mono.just(entity);
+    }
+
+    /**
+     * Entity validation before call method {@link AbstractReactiveService#update(IEntity)}
+     * IMPORTANT: this method must be pure (doesn't modif <strong>entity</strong>)
+     * @return not modified entity or error
+     */
+    protected Mono<E> validateBeforeUpdate(final E entity) {
+        //override me for customize
+        return Mono.just(entity);
+    }
+
+    //================================================= UTIL METHODS ===================================================
+
+    /**
+     * Error for update that didn't change any row: without version entity doesn't exist,
+     * with version entity is checked additionally (only in this case)
+     */
+    protected Mono<E> notUpdatedError(final E entity) {
+        final Long expected = entity instanceof IVersionedEntity ? ((IVersionedEntity<?>) entity).getVersion() : null;
+        if (expected == null) {
+            return Mono.error(new NotFoundException(entity.getId()));
+        }
+        return repository.existsById(entity.getId())
+                .flatMap(exists -> Mono.error(exists
+                        ? new VersionConflictException(entity.getId(), expected)
+                        : new NotFoundException(entity.getId())));
+    }
+
+    /**
+     * Translate {@link DataIntegrityViolationException} by {@link AbstractReactiveService#getUniqueConstraints()} and
+     * {@link AbstractReactiveService#translateConstraintViolation(String, IEntity)}
+     * @return translated exception or {@code ex} if violation isn't known
+     */
+    protected Throwable translate(final DataIntegrityViolationException ex, final E entity) {
+        final String constraintName = ex.getCause() instanceof PostgresqlException
+                ? ((PostgresqlException) ex.getCause()).getErrorDetails().getConstraintName().orElse(null)
+                : null;
+        ApplicationException translated = getUniqueConstraints().stream()
+                .filter(c -> c.getName().equals(constraintName))
+                .findFirst()
+                .map(c -> notUniqueException(c.getField(), c.getValue(entity, ex)))
+                .orElseGet(() -> translateConstraintViolation(constraintName, entity));
+        if (translated == null) {
+            return ex;
+        }
+        translated.initCause(ex);
+        return translated;
+    }
+
+    protected ApplicationException notUniqueException(final String fieldName, final String value) {
+        return new ApplicationException(format("%s with %s '%s' already exist", getEntityName(), fieldName, value));
+    }
+
+    protected String getEntityName() {
+        return getEntityType().getSimpleName();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Class<E> getEntityType() {
+        return (Class<E>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
+    }
+
+    /**
+     * Check that entity new (id is null)
+     * @throws IllegalArgumentException if entity contains nonNull id
+     */
+    protected E checkNew(final E entity) throws IllegalArgumentException {
+        Assert.notNull(entity, getEntityName() + " must not be null");
+        if (!entity.isNew()) {
+            throw new IllegalArgumentException(getEntityName() + " must be new (id=null)");
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,44 @@
+package net.pet.project.simplerest.service.reactive;
+
+import net.pet.project.simplerest.exception.NotFoundException;
+import net.pet.project.simplerest.exception.VersionConflictException;
+import net.pet.project.simplerest.model.IEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking CRUD service for {@link IEntity}, counterpart of {@link net.pet.project.simplerest.service.IBaseService}.
+ * Errors are signaled by publishers, not thrown
+ * @param <E> - entity that stored in DB
+ * @param <T> - identifier type
+ * @author VN
+ */
+public interface IReactiveBaseService<E extends IEntity<T>, T> {
+
+    Mono<Page<E>> getAll(Pageable page);
+
+    /**
+     * Stream all entities from DB cursor with backpressure
+     * @param fetchSize count of rows that fetched from DB per round trip
+     */
+    Flux<E> streamAll(int fetchSize);
+
+    /**
+     * @return entity or error {@link NotFoundException}
+     */
+    Mono<E> get(T id);
+
+    Mono<E> create(E entity);
+
+    /**
+     * @return updated entity or error {@link NotFoundException}, {@link VersionConflictException}
+     */
+    Mono<E> update(E entity);
+
+    /**
+     * @return empty or error {@link NotFoundException}
+     */
+    Mono<Void> delete(T id);
+}
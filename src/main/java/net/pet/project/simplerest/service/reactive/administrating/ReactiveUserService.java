@@ -0,0 +1,35 @@
+package net.pet.project.simplerest.service.reactive.administrating;
+
+import net.pet.project.simplerest.configuration.reactive.ReactiveTransactions;
+import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.repository.reactive.administrating.ReactiveUserRepository;
+import net.pet.project.simplerest.service.constraint.UniqueConstraint;
+import net.pet.project.simplerest.service.reactive.AbstractReactiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Non-blocking service for {@link User}, uniqueness of login is checked by DB constraint
+ * {@link User#LOGIN_UNIQUE_CONSTRAINT}
+ * @author VN
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService extends AbstractReactiveService<User, Long, ReactiveUserRepository> {
+
+    private static final List<UniqueConstraint<User>> UNIQUE_CONSTRAINTS = List.of(
+            UniqueConstraint.of(User.LOGIN_UNIQUE_CONSTRAINT, "login", User::getLogin));
+
+    @Autowired
+    public ReactiveUserService(ReactiveUserRepository repository, ReactiveTransactions transactions) {
+        super(repository, transactions);
+    }
+
+    @Override
+    protected List<UniqueConstraint<User>> getUniqueConstraints() {
+        return UNIQUE_CONSTRAINTS;
+    }
+}
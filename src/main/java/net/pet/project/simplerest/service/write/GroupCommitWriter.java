@@ -0,0 +1,288 @@
+package net.pet.project.simplerest.service.write;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.pet.project.simplerest.exception.OverloadException;
+import net.pet.project.simplerest.exception.ServiceException;
+import net.pet.project.simplerest.model.IEntity;
+import net.pet.project.simplerest.model.IVersionedEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Write-behind of creates and updates of entity {@link E} with group commit: writes of concurrent callers are
+ * queued and one writer thread executes up to {@code batchSize} writes (or writes that came in {@code maxDelay}
+ * after the first one) in one transaction, so cost of commit is shared by the batch.
+ * Creates of batch are inserted with one jdbc batch, updates are executed one by one.
+ * Every caller gets own result: if transaction of batch fails then every write of batch is repeated in own
+ * transaction, so only failed writes get exception
+ * @param <E> - entity
+ * @author VN
+ */
+@Slf4j
+public class GroupCommitWriter<E extends IEntity<?>> implements AutoCloseable {
+
+    private static final String LOG_TAG = "[GROUP_COMMIT] ::";
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    @Getter
+    private final String name;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final int queueCapacity;
+    private final BlockingQueue<Write<E>> queue;
+    private final TransactionTemplate transactionTemplate;
+    private final Function<List<E>, List<E>> createAll;
+    private final UnaryOperator<E> update;
+    private final Thread writer;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * Writes are queued under read lock and writer is closed under write lock, so no write is queued after close
+     */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    /**
+     * @param createAll insert of entities, result must be in order of entities
+     * @param update update of entity
+     */
+    public GroupCommitWriter(final String name,
+                             final int batchSize,
+                             final Duration maxDelay,
+                             final int queueCapacity,
+                             final TransactionTemplate transactionTemplate,
+                             final Function<List<E>, List<E>> createAll,
+                             final UnaryOperator<E> update) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.queueCapacity = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.transactionTemplate = transactionTemplate;
+        this.createAll = createAll;
+        this.update = update;
+        this.writer = new Thread(this::run, "group-commit-" + name);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * @return future that is completed with created entity after commit of its batch
+     */
+    public CompletableFuture<E> create(final E entity) {
+        return submit(new Write<>(entity, true, new CompletableFuture<>()));
+    }
+
+    /**
+     * @return future that is completed with updated entity after commit of its batch
+     */
+    public CompletableFuture<E> update(final E entity) {
+        return submit(new Write<>(entity, false, new CompletableFuture<>()));
+    }
+
+    /**
+     * Stop accepting writes, queued writes are committed before stop of writer thread
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final List<Write<E>> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.forEach(w -> w.getResult().completeExceptionally(new ServiceException(name + " writer is closed")));
+    }
+
+    /**
+     * @return count of writes that were taken by writer thread (committed and failed)
+     */
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    /**
+     * @return count of batches, repeats of writes after failure of batch aren't counted
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * @return count of batches that failed and were repeated write by write
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    //================================================= PRIVATE METHODS ================================================
+
+    private CompletableFuture<E> submit(final Write<E> write) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                write.getResult().completeExceptionally(new ServiceException(name + " writer is closed"));
+            } else if (!queue.offer(write)) {
+                // queue is full: writes come faster than DB commits them, client should retry later
+                write.getResult().completeExceptionally(new OverloadException(name + " write", queueCapacity, maxDelay));
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return write.getResult();
+    }
+
+    private void run() {
+        final List<Write<E>> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // writer is stopped only by close, collected writes are committed
+                log.warn("{} {} writer was interrupted", LOG_TAG, name);
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+        log.info("{} {} writer is stopped after {} writes in {} batches", LOG_TAG, name, getWrites(), getBatches());
+    }
+
+    /**
+     * Wait for the first write, then collect writes until batch is full or {@code maxDelay} is passed
+     */
+    private void collect(final List<Write<E>> batch) throws InterruptedException {
+        final Write<E> first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        final long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            final long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            final Write<E> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(final List<Write<E>> batch) {
+        batches.increment();
+        // counted before results are completed, so caller sees own write in statistics
+        writes.add(batch.size());
+        try {
+            execute(batch);
+            log.debug("{} {} batch of {} writes is committed", LOG_TAG, name, batch.size());
+        } catch (RuntimeException | Error e) {
+            if (batch.size() == 1) {
+                batch.get(0).getResult().completeExceptionally(e);
+                return;
+            }
+            // failed write rolled back whole batch, so every write is repeated alone to get own result
+            log.warn("{} {} batch of {} writes failed, writes are repeated one by one: {}",
+                    LOG_TAG, name, batch.size(), e.toString());
+            fallbacks.increment();
+            for (Write<E> write : batch) {
+                write.reset();
+                try {
+                    execute(Collections.singletonList(write));
+                } catch (RuntimeException | Error writeError) {
+                    write.getResult().completeExceptionally(writeError);
+                }
+            }
+        }
+    }
+
+    /**
+     * Execute writes in one transaction and complete their results after commit
+     */
+    private void execute(final List<Write<E>> batch) {
+        final List<E> results = transactionTemplate.execute(status -> writeAll(batch));
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).getResult().complete(results.get(i));
+        }
+    }
+
+    /**
+     * @return results in order of batch
+     */
+    private List<E> writeAll(final List<Write<E>> batch) {
+        final List<E> creates = batch.stream().filter(Write::isCreate).map(Write::getEntity).collect(toList());
+        final List<E> created = creates.isEmpty() ? List.of() : createAll.apply(creates);
+        final List<E> results = new ArrayList<>(batch.size());
+        int createIndex = 0;
+        for (Write<E> write : batch) {
+            results.add(write.isCreate() ? created.get(createIndex++) : update.apply(write.getEntity()));
+        }
+        return results;
+    }
+
+    @Getter
+    private static class Write<E extends IEntity<?>> {
+        private final E entity;
+        private final boolean create;
+        private final CompletableFuture<E> result;
+        /**
+         * Version before write, write that was rolled back could change it (for example, insert seeds version,
+         * update fills unknown version from DB)
+         */
+        private final Long version;
+
+        private Write(E entity, boolean create, CompletableFuture<E> result) {
+            this.entity = entity;
+            this.create = create;
+            this.result = result;
+            this.version = entity instanceof IVersionedEntity ? ((IVersionedEntity<?>) entity).getVersion() : null;
+        }
+
+        /**
+         * Restore state of entity that was changed by write of rolled back batch
+         */
+        private void reset() {
+            if (create) {
+                // id was assigned by insert that was rolled back
+                entity.setId(null);
+            }
+            if (entity instanceof IVersionedEntity) {
+                ((IVersionedEntity<?>) entity).setVersion(version);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package net.pet.project.simplerest.service.write;
+
+import net.pet.project.simplerest.model.IEntity;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Factory of {@link GroupCommitWriter} with common settings, writers are closed (queued writes are committed)
+ * on shutdown of context
+ * @author VN
+ */
+public class GroupCommitWriterFactory implements DisposableBean {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final int queueCapacity;
+
+    private final List<GroupCommitWriter<?>> writers = new CopyOnWriteArrayList<>();
+
+    public GroupCommitWriterFactory(final TransactionTemplate transactionTemplate,
+                                    final int batchSize,
+                                    final Duration maxDelay,
+                                    final int queueCapacity) {
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @see GroupCommitWriter#GroupCommitWriter(String, int, Duration, int, TransactionTemplate, Function, UnaryOperator)
+     */
+    public <E extends IEntity<?>> GroupCommitWriter<E> create(final String name,
+                                                             final Function<List<E>, List<E>> createAll,
+                                                             final UnaryOperator<E> update) {
+        final GroupCommitWriter<E> writer = new GroupCommitWriter<>(name, batchSize, maxDelay, queueCapacity,
+                transactionTemplate, createAll, update);
+        writers.add(writer);
+        return writer;
+    }
+
+    public List<GroupCommitWriter<?>> getWriters() {
+        return Collections.unmodifiableList(writers);
+    }
+
+    @Override
+    public void destroy() {
+        writers.forEach(GroupCommitWriter::close);
+    }
+}
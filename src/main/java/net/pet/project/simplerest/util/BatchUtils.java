@@ -0,0 +1,34 @@
+package net.pet.project.simplerest.util;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Utils for work with batches
+ * @author VN
+ */
+@UtilityClass
+public class BatchUtils {
+
+    /**
+     * Max count of parameters in one IN clause
+     */
+    public static final int MAX_IN_SIZE = 1000;
+
+    /**
+     * Split collection to consecutive sublists with size {@code size} (last sublist may be smaller)
+     */
+    public static <X> List<List<X>> partition(final Collection<X> collection, final int size) {
+        Assert.isTrue(size > 0, "size must be greater than 0");
+        List<X> list = collection instanceof List ? (List<X>) collection : new ArrayList<>(collection);
+        List<List<X>> result = new ArrayList<>((list.size() + size - 1) / size);
+        for (int i = 0; i < list.size(); i += size) {
+            result.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return result;
+    }
+}
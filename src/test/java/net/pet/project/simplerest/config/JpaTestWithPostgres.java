@@ -1,7 +1,9 @@
 package net.pet.project.simplerest.config;
 
 import net.pet.project.simplerest.config.jpa.PostgresContainerInitializer;
+import net.pet.project.simplerest.configuration.jpa.JpaConfig;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ContextConfiguration;
 
 import java.lang.annotation.ElementType;
@@ -16,6 +18,7 @@ import java.lang.annotation.Target;
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 @DataJpaTest
+@Import(JpaConfig.class)
 @ContextConfiguration(initializers = PostgresContainerInitializer.class)
 public @interface JpaTestWithPostgres {
 }
\ No newline at end of file
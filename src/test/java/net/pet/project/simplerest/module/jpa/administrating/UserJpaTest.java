@@ -1,9 +1,16 @@
 package net.pet.project.simplerest.module.jpa.administrating;
 
 import net.pet.project.simplerest.config.JpaTestWithPostgres;
+import net.pet.project.simplerest.dto.administrating.UserDto;
+import net.pet.project.simplerest.mapper.administrating.UserMapper;
 import net.pet.project.simplerest.model.administrating.User;
 import net.pet.project.simplerest.module.jpa.AbstractJpaTest;
 import net.pet.project.simplerest.repository.administrating.UserRepository;
+import net.pet.project.simplerest.repository.copy.CopyFormat;
+import net.pet.project.simplerest.repository.filter.Filter;
+import net.pet.project.simplerest.repository.filter.FilterSpecification;
+import net.pet.project.simplerest.repository.keyset.KeysetPage;
+import net.pet.project.simplerest.repository.keyset.KeysetRequest;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,14 +21,24 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
 import javax.validation.ConstraintViolationException;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static net.pet.project.simplerest.util.ConstraintViolationUtils.getFirstMessage;
 import static net.pet.project.simplerest.util.TestData.createValidUserWithoutId;
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 
 @ExtendWith(SpringExtension.class)
@@ -54,6 +71,15 @@ public class UserJpaTest extends AbstractJpaTest {
                         () -> assertThat(repository.count()).isEqualTo(1),
                         () -> assertThat(repository.existsById(inDB.getId())).isTrue());
             }
+
+            @Test
+            @DisplayName("create valid User => id is taken from block that starts at value of pooled-lo sequence")
+            public void save_withoutId_idFromPooledLoBlock() {
+                User inDB = repository.saveAndFlush(createValidUserWithoutId());
+                long sequenceValue = query("SELECT last_value FROM s_users_seq", Long.class);
+
+                assertThat(inDB.getId()).isBetween(sequenceValue, sequenceValue + 49);
+            }
         }
 
         @Nested
@@ -126,6 +152,71 @@ public class UserJpaTest extends AbstractJpaTest {
         }
     }
 
+    @Nested
+    @DisplayName("deleteInOneStatement(id)")
+    class DeleteInOneStatement {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("deleteInOneStatement(id) => delete from DB and return 1")
+            public void deleteInOneStatement_idExist_deleteFromDB() {
+                User user = repository.saveAndFlush(createValidUserWithoutId());
+
+                int actual = repository.deleteInOneStatement(user.getId());
+
+                assertAll(() -> assertThat(actual).isEqualTo(1),
+                        () -> assertThat(countRowInTable("users")).isEqualTo(0));
+            }
+
+            @Test
+            @DisplayName("deleteInOneStatement(id not exist) => return 0")
+            public void deleteInOneStatement_idNotExist_returnZero() {
+                assertThat(repository.deleteInOneStatement(1L)).isEqualTo(0);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("copyOut(attributes, format, out)")
+    class CopyOut {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("copyOut([login, id], CSV) => csv with header, rows ordered by id")
+            public void copyOut_csv_writeHeaderAndRowsOrderedById() {
+                User first = repository.saveAndFlush(createValidUserWithoutId());
+                User second = createValidUserWithoutId();
+                second.setLogin("second");
+                repository.saveAndFlush(second);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                long actual = repository.copyOut(List.of("login", "id"), CopyFormat.CSV, out);
+
+                assertAll(() -> assertThat(actual).isEqualTo(2),
+                        () -> assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                                "login,id\n" + first.getLogin() + "," + first.getId() + "\nsecond," + second.getId() + "\n"));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("copyOut(empty attributes) => IllegalArgumentException")
+            public void copyOut_emptyAttributes_throwException() {
+                Assertions.assertThrows(IllegalArgumentException.class,
+                        () -> repository.copyOut(List.of(), CopyFormat.CSV, new ByteArrayOutputStream()));
+            }
+        }
+    }
+
     @Nested
     @DisplayName("findByLogin(login)")
     class FindByLogin {
@@ -155,4 +246,273 @@ public class UserJpaTest extends AbstractJpaTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("findAll(keyset)")
+    class FindAllByKeyset {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("findAll(keyset by login) => pages without duplicates and gaps")
+            public void findAll_sortByLogin_returnAllRowsByPages() {
+                IntStream.range(0, 5).forEach(i -> {
+                    User user = createValidUserWithoutId();
+                    user.setLogin("user" + (4 - i));
+                    repository.saveAndFlush(user);
+                });
+                KeysetRequest.KeysetRequestBuilder request = KeysetRequest.builder()
+                        .size(2)
+                        .order(Sort.Order.asc("login"));
+
+                KeysetPage<User> first = repository.findAll(request.withCount(true).build());
+                KeysetPage<User> second = repository.findAll(request.withCount(false).after(first.getNext()).build());
+                KeysetPage<User> last = repository.findAll(request.after(second.getNext()).build());
+
+                assertAll(() -> assertThat(first.getContent().stream().map(User::getLogin).collect(toList()))
+                                .containsExactly("user0", "user1"),
+                        () -> assertThat(first.getTotal()).isEqualTo(5),
+                        () -> assertThat(second.getContent().stream().map(User::getLogin).collect(toList()))
+                                .containsExactly("user2", "user3"),
+                        () -> assertThat(second.getTotal()).isNull(),
+                        () -> assertThat(last.getContent().stream().map(User::getLogin).collect(toList()))
+                                .containsExactly("user4"),
+                        () -> assertThat(last.getNext()).isNull());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("findAll(page, projection)")
+    class FindAllByProjection {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("findAll(page by login, UserMapper.PROJECTION) => page of dto without password")
+            public void findAll_withProjection_returnDtoPage() {
+                IntStream.range(0, 3).forEach(i -> {
+                    User user = createValidUserWithoutId();
+                    user.setLogin("user" + (2 - i));
+                    repository.saveAndFlush(user);
+                });
+
+                Page<UserDto> page = repository.findAll(PageRequest.of(0, 2, Sort.by("login")), UserMapper.PROJECTION);
+
+                assertAll(() -> assertThat(page.getContent()).extracting(UserDto::getLogin)
+                                .containsExactly("user0", "user1"),
+                        () -> assertThat(page.getContent()).extracting(UserDto::getPassword)
+                                .containsOnlyNulls(),
+                        () -> assertThat(page.getContent()).allMatch(UserDto::isActive),
+                        () -> assertThat(page.getTotalElements()).isEqualTo(3));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("findAllByIdAny(ids)")
+    class FindAllByIdAny {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("findAllByIdAny(existing ids + missing id) => only existing users")
+            public void findAllByIdAny_someIdsMissing_returnExistingUsers() {
+                List<Long> ids = IntStream.range(0, 3).mapToObj(i -> {
+                    User user = createValidUserWithoutId();
+                    user.setLogin("user" + i);
+                    return repository.saveAndFlush(user).getId();
+                }).collect(toList());
+
+                List<User> actual = repository.findAllByIdAny(List.of(ids.get(2), ids.get(0), -1L));
+
+                assertThat(actual).extracting(User::getId).containsExactlyInAnyOrder(ids.get(2), ids.get(0));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("findAll(spec, page, projection)")
+    class FindAllBySpecification {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("findAll(active:eq:true;login:prefix:adm_, page, UserMapper.PROJECTION) => only matching users")
+            public void findAll_withFilter_returnMatchingDtoPage() {
+                List.of("adm_1", "adm_2", "admin", "user").forEach(login -> {
+                    User user = createValidUserWithoutId();
+                    user.setLogin(login);
+                    user.setActive(!"adm_2".equals(login));
+                    repository.saveAndFlush(user);
+                });
+
+                Page<UserDto> page = repository.findAll(
+                        new FilterSpecification<>(Filter.valueOf("active:eq:true;login:prefix:adm_")),
+                        PageRequest.of(0, 10, Sort.by("login")),
+                        UserMapper.PROJECTION);
+
+                assertAll(() -> assertThat(page.getContent()).extracting(UserDto::getLogin).containsExactly("adm_1"),
+                        () -> assertThat(page.getTotalElements()).isEqualTo(1));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("findAll(page, attributes)")
+    class FindAllByAttributes {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("findAll(page by login, [login, id]) => page of tuples with only login and id")
+            public void findAll_withAttributes_returnTuplePage() {
+                IntStream.range(0, 3).forEach(i -> {
+                    User user = createValidUserWithoutId();
+                    user.setLogin("user" + (2 - i));
+                    repository.saveAndFlush(user);
+                });
+
+                Page<Tuple> page = repository.findAll(PageRequest.of(0, 2, Sort.by("login")), List.of("login", "id"));
+
+                assertAll(() -> assertThat(page.getContent()).extracting(t -> t.get("login"))
+                                .containsExactly("user0", "user1"),
+                        () -> assertThat(page.getContent().get(0).getElements()).extracting(TupleElement::getAlias)
+                                .containsExactly("login", "id"),
+                        () -> assertThat(page.getTotalElements()).isEqualTo(3));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("updateReturning(user)")
+    class UpdateReturning {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("updateReturning(user exist) => update in DB and return user")
+            public void updateReturning_userExist_updateInDBAndReturnUser() {
+                User user = repository.saveAndFlush(createValidUserWithoutId());
+                entityManager().clear();
+                User changed = createValidUserWithoutId();
+                changed.setId(user.getId());
+                changed.setLogin("changed");
+
+                Optional<User> actual = repository.updateReturning(changed);
+
+                assertAll(() -> assertThat(actual.isPresent()).isTrue(),
+                        () -> assertThat(actual.get().getLogin()).isEqualTo("changed"),
+                        () -> assertThat(query("select login from users", String.class)).isEqualTo("changed"));
+            }
+
+            @Test
+            @DisplayName("updateReturning(user is managed) => return state of updated row, not managed entity")
+            public void updateReturning_userIsManaged_returnUpdatedState() {
+                User user = repository.saveAndFlush(createValidUserWithoutId());
+                User changed = createValidUserWithoutId();
+                changed.setId(user.getId());
+                changed.setLogin("changed");
+
+                Optional<User> actual = repository.updateReturning(changed);
+
+                assertAll(() -> assertThat(actual.map(User::getLogin)).contains("changed"),
+                        () -> assertThat(actual.map(User::getVersion)).contains(user.getVersion() + 1));
+            }
+
+            @Test
+            @DisplayName("updateReturning(user with version 0) => version is incremented by DB")
+            public void updateReturning_userExist_incrementVersion() {
+                User user = repository.saveAndFlush(createValidUserWithoutId());
+                entityManager().clear();
+                User changed = createValidUserWithoutId();
+                changed.setId(user.getId());
+
+                Optional<User> actual = repository.updateReturning(changed);
+
+                assertAll(() -> assertThat(actual.map(User::getVersion)).contains(user.getVersion() + 1),
+                        () -> assertThat(repository.findVersionById(user.getId())).contains(user.getVersion() + 1));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("updateReturning(user with outdated version) => return empty, dont update in DB")
+            public void updateReturning_versionChanged_returnEmpty() {
+                User user = repository.saveAndFlush(createValidUserWithoutId());
+                entityManager().clear();
+                User changed = createValidUserWithoutId();
+                changed.setId(user.getId());
+                changed.setLogin("changed");
+                changed.setVersion(user.getVersion() + 1);
+
+                Optional<User> actual = repository.updateReturning(changed);
+
+                assertAll(() -> assertThat(actual).isEmpty(),
+                        () -> assertThat(query("select login from users", String.class)).isEqualTo(user.getLogin()));
+            }
+
+            @Test
+            @DisplayName("updateReturning(user not exist) => return empty")
+            public void updateReturning_userNotExist_returnEmpty() {
+                User user = createValidUserWithoutId();
+                user.setId(1L);
+
+                Optional<User> actual = repository.updateReturning(user);
+
+                assertThat(actual.isPresent()).isFalse();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("findVersionById(id) / save(user without version)")
+    class Version {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("save(user without version) => version from DB is used and incremented")
+            public void save_userWithoutVersion_incrementVersion() {
+                User user = repository.saveAndFlush(createValidUserWithoutId());
+                entityManager().clear();
+                User changed = createValidUserWithoutId();
+                changed.setId(user.getId());
+                changed.setLogin("changed");
+
+                repository.saveAndFlush(changed);
+
+                assertAll(() -> assertThat(user.getVersion()).isZero(),
+                        () -> assertThat(repository.findVersionById(user.getId())).contains(1L));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("findVersionById(id not exist) => empty")
+            public void findVersionById_userNotExist_returnEmpty() {
+                assertThat(repository.findVersionById(-1L)).isEmpty();
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package net.pet.project.simplerest.module.jpa.cache;
+
+import net.pet.project.simplerest.config.JpaTestWithPostgres;
+import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.module.jpa.AbstractJpaTest;
+import net.pet.project.simplerest.repository.administrating.UserRepository;
+import net.pet.project.simplerest.service.administrating.UserService;
+import net.pet.project.simplerest.service.cache.CacheInvalidationBus;
+import net.pet.project.simplerest.service.cache.EntityCache;
+import net.pet.project.simplerest.service.cache.EntityCacheSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static net.pet.project.simplerest.util.TestData.createValidUserWithoutId;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second node is simulated by second {@link CacheInvalidationBus} with own cache and listener connection
+ */
+@ExtendWith(SpringExtension.class)
+@JpaTestWithPostgres
+@Import({UserService.class, CacheInvalidationBus.class})
+@TestPropertySource(properties = "simple-rest.cache.invalidation.enabled=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("JPA: CacheInvalidationBus")
+public class CacheInvalidationBusJpaTest extends AbstractJpaTest {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private CacheInvalidationBus bus;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CacheInvalidationBus otherNode;
+
+    private EntityCache<Long, User> otherNodeCache;
+
+    protected void cleanup() {
+        repository.deleteAll();
+    }
+
+    @BeforeEach
+    void startOtherNode() {
+        otherNodeCache = EntityCache.create("User", EntityCacheSettings.builder().maximumSize(100).build());
+        otherNode = new CacheInvalidationBus(jdbc, dataSourceProperties, "simple_rest_cache");
+        otherNode.subscribe("User", Long.class, otherNodeCache::evictAll, otherNodeCache::clear);
+        otherNode.start();
+        assertThat(await(() -> bus.isListening() && otherNode.isListening())).isTrue();
+    }
+
+    @AfterEach
+    void stopOtherNode() throws InterruptedException {
+        otherNode.stop();
+    }
+
+    @Test
+    @DisplayName("update(user) committed => user is evicted on other node")
+    public void update_whenCommitted_evictOnOtherNode() {
+        User user = repository.save(createValidUserWithoutId());
+        otherNodeCache.get(user.getId(), repository::findById);
+
+        user.setLogin("changed");
+        service.update(user);
+
+        assertThat(await(() -> !otherNodeCache.contains(user.getId()))).isTrue();
+    }
+
+    @Test
+    @DisplayName("delete(id) committed => user is evicted on other node")
+    public void delete_whenCommitted_evictOnOtherNode() {
+        User user = repository.save(createValidUserWithoutId());
+        otherNodeCache.get(user.getId(), repository::findById);
+
+        service.delete(user.getId());
+
+        assertThat(await(() -> !otherNodeCache.contains(user.getId()))).isTrue();
+    }
+
+    @Test
+    @DisplayName("create(user) committed => id is published to other node, its query cache is evicted")
+    public void create_whenCommitted_publishToOtherNode() {
+        List<Long> received = new CopyOnWriteArrayList<>();
+        otherNode.subscribe("User", Long.class, received::addAll, () -> { });
+
+        User user = service.create(createValidUserWithoutId());
+
+        assertThat(await(() -> received.contains(user.getId()))).isTrue();
+    }
+
+    @Test
+    @DisplayName("update(user) rolled back => user stays in cache on other node")
+    public void update_whenRolledBack_keepOnOtherNode() {
+        User rolledBack = repository.save(createValidUserWithoutId());
+        User other = createValidUserWithoutId();
+        other.setLogin("committed");
+        User committed = repository.save(other);
+        otherNodeCache.get(rolledBack.getId(), repository::findById);
+        otherNodeCache.get(committed.getId(), repository::findById);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            rolledBack.setLogin("changed");
+            service.update(rolledBack);
+            status.setRollbackOnly();
+        });
+        service.update(committed);
+
+        assertThat(await(() -> !otherNodeCache.contains(committed.getId()))).isTrue();
+        assertThat(otherNodeCache.contains(rolledBack.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("update(user) on other node => user is evicted from entity and second level caches, get returns update")
+    public void updateOnOtherNode_whenCommitted_getReturnsUpdated() {
+        User user = repository.save(createValidUserWithoutId());
+        service.get(user.getId());
+
+        // write of other node doesn't touch caches of this node
+        jdbc.update("update users set login = 'remote' where id = ?", user.getId());
+        otherNode.publish("User", List.of(user.getId()));
+
+        assertThat(await(() -> "remote".equals(service.get(user.getId()).getLogin()))).isTrue();
+    }
+
+    /**
+     * Wait until condition is true
+     * @return false if condition isn't true after timeout
+     */
+    private boolean await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,63 @@
+package net.pet.project.simplerest.module.jpa.cache;
+
+import net.pet.project.simplerest.config.JpaTestWithPostgres;
+import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.module.jpa.AbstractJpaTest;
+import net.pet.project.simplerest.repository.administrating.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static net.pet.project.simplerest.util.TestData.createValidUserWithoutId;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query cache of {@link UserRepository#findByLogin(String)} with native writes, every read is own transaction
+ */
+@ExtendWith(SpringExtension.class)
+@JpaTestWithPostgres
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("JPA: query cache")
+public class QueryCacheJpaTest extends AbstractJpaTest {
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    protected void cleanup() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("updateReturning(user) with concurrent read before commit => old result isn't cached after commit")
+    public void updateReturning_concurrentReadBeforeCommit_notCached() {
+        User user = repository.save(createValidUserWithoutId());
+        final String oldLogin = user.getLogin();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertThat(existLogin(transaction, oldLogin)).isTrue();
+
+        transaction.executeWithoutResult(status -> {
+            user.setLogin("changed");
+            repository.updateReturning(user);
+            // concurrent transaction reads committed state and could put it to query cache
+            assertThat(CompletableFuture.supplyAsync(() -> existLogin(transaction, oldLogin)).join()).isTrue();
+        });
+
+        assertThat(existLogin(transaction, oldLogin)).isFalse();
+        assertThat(existLogin(transaction, "changed")).isTrue();
+    }
+
+    private boolean existLogin(TransactionTemplate transaction, String login) {
+        return Boolean.TRUE.equals(transaction.execute(status -> repository.findByLogin(login).isPresent()));
+    }
+}
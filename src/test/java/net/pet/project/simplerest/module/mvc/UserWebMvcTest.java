@@ -1,10 +1,23 @@
 package net.pet.project.simplerest.module.mvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.pet.project.simplerest.configuration.CommonConfig;
 import net.pet.project.simplerest.controller.administrating.UserController;
 import net.pet.project.simplerest.dto.administrating.UserDto;
+import net.pet.project.simplerest.exception.IdempotencyKeyReusedException;
+import net.pet.project.simplerest.exception.NotFoundException;
+import net.pet.project.simplerest.exception.OverloadException;
+import net.pet.project.simplerest.exception.VersionConflictException;
+import net.pet.project.simplerest.mapper.administrating.UserMapper;
 import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.repository.copy.CopyFormat;
+import net.pet.project.simplerest.repository.filter.FilterSpecification;
+import net.pet.project.simplerest.repository.keyset.Keyset;
+import net.pet.project.simplerest.repository.keyset.KeysetPage;
+import net.pet.project.simplerest.repository.keyset.KeysetRequest;
 import net.pet.project.simplerest.service.administrating.UserService;
+import net.pet.project.simplerest.service.idempotency.IdempotencyService;
+import net.pet.project.simplerest.service.idempotency.IdempotentResult;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,37 +30,72 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static net.pet.project.simplerest.util.TestData.asJsonString;
 import static net.pet.project.simplerest.util.TestData.createValidUserDtoWithoutId;
 import static net.pet.project.simplerest.util.TestData.createValidUserWithId;
 import static net.pet.project.simplerest.util.TestData.createValidUserWithoutId;
-import static net.pet.project.simplerest.util.TestData.inPage;
+import static net.pet.project.simplerest.util.TestData.inTuple;
+import static net.pet.project.simplerest.util.TestData.withId;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
-@WebMvcTest(UserController.class)
+@WebMvcTest(value = UserController.class, properties = {
+        "simple-rest.write-behind.await-timeout=200ms",
+        "simple-rest.bulk.max-size=2"
+})
+@Import(CommonConfig.class)
 public class UserWebMvcTest {
 
     public static final String API_URL = "/api/v1/admin/user";
@@ -61,12 +109,15 @@ public class UserWebMvcTest {
     @MockBean
     UserService service;
 
+    @MockBean
+    IdempotencyService idempotencyService;
+
     @BeforeAll
     static void init() { }
 
     @BeforeEach
     void clearMock() {
-        reset(service);
+        reset(service, idempotencyService);
     }
 
     @Nested
@@ -118,6 +169,119 @@ public class UserWebMvcTest {
         }
     }
 
+    @Nested
+    @DisplayName("streamAll()")
+    class StreamAll {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @SuppressWarnings("unchecked")
+            @DisplayName("streamAll() => 200 ndjson {user}\\n{user}")
+            void streamAll_usersExistInDB_returnUserPerLine() throws Exception {
+                String expected = asJsonString(UserMapper.toDto(createValidUserWithId()));
+
+                doAnswer(invocation -> {
+                    Consumer<User> action = invocation.getArgument(1);
+                    action.accept(createValidUserWithId());
+                    action.accept(createValidUserWithId());
+                    return null;
+                }).when(service).streamAll(anyInt(), any(Consumer.class));
+
+                MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/all")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+                mockMvc.perform(asyncDispatch(result))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                        .andExpect(content().string(expected + "\n" + expected));
+                verify(service, never()).getAll();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("export(fields, format)")
+    class Export {
+
+        private static final String CSV = "id,login\n1,admin\n";
+
+        private void mockExport() {
+            doAnswer(invocation -> {
+                OutputStream out = invocation.getArgument(2);
+                out.write(CSV.getBytes(StandardCharsets.UTF_8));
+                return 1L;
+            }).when(service).export(anyCollection(), any(CopyFormat.class), any(OutputStream.class));
+        }
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("export() => 200 csv attachment, service.export(projection fields, CSV)")
+            void export_withoutFields_exportProjectionFieldsAsCsv() throws Exception {
+                mockExport();
+
+                MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/export"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+                mockMvc.perform(asyncDispatch(result))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                        .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"user.csv\""))
+                        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                        .andExpect(content().string(CSV));
+                verify(service, times(1)).export(eq(new LinkedHashSet<>(UserMapper.PROJECTION.getAttributes())),
+                        eq(CopyFormat.CSV), any(OutputStream.class));
+            }
+
+            @Test
+            @DisplayName("export(fields=id,login, format=BINARY, Accept-Encoding: gzip) => 200 gzip octet-stream")
+            void export_acceptGzip_returnCompressedBody() throws Exception {
+                mockExport();
+
+                MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/export?fields=id,login&format=BINARY")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+                byte[] body = mockMvc.perform(asyncDispatch(result))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_OCTET_STREAM))
+                        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                        .andReturn().getResponse().getContentAsByteArray();
+
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                    assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(CSV);
+                }
+                verify(service, times(1)).export(eq(new LinkedHashSet<>(List.of("id", "login"))),
+                        eq(CopyFormat.BINARY), any(OutputStream.class));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @DisplayName("export(fields not selectable or unknown format) => 400, dont call service.export")
+            @ParameterizedTest(name = "export({0}) => 400")
+            @ValueSource(strings = {"fields=password", "fields=id,unknown", "format=XML"})
+            void export_notSelectableFields_badRequest(String params) throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/export?" + params))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).export(anyCollection(), any(), any());
+            }
+        }
+    }
+
     @Nested
     @DisplayName("getPage(page)")
     class GetPage {
@@ -127,21 +291,22 @@ public class UserWebMvcTest {
         class Positive {
 
             @Test
-            @DisplayName("getAll(page) => service.getAll(page)")
+            @DisplayName("getPage(page) => service.getAll(null, page, projection)")
             void getPage_authorized_callGetAll() throws Exception {
-                when(service.getAll(any(Pageable.class))).thenReturn(Page.empty());
+                when(service.getAll(isNull(), any(Pageable.class), eq(UserMapper.PROJECTION))).thenReturn(Page.empty());
 
                 mockMvc.perform(MockMvcRequestBuilders.get(API_URL).accept(MediaType.APPLICATION_JSON))
                         .andDo(print())
                         .andExpect(status().isOk());
 
-                verify(service, times(1)).getAll(PageRequest.of(0, 10));
+                verify(service, times(1)).getAll(null, PageRequest.of(0, 10), UserMapper.PROJECTION);
+                verify(service, never()).getAll(any(Pageable.class));
             }
 
             @Test
             @DisplayName("getPage(null) when empty DB => 200 Page([])")
             void getPage_whenEmptyDBAndDefaultPage_returnEmptyPage() throws Exception {
-                when(service.getAll(any(Pageable.class))).thenReturn(Page.empty());
+                when(service.getAll(isNull(), any(Pageable.class), eq(UserMapper.PROJECTION))).thenReturn(Page.empty());
 
                 mockMvc.perform(MockMvcRequestBuilders.get(API_URL).accept(MediaType.APPLICATION_JSON))
                         .andDo(print())
@@ -156,8 +321,8 @@ public class UserWebMvcTest {
                 User expected = createValidUserWithId();
                 expected.setPassword(null);
 
-                when(service.getAll(any(Pageable.class))).thenReturn(inPage(createValidUserWithId()));
-                when(service.getAll()).thenReturn(singletonList(createValidUserWithId()));
+                when(service.getAll(isNull(), any(Pageable.class), eq(UserMapper.PROJECTION)))
+                        .thenReturn(new PageImpl<>(List.of(UserMapper.toDto(createValidUserWithId()))));
 
                 mockMvc.perform(MockMvcRequestBuilders.get(API_URL).accept(MediaType.APPLICATION_JSON))
                         .andDo(print())
@@ -166,6 +331,296 @@ public class UserWebMvcTest {
                         .andExpect(jsonPath("$.content", hasSize(1)))
                         .andExpect(jsonPath("$.content[0]").value(expected));
             }
+
+            @Test
+            @DisplayName("getPage(If-None-Match: ETag of the same page) => 304 without body")
+            void getPage_ifNoneMatchSamePage_notModified() throws Exception {
+                when(service.getAll(isNull(), any(Pageable.class), eq(UserMapper.PROJECTION)))
+                        .thenReturn(new PageImpl<>(List.of(UserMapper.toDto(createValidUserWithId()))));
+
+                String eTag = mockMvc.perform(MockMvcRequestBuilders.get(API_URL).accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(header().exists(HttpHeaders.ETAG))
+                        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isNotModified())
+                        .andExpect(content().string(""));
+            }
+
+            @Test
+            @DisplayName("getPage(filter=id:gt:1;login:prefix:adm) => service.getAll(filter specification, page, projection)")
+            void getPage_filterByIndexedFields_callGetAllWithSpecification() throws Exception {
+                when(service.getAll(any(), any(Pageable.class), eq(UserMapper.PROJECTION))).thenReturn(Page.empty());
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "?filter=id:gt:1;login:prefix:adm")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk());
+
+                verify(service, times(1))
+                        .getAll(argThat(spec -> spec instanceof FilterSpecification), eq(PageRequest.of(0, 10)),
+                                eq(UserMapper.PROJECTION));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @DisplayName("getPage(filter not allowed) => 400, dont call service.getAll(spec, page, projection)")
+            @ParameterizedTest(name = "getPage(filter={0}) => 400")
+            @ValueSource(strings = {"password:eq:secret", "active:eq:true", "id:prefix:1", "login:like:adm", "login", ":eq:admin"})
+            void getPage_filterNotAllowed_badRequest(String filter) throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "?filter=" + filter)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).getAll(any(), any(Pageable.class), eq(UserMapper.PROJECTION));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("getFieldsPage(fields, page)")
+    class GetFieldsPage {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("getFieldsPage(fields=login,id,login) => service.getAll(null, page, [login, id])")
+            void getFieldsPage_selectableFields_callGetAllWithoutDuplicates() throws Exception {
+                when(service.getAll(isNull(), any(Pageable.class), anyCollection())).thenReturn(Page.empty());
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "?fields=login,id,login")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk());
+
+                verify(service, times(1)).getAll(null, PageRequest.of(0, 10), new LinkedHashSet<>(List.of("login", "id")));
+                verify(service, never()).getAll(any(), any(Pageable.class), eq(UserMapper.PROJECTION));
+            }
+
+            @Test
+            @DisplayName("getFieldsPage(fields=id,login) => 200 Page([{id, login}])")
+            void getFieldsPage_usersExistInDB_returnOnlySelectedFields() throws Exception {
+                LinkedHashMap<String, Object> row = new LinkedHashMap<>();
+                row.put("id", 1L);
+                row.put("login", "admin");
+                when(service.getAll(isNull(), any(Pageable.class), anyCollection()))
+                        .thenReturn(new PageImpl<>(List.of(inTuple(row))));
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "?fields=id,login")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                        .andExpect(jsonPath("$.content", hasSize(1)))
+                        .andExpect(jsonPath("$.content[0].id").value(1))
+                        .andExpect(jsonPath("$.content[0].login").value("admin"))
+                        .andExpect(jsonPath("$.content[0].active").doesNotExist());
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @DisplayName("getFieldsPage(fields not selectable) => 400, dont call service.getAll(page, fields)")
+            @ParameterizedTest(name = "getFieldsPage(fields={0}) => 400")
+            @ValueSource(strings = {"password", "id,password", "unknown", ""})
+            void getFieldsPage_notSelectableFields_badRequest(String fields) throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "?fields=" + fields)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).getAll(any(), any(Pageable.class), anyCollection());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("getAllById(ids)")
+    class GetAllById {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("getAllById(ids=3,1,2) => 200 {items: [user3, user1], missing: [2]}")
+            void getAllById_someIdsMissing_returnItemsAndMissing() throws Exception {
+                when(service.getAllById(List.of(3L, 1L, 2L)))
+                        .thenReturn(List.of(withId(3L, createValidUserWithoutId()), withId(1L, createValidUserWithoutId())));
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "?ids=3,1,2")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.items[*].id").value(contains(3, 1)))
+                        .andExpect(jsonPath("$.missing").value(contains(2)));
+                verify(service, never()).get(anyLong());
+            }
+
+            @Test
+            @DisplayName("getAllByIdInBody([1, 2]) => 200 {items: [user1], missing: [2]}")
+            void getAllByIdInBody_someIdsMissing_returnItemsAndMissing() throws Exception {
+                when(service.getAllById(List.of(1L, 2L))).thenReturn(List.of(createValidUserWithId()));
+
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL + "/by-ids")
+                        .content("[1, 2]")
+                        .contentType(APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.items[*].id").value(contains(1)))
+                        .andExpect(jsonPath("$.missing").value(contains(2)));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("getAllByIdInBody([]) => 400, dont call service.getAllById(ids)")
+            void getAllByIdInBody_emptyIds_badRequest() throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL + "/by-ids")
+                        .content("[]")
+                        .contentType(APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).getAllById(anyCollection());
+            }
+
+            @Test
+            @DisplayName("getAllById(ids=1,2, fields=id) => 400, dont call service")
+            void getAllById_withFields_badRequest() throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "?ids=1,2&fields=id")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).getAllById(anyCollection());
+            }
+
+            @Test
+            @DisplayName("getAllById(ids=a) => 400, dont call service.getAllById(ids)")
+            void getAllById_malformedId_badRequest() throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "?ids=a")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).getAllById(anyCollection());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("getKeysetPage(after, count, page)")
+    class GetKeysetPage {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("getKeysetPage(sort=login) => service.getAll(keyset request sorted by login)")
+            void getKeysetPage_firstPage_callGetAll() throws Exception {
+                when(service.getAll(any(KeysetRequest.class))).thenReturn(new KeysetPage<>(emptyList(), null, null));
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/keyset?sort=login,desc&size=5")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk());
+
+                verify(service, times(1)).getAll(KeysetRequest.builder()
+                        .size(5)
+                        .order(Sort.Order.desc("login"))
+                        .build());
+            }
+
+            @Test
+            @DisplayName("getKeysetPage(after=token) => service.getAll(keyset request with sort from token)")
+            void getKeysetPage_withAfter_callGetAllWithKeyset() throws Exception {
+                Keyset after = new Keyset("login", Sort.Direction.ASC, "1", "admin");
+
+                when(service.getAll(any(KeysetRequest.class))).thenReturn(new KeysetPage<>(emptyList(), null, null));
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/keyset?count=true&after=" + after.encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk());
+
+                verify(service, times(1)).getAll(KeysetRequest.builder()
+                        .size(10)
+                        .order(Sort.Order.asc("login"))
+                        .after(after)
+                        .withCount(true)
+                        .build());
+            }
+
+            @Test
+            @DisplayName("getKeysetPage() => 200 {content: [user], next: token}")
+            void getKeysetPage_usersExistInDB_returnUsersAndNextToken() throws Exception {
+                User expected = createValidUserWithId();
+                expected.setPassword(null);
+                Keyset next = new Keyset("id", Sort.Direction.ASC, "1", "1");
+
+                when(service.getAll(any(KeysetRequest.class)))
+                        .thenReturn(new KeysetPage<>(singletonList(createValidUserWithId()), next, null));
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/keyset").accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                        .andExpect(jsonPath("$.content", hasSize(1)))
+                        .andExpect(jsonPath("$.content[0]").value(expected))
+                        .andExpect(jsonPath("$.next").value(next.encode()));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("getKeysetPage(after=malformed token) => 400, dont call service.getAll(request)")
+            void getKeysetPage_malformedAfter_badRequest() throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/keyset?after=bWFsZm9ybWVk")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).getAll(any(KeysetRequest.class));
+            }
+
+            @DisplayName("getKeysetPage(sort not sortable) => 400, dont call service.getAll(request)")
+            @ParameterizedTest(name = "getKeysetPage(sort={0}) => 400")
+            @ValueSource(strings = {"password", "active,desc", "unknown"})
+            void getKeysetPage_notSortableSort_badRequest(String sort) throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/keyset?sort=" + sort)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).getAll(any(KeysetRequest.class));
+            }
+
+            @Test
+            @DisplayName("getKeysetPage(after=token with not sortable property) => 400, dont call service.getAll(request)")
+            void getKeysetPage_afterWithNotSortableProperty_badRequest() throws Exception {
+                Keyset after = new Keyset("password", Sort.Direction.ASC, "1", "password");
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/keyset?after=" + after.encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).getAll(any(KeysetRequest.class));
+            }
         }
     }
 
@@ -178,17 +633,17 @@ public class UserWebMvcTest {
         class Positive {
 
             @Test
-            @DisplayName("get(id not null) => service.get(id)")
+            @DisplayName("get(id not null) => service.get(id, UserDto.class, mapper)")
             void get_idNotNull_callGet() throws Exception {
                 long id = 1L;
 
-                when(service.get(anyLong())).thenReturn(createValidUserWithId());
+                when(service.get(anyLong(), eq(UserDto.class), any())).thenReturn(UserMapper.toDto(createValidUserWithId()));
 
                 mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/" + id)
                         .accept(MediaType.APPLICATION_JSON))
                         .andDo(print())
                         .andExpect(status().isOk());
-                verify(service, times(1)).get(id);
+                verify(service, times(1)).get(eq(id), eq(UserDto.class), any());
             }
 
             @Test
@@ -197,7 +652,8 @@ public class UserWebMvcTest {
                 User expected = createValidUserWithId();
                 expected.setPassword(null);
 
-                when(service.get(expected.getId())).thenReturn(createValidUserWithId());
+                when(service.get(eq(expected.getId()), eq(UserDto.class), any()))
+                        .thenReturn(UserMapper.toDto(createValidUserWithId()));
 
                 mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/" + expected.getId())
                         .accept(MediaType.APPLICATION_JSON))
@@ -206,6 +662,75 @@ public class UserWebMvcTest {
                         .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                         .andExpect(jsonPath("$").value(expected));
             }
+
+            @Test
+            @DisplayName("get(id) of user with version 3 => 200 with ETag \"3\", dont query version")
+            void get_versionedUser_returnETag() throws Exception {
+                User user = createValidUserWithId();
+                user.setVersion(3L);
+
+                when(service.get(eq(user.getId()), eq(UserDto.class), any())).thenReturn(UserMapper.toDto(user));
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/" + user.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                        .andExpect(jsonPath("$.version").value(3));
+                verify(service, never()).findVersion(anyLong());
+            }
+
+            @Test
+            @DisplayName("get(id, If-None-Match: actual version) => 304 without body, dont call service.get(id)")
+            void get_ifNoneMatchActualVersion_notModified() throws Exception {
+                when(service.findVersion(1L)).thenReturn(Optional.of(3L));
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                        .andExpect(content().string(""));
+                verify(service, never()).get(anyLong(), eq(UserDto.class), any());
+            }
+
+            @Test
+            @DisplayName("get(id, If-None-Match: old version) => 200 with ETag of actual version")
+            void get_ifNoneMatchOldVersion_returnUser() throws Exception {
+                User user = createValidUserWithId();
+                user.setVersion(4L);
+
+                when(service.findVersion(user.getId())).thenReturn(Optional.of(4L));
+                when(service.get(eq(user.getId()), eq(UserDto.class), any())).thenReturn(UserMapper.toDto(user));
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/" + user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                        .andExpect(jsonPath("$.version").value(4));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("get(id) when service is overloaded => 503 with Retry-After")
+            void get_overloaded_serviceUnavailable() throws Exception {
+                when(service.get(eq(1L), eq(UserDto.class), any()))
+                        .thenThrow(new OverloadException("read", 10, Duration.ofMillis(1500)));
+
+                mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/1")
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                        .andExpect(jsonPath("$.type").value("OVERLOADED"));
+            }
         }
     }
 
@@ -251,12 +776,130 @@ public class UserWebMvcTest {
                         .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                         .andExpect(jsonPath("$").value(expected));
             }
+
+            @Test
+            @DisplayName("create(valid user) when write-behind => service.createAsync(user), 200 {user with id}")
+            void create_writeBehind_callCreateAsync() throws Exception {
+                when(service.isWriteBehind()).thenReturn(true);
+                when(service.createAsync(createValidUserWithoutId()))
+                        .thenReturn(CompletableFuture.completedFuture(createValidUserWithId()));
+
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL)
+                        .content(asJsonString(createValidUserDtoWithoutId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id").value(1));
+                verify(service, never()).create(any());
+            }
+
+            @Test
+            @DisplayName("create(valid user) when write-behind isn't committed in await-timeout => 503 with Retry-After")
+            void create_writeBehindTimeout_serviceUnavailable() throws Exception {
+                when(service.isWriteBehind()).thenReturn(true);
+                when(service.createAsync(createValidUserWithoutId())).thenReturn(new CompletableFuture<>());
+
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL)
+                        .content(asJsonString(createValidUserDtoWithoutId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                        .andExpect(jsonPath("$.type").value("OVERLOADED"));
+            }
+
+            @Test
+            @SuppressWarnings("unchecked")
+            @DisplayName("create(user, Idempotency-Key: new key) => service.create(user) in idempotencyService.execute")
+            void create_newIdempotencyKey_callCreateOnce() throws Exception {
+                when(service.create(createValidUserWithoutId())).thenReturn(createValidUserWithId());
+                when(idempotencyService.execute(eq("POST " + API_URL + " key-1"), any(), eq(UserDto.class), any(), any()))
+                        .thenAnswer(invocation -> IdempotentResult.executed(
+                                invocation.<Supplier<UserDto>>getArgument(3).get(), null));
+
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL)
+                        .content(asJsonString(createValidUserDtoWithoutId()))
+                        .header(IdempotencyService.IDEMPOTENCY_KEY, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(header().doesNotExist(IdempotencyService.IDEMPOTENT_REPLAYED))
+                        .andExpect(jsonPath("$.id").value(1));
+                verify(service, times(1)).create(createValidUserWithoutId());
+                verify(idempotencyService, times(1)).hash(createValidUserDtoWithoutId());
+            }
+
+            @Test
+            @DisplayName("create(user, Idempotency-Key: used key) => 200 {stored user} with stored ETag, dont call service.create(user)")
+            void create_usedIdempotencyKey_replayStoredResponse() throws Exception {
+                UserDto stored = UserMapper.toDto(withId(7L, createValidUserWithoutId()));
+
+                when(idempotencyService.execute(eq("POST " + API_URL + " key-1"), any(), eq(UserDto.class), any(), any()))
+                        .thenReturn(IdempotentResult.replayed(stored, "\"0\""));
+
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL)
+                        .content(asJsonString(createValidUserDtoWithoutId()))
+                        .header(IdempotencyService.IDEMPOTENCY_KEY, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                        .andExpect(header().string(IdempotencyService.IDEMPOTENT_REPLAYED, "true"))
+                        .andExpect(jsonPath("$.id").value(7));
+                verify(service, never()).create(any());
+            }
         }
 
         @Nested
         @DisplayName("- negative")
         class Negative {
 
+            @Test
+            @DisplayName("create(user, Idempotency-Key: key used for another user) => 422")
+            void create_idempotencyKeyReused_unprocessableEntity() throws Exception {
+                when(idempotencyService.execute(any(), any(), eq(UserDto.class), any(), any()))
+                        .thenThrow(new IdempotencyKeyReusedException("key-1"));
+
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL)
+                        .content(asJsonString(createValidUserDtoWithoutId()))
+                        .header(IdempotencyService.IDEMPOTENCY_KEY, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().is(422))
+                        .andExpect(jsonPath("$.type").value("DATA_CONFLICT"));
+                verify(service, never()).create(any());
+            }
+
+            @Test
+            @DisplayName("create(user, Idempotency-Key longer than 255) => 400, dont call service.create(user)")
+            void create_tooLongIdempotencyKey_badRequest() throws Exception {
+                assertIdempotencyKeyRejected("k".repeat(256));
+            }
+
+            @DisplayName("create(user, blank Idempotency-Key) => 400, dont call service.create(user)")
+            @ParameterizedTest(name = "create(user, Idempotency-Key: \"{0}\") => 400")
+            @ValueSource(strings = {" ", "\t"})
+            void create_blankIdempotencyKey_badRequest(String key) throws Exception {
+                assertIdempotencyKeyRejected(key);
+            }
+
+            private void assertIdempotencyKeyRejected(String key) throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL)
+                        .content(asJsonString(createValidUserDtoWithoutId()))
+                        .header(IdempotencyService.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(idempotencyService, never()).execute(any(), any(), any(), any(), any());
+                verify(service, never()).create(any());
+            }
+
             @DisplayName("create(invalid user) => dont call service.create(user)")
             @ParameterizedTest(name = "create(\"{0}\") => dont call service.create(user)")
             @ValueSource(strings = {"", "{}", "{car:\"car\"}"})
@@ -314,6 +957,54 @@ public class UserWebMvcTest {
                 verify(service, times(1)).update(expected);
             }
 
+            @Test
+            @DisplayName("update(id, user, If-Match: \"3\") => service.update(user with version 3), 200 with ETag \"4\"")
+            void update_ifMatch_callUpdateWithVersion() throws Exception {
+                User expected = createValidUserWithId();
+                expected.setVersion(3L);
+                User updated = createValidUserWithId();
+                updated.setVersion(4L);
+                final UserDto userDto = createValidUserDtoWithoutId();
+                userDto.setId(expected.getId());
+
+                when(service.update(expected)).thenReturn(updated);
+
+                mockMvc.perform(MockMvcRequestBuilders.put(API_URL + "/1")
+                        .content(asJsonString(userDto))
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+                verify(service, times(1)).update(expected);
+            }
+
+            @Test
+            @DisplayName("update(id, user, Idempotency-Key: used key) => 200 with ETag of stored user, dont call service.update(user)")
+            void update_usedIdempotencyKey_replayStoredResponse() throws Exception {
+                User updated = createValidUserWithId();
+                updated.setVersion(4L);
+                final UserDto userDto = createValidUserDtoWithoutId();
+                userDto.setId(1L);
+
+                when(idempotencyService.hash(userDto, "\"3\"")).thenReturn("hash");
+                when(idempotencyService.execute(eq("PUT " + API_URL + "/1 key-1"), eq("hash"), eq(UserDto.class), any(), any()))
+                        .thenReturn(IdempotentResult.replayed(UserMapper.toDto(updated), "\"4\""));
+
+                mockMvc.perform(MockMvcRequestBuilders.put(API_URL + "/1")
+                        .content(asJsonString(userDto))
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .header(IdempotencyService.IDEMPOTENCY_KEY, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                        .andExpect(header().string(IdempotencyService.IDEMPOTENT_REPLAYED, "true"));
+                verify(service, never()).update(any());
+            }
+
             @Test
             @DisplayName("update(id, valid user) => 200 {user with id}")
             void update_isValid_jsonUpdatedUserInBody() throws Exception {
@@ -368,6 +1059,79 @@ public class UserWebMvcTest {
                         .andExpect(status().is(422));
                 verify(service, never()).update(any());
             }
+
+            @Test
+            @DisplayName("update(id, user, If-Match: outdated version) => 412")
+            void update_versionChanged_preconditionFailed() throws Exception {
+                User expected = createValidUserWithId();
+                expected.setVersion(3L);
+                final UserDto userDto = createValidUserDtoWithoutId();
+                userDto.setId(expected.getId());
+
+                when(service.update(expected)).thenThrow(new VersionConflictException(expected.getId(), 3L));
+
+                mockMvc.perform(MockMvcRequestBuilders.put(API_URL + "/1")
+                        .content(asJsonString(userDto))
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isPreconditionFailed())
+                        .andExpect(jsonPath("$.type").value("DATA_CONFLICT"));
+            }
+
+            @Test
+            @DisplayName("update(id not exist, user) => 400")
+            void update_idNotExist_badRequest() throws Exception {
+                final UserDto userDto = createValidUserDtoWithoutId();
+                userDto.setId(1L);
+
+                when(service.update(any())).thenThrow(new NotFoundException(1L));
+
+                mockMvc.perform(MockMvcRequestBuilders.put(API_URL + "/1")
+                        .content(asJsonString(userDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.type").value("APP_ERROR"));
+            }
+
+            @Test
+            @DisplayName("update(id not exist, user) when write-behind => 400")
+            void update_writeBehindIdNotExist_badRequest() throws Exception {
+                final UserDto userDto = createValidUserDtoWithoutId();
+                userDto.setId(1L);
+
+                when(service.isWriteBehind()).thenReturn(true);
+                when(service.updateAsync(any())).thenReturn(CompletableFuture.failedFuture(new NotFoundException(1L)));
+
+                mockMvc.perform(MockMvcRequestBuilders.put(API_URL + "/1")
+                        .content(asJsonString(userDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.type").value("APP_ERROR"));
+                verify(service, never()).update(any());
+            }
+
+            @DisplayName("update(id, user, malformed If-Match) => 400, dont call service.update(user)")
+            @ParameterizedTest(name = "update(id, user, If-Match: {0}) => 400")
+            @ValueSource(strings = {"3", "W/\"3\"", "\"abc\"", "\"\""})
+            void update_malformedIfMatch_badRequest(String ifMatch) throws Exception {
+                final UserDto userDto = createValidUserDtoWithoutId();
+                userDto.setId(1L);
+
+                mockMvc.perform(MockMvcRequestBuilders.put(API_URL + "/1")
+                        .content(asJsonString(userDto))
+                        .header(HttpHeaders.IF_MATCH, ifMatch)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).update(any());
+            }
         }
     }
 
@@ -395,7 +1159,8 @@ public class UserWebMvcTest {
             void delete_idNotNull_isOkStatus() throws Exception {
                 User expected = createValidUserWithId();
 
-                when(service.get(expected.getId())).thenReturn(createValidUserWithId());
+                when(service.get(eq(expected.getId()), eq(UserDto.class), any()))
+                        .thenReturn(UserMapper.toDto(createValidUserWithId()));
                 mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/" + expected.getId())
                         .accept(MediaType.APPLICATION_JSON))
                         .andDo(print())
@@ -403,4 +1168,127 @@ public class UserWebMvcTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("createAll(users)")
+    class CreateAll {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("createAll([valid user]) => 200 [user with id]")
+            void createAll_isValid_callCreateAll() throws Exception {
+                User expected = createValidUserWithId();
+                expected.setPassword(null);
+
+                when(service.createAll(List.of(createValidUserWithoutId()))).thenReturn(List.of(createValidUserWithId()));
+
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL + "/bulk")
+                        .content(asJsonString(List.of(createValidUserDtoWithoutId())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$", hasSize(1)))
+                        .andExpect(jsonPath("$[0]").value(expected));
+                verify(service, times(1)).createAll(List.of(createValidUserWithoutId()));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("createAll([valid user, user with blank login]) => 422, dont call service.createAll(users)")
+            void createAll_oneIsInvalid_dontCallCreateAll() throws Exception {
+                UserDto invalid = createValidUserDtoWithoutId();
+                invalid.setLogin(" ");
+
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL + "/bulk")
+                        .content(asJsonString(List.of(createValidUserDtoWithoutId(), invalid)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().is(422))
+                        .andExpect(jsonPath("$.details", hasItem("items[1].login: must not be blank")));
+                verify(service, never()).createAll(any());
+            }
+
+            @Test
+            @DisplayName("createAll([3 users]) with max size 2 => 400, dont call service.createAll(users)")
+            void createAll_greaterThanMaxSize_dontCallCreateAll() throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.post(API_URL + "/bulk")
+                        .content(asJsonString(List.of(createValidUserDtoWithoutId(), createValidUserDtoWithoutId(),
+                                createValidUserDtoWithoutId())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).createAll(any());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("updateAll(users)")
+    class UpdateAll {
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("updateAll([3 users]) with max size 2 => 400, dont call service.updateAll(users)")
+            void updateAll_greaterThanMaxSize_dontCallUpdateAll() throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.put(API_URL + "/bulk")
+                        .content(asJsonString(List.of(createValidUserDtoWithoutId(), createValidUserDtoWithoutId(),
+                                createValidUserDtoWithoutId())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).updateAll(any());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("deleteAll(ids)")
+    class DeleteAll {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("deleteAll([ids]) => service.deleteAll(ids)")
+            void deleteAll_idsNotNull_callDeleteAll() throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.delete(API_URL + "/bulk")
+                        .content("[1, 2]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk());
+                verify(service, times(1)).deleteAll(List.of(1L, 2L));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("deleteAll([3 ids]) with max size 2 => 400, dont call service.deleteAll(ids)")
+            void deleteAll_greaterThanMaxSize_dontCallDeleteAll() throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders.delete(API_URL + "/bulk")
+                        .content("[1, 2, 3]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest());
+                verify(service, never()).deleteAll(any());
+            }
+        }
+    }
+}
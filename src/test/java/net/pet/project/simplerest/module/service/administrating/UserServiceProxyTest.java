@@ -0,0 +1,132 @@
+package net.pet.project.simplerest.module.service.administrating;
+
+import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.repository.administrating.UserRepository;
+import net.pet.project.simplerest.service.administrating.UserService;
+import net.pet.project.simplerest.service.cache.SingleFlight;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.pet.project.simplerest.util.TestData.createValidUserWithId;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+/**
+ * Service is called through transactional proxy, as in application
+ */
+@DisplayName("Module: UserService through transactional proxy")
+@SpringJUnitConfig(UserServiceProxyTest.Config.class)
+public class UserServiceProxyTest {
+
+    private static final String LOGIN = "admin";
+
+    @Configuration
+    @EnableTransactionManagement(proxyTargetClass = true)
+    static class Config {
+
+        @Bean
+        UserRepository userRepository() {
+            return mock(UserRepository.class);
+        }
+
+        @Bean
+        UserService userService(UserRepository userRepository) {
+            return new UserService(userRepository);
+        }
+
+        /**
+         * Real transactions over mock of connection: transaction that isn't started by service isn't active
+         */
+        @Bean
+        PlatformTransactionManager transactionManager() throws SQLException {
+            DataSource dataSource = mock(DataSource.class);
+            when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+            return new DataSourceTransactionManager(dataSource);
+        }
+    }
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void init() {
+        reset(repository);
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("findByLogin(login), getByLogin(login) by concurrent callers => one repository.findByLogin(login)")
+    public void findByLogin_concurrentCalls_callRepositoryOnce() throws Exception {
+        User user = createValidUserWithId();
+        when(repository.findByLogin(LOGIN)).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user);
+        });
+
+        Future<Optional<User>> first = executor.submit(() -> service.findByLogin(LOGIN));
+        awaitCalls(1);
+        Future<User> second = executor.submit(() -> service.getByLogin(LOGIN));
+        awaitCalls(2);
+        release.countDown();
+
+        assertAll(
+                () -> assertThat(AopUtils.isAopProxy(service)).isTrue(),
+                () -> assertThat(first.get(5, TimeUnit.SECONDS)).containsSame(user),
+                () -> assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(user),
+                () -> assertThat(loads).hasValue(1)
+        );
+    }
+
+    private void awaitCalls(long calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (getLoginFlightCalls() < calls && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // caller that joined call waits on future right after increment of calls
+        Thread.sleep(20);
+    }
+
+    private long getLoginFlightCalls() {
+        return service.getSingleFlights().stream()
+                .filter(flight -> flight.getName().equals("User.byLogin"))
+                .mapToLong(SingleFlight::getCalls)
+                .sum();
+    }
+}
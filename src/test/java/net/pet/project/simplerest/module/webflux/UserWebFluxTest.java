@@ -0,0 +1,205 @@
+package net.pet.project.simplerest.module.webflux;
+
+import net.pet.project.simplerest.configuration.CommonConfig;
+import net.pet.project.simplerest.controller.reactive.administrating.ReactiveUserController;
+import net.pet.project.simplerest.exception.NotFoundException;
+import net.pet.project.simplerest.exception.VersionConflictException;
+import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.service.reactive.administrating.ReactiveUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static net.pet.project.simplerest.util.TestData.createValidUserDtoWithoutId;
+import static net.pet.project.simplerest.util.TestData.createValidUserWithId;
+import static net.pet.project.simplerest.util.TestData.withId;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(ReactiveUserController.class)
+@Import(CommonConfig.class)
+public class UserWebFluxTest {
+
+    public static final String API_URL = "/api/v1/admin/user";
+
+    @Autowired
+    WebTestClient client;
+
+    @MockBean
+    ReactiveUserService service;
+
+    @BeforeEach
+    void clearMock() {
+        reset(service);
+    }
+
+    private User versioned(long id, long version) {
+        User user = withId(id, createValidUserWithId());
+        user.setVersion(version);
+        return user;
+    }
+
+    @Nested
+    @DisplayName("get(id)")
+    class Get {
+
+        @Test
+        @DisplayName("get(id) of user with version 3 => 200 {user} with ETag \"3\"")
+        void get_versionedUser_returnETag() {
+            when(service.get(1L)).thenReturn(Mono.just(versioned(1L, 3L)));
+
+            client.get().uri(API_URL + "/1")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                    .expectBody()
+                    .jsonPath("$.id").isEqualTo(1)
+                    .jsonPath("$.version").isEqualTo(3)
+                    .jsonPath("$.password").doesNotExist();
+        }
+
+        @Test
+        @DisplayName("get(id, If-None-Match: actual version) => 304 without body")
+        void get_ifNoneMatchActualVersion_notModified() {
+            when(service.get(1L)).thenReturn(Mono.just(versioned(1L, 3L)));
+
+            client.get().uri(API_URL + "/1")
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isNotModified()
+                    .expectBody().isEmpty();
+        }
+
+        @Test
+        @DisplayName("get(id not exist) => 404")
+        void get_idNotExist_notFound() {
+            when(service.get(1L)).thenReturn(Mono.error(new NotFoundException(1L)));
+
+            client.get().uri(API_URL + "/1")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isNotFound()
+                    .expectBody().jsonPath("$.type").isEqualTo("DATA_NOT_FOUND");
+        }
+    }
+
+    @Nested
+    @DisplayName("getPage(page), streamAll()")
+    class GetAll {
+
+        @Test
+        @DisplayName("getPage(page=1, size=1, sort=login) => service.getAll(page), 200 Page([user])")
+        void getPage_callGetAllWithPage() {
+            Pageable page = PageRequest.of(1, 1, Sort.by("login"));
+            when(service.getAll(page)).thenReturn(Mono.just(new PageImpl<>(List.of(versioned(2L, 0L)), page, 3)));
+
+            client.get().uri(API_URL + "?page=1&size=1&sort=login")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.content[0].id").isEqualTo(2)
+                    .jsonPath("$.totalElements").isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("streamAll() => 200 ndjson {user}\\n{user}")
+        void streamAll_returnNdjson() {
+            when(service.streamAll(anyInt())).thenReturn(Flux.just(versioned(1L, 0L), versioned(2L, 0L)));
+
+            client.get().uri(API_URL + "/all")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                    .expectBodyList(User.class).hasSize(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("create(user), update(id, user), delete(id)")
+    class Change {
+
+        @Test
+        @DisplayName("create(user without login) => 422, dont call service.create(user)")
+        void create_loginIsBlank_unprocessableEntity() {
+            var dto = createValidUserDtoWithoutId();
+            dto.setLogin(" ");
+
+            client.post().uri(API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(dto)
+                    .exchange()
+                    .expectStatus().isEqualTo(422)
+                    .expectBody().jsonPath("$.type").isEqualTo("VALIDATION_ERROR");
+            verify(service, never()).create(any());
+        }
+
+        @Test
+        @DisplayName("update(id, user, If-Match: \"3\") => service.update(user with version 3), 200 with ETag \"4\"")
+        void update_ifMatch_callUpdateWithVersion() {
+            User expected = versioned(1L, 3L);
+            expected.setPassword(createValidUserDtoWithoutId().getPassword());
+            User updated = versioned(1L, 4L);
+            when(service.update(any())).thenReturn(Mono.just(updated));
+
+            client.put().uri(API_URL + "/1")
+                    .header(HttpHeaders.IF_MATCH, "\"3\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(createValidUserDtoWithoutId())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+            verify(service).update(expected);
+        }
+
+        @Test
+        @DisplayName("update(id, user, If-Match: outdated version) => 412")
+        void update_versionChanged_preconditionFailed() {
+            when(service.update(any())).thenReturn(Mono.error(new VersionConflictException(1L, 3L)));
+
+            client.put().uri(API_URL + "/1")
+                    .header(HttpHeaders.IF_MATCH, "\"3\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(createValidUserDtoWithoutId())
+                    .exchange()
+                    .expectStatus().isEqualTo(412)
+                    .expectBody().jsonPath("$.type").isEqualTo("DATA_CONFLICT");
+        }
+
+        @Test
+        @DisplayName("delete(id not exist) => 404")
+        void delete_idNotExist_notFound() {
+            when(service.delete(1L)).thenReturn(Mono.error(new NotFoundException(1L)));
+
+            client.delete().uri(API_URL + "/1")
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package net.pet.project.simplerest.unit.configuration.datasource;
+
+import net.pet.project.simplerest.configuration.datasource.ReadYourWrites;
+import net.pet.project.simplerest.configuration.datasource.ReadYourWritesFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Unit: ReadYourWritesFilter")
+public class ReadYourWritesFilterUnitTest {
+
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofMinutes(1));
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWrites, CLIENT_HEADER);
+
+    @BeforeEach
+    void init() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clear() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("doFilter(request with client header) => write of client is remembered")
+    public void doFilter_withClientHeader_rememberWrite() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(CLIENT_HEADER, "client-1");
+
+        assertThat(writeIsRemembered(request)).isTrue();
+    }
+
+    @Test
+    @DisplayName("doFilter(request without client header) => remote address isn't used as client")
+    public void doFilter_withoutClientHeader_dontUseRemoteAddress() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+
+        assertThat(writeIsRemembered(request)).isFalse();
+    }
+
+    private boolean writeIsRemembered(MockHttpServletRequest request) throws Exception {
+        AtomicBoolean remembered = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            readYourWrites.onWrite();
+            remembered.set(!TransactionSynchronizationManager.getSynchronizations().isEmpty());
+        });
+        return remembered.get();
+    }
+}
@@ -0,0 +1,118 @@
+package net.pet.project.simplerest.unit.configuration.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import net.pet.project.simplerest.configuration.datasource.ReadYourWrites;
+import net.pet.project.simplerest.configuration.datasource.ReplicaProperties.Balancing;
+import net.pet.project.simplerest.configuration.datasource.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Unit: ReplicaRoutingDataSource")
+public class ReplicaRoutingDataSourceUnitTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstReplicaConnection = mock(Connection.class);
+    private final Connection secondReplicaConnection = mock(Connection.class);
+
+    private DataSource primary;
+    private HikariDataSource firstReplica;
+    private HikariDataSource secondReplica;
+    private ReadYourWrites readYourWrites;
+
+    @BeforeEach
+    void init() throws SQLException {
+        primary = mock(DataSource.class);
+        firstReplica = mock(HikariDataSource.class);
+        secondReplica = mock(HikariDataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(firstReplica.getConnection()).thenReturn(firstReplicaConnection);
+        when(secondReplica.getConnection()).thenReturn(secondReplicaConnection);
+        readYourWrites = new ReadYourWrites(Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void clear() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        readYourWrites.clearClient();
+    }
+
+    @Test
+    @DisplayName("getConnection() without read-only transaction => primary")
+    public void getConnection_whenNotReadOnly_returnPrimary() throws SQLException {
+        ReplicaRoutingDataSource dataSource = create(Balancing.ROUND_ROBIN);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection() in read-only transaction, round robin => replicas by turn")
+    public void getConnection_whenReadOnlyRoundRobin_returnReplicasByTurn() throws SQLException {
+        ReplicaRoutingDataSource dataSource = create(Balancing.ROUND_ROBIN);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(List.of(dataSource.getConnection(), dataSource.getConnection(), dataSource.getConnection()))
+                .containsExactly(firstReplicaConnection, secondReplicaConnection, firstReplicaConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection() in read-only transaction, least connections => replica with less active connections")
+    public void getConnection_whenReadOnlyLeastConnections_returnLessLoadedReplica() throws SQLException {
+        HikariPoolMXBean busy = mock(HikariPoolMXBean.class);
+        HikariPoolMXBean idle = mock(HikariPoolMXBean.class);
+        when(busy.getActiveConnections()).thenReturn(5);
+        when(idle.getActiveConnections()).thenReturn(1);
+        when(firstReplica.getHikariPoolMXBean()).thenReturn(busy);
+        when(secondReplica.getHikariPoolMXBean()).thenReturn(idle);
+        ReplicaRoutingDataSource dataSource = create(Balancing.LEAST_CONNECTIONS);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection()).isSameAs(secondReplicaConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection() in read-only transaction after commit of the same client => primary")
+    public void getConnection_whenClientWroteInsideWindow_returnPrimary() throws SQLException {
+        ReplicaRoutingDataSource dataSource = create(Balancing.ROUND_ROBIN);
+        readYourWrites.setClient("client");
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        dataSource.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Connection sameClient = dataSource.getConnection();
+        readYourWrites.setClient("other");
+        Connection otherClient = dataSource.getConnection();
+
+        assertThat(sameClient).isSameAs(primaryConnection);
+        assertThat(otherClient).isSameAs(firstReplicaConnection);
+    }
+
+    private ReplicaRoutingDataSource create(Balancing balancing) {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(
+                primary, List.of(firstReplica, secondReplica), balancing, readYourWrites);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+}
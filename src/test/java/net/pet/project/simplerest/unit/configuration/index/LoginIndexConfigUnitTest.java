@@ -0,0 +1,41 @@
+package net.pet.project.simplerest.unit.configuration.index;
+
+import net.pet.project.simplerest.configuration.index.LoginIndexConfig;
+import net.pet.project.simplerest.configuration.index.LoginIndexProperties;
+import net.pet.project.simplerest.service.cache.CacheInvalidationBus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Unit: LoginIndexConfig")
+public class LoginIndexConfigUnitTest {
+
+    private final LoginIndexConfig config = new LoginIndexConfig();
+
+    @Test
+    @DisplayName("loginIndex(with invalidation bus) => index")
+    public void loginIndex_withInvalidationBus_createIndex() {
+        assertThat(config.loginIndex(new LoginIndexProperties(), invalidationBus(mock(CacheInvalidationBus.class))))
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("loginIndex(without invalidation bus) => IllegalStateException, application doesn't start")
+    public void loginIndex_withoutInvalidationBus_illegalState() {
+        assertThatThrownBy(() -> config.loginIndex(new LoginIndexProperties(), invalidationBus(null)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("simple-rest.cache.invalidation.enabled");
+    }
+
+    @SuppressWarnings("unchecked")
+    private ObjectProvider<CacheInvalidationBus> invalidationBus(CacheInvalidationBus bus) {
+        ObjectProvider<CacheInvalidationBus> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(bus);
+        return provider;
+    }
+}
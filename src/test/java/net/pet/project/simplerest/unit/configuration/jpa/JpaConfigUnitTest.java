@@ -0,0 +1,59 @@
+package net.pet.project.simplerest.unit.configuration.jpa;
+
+import net.pet.project.simplerest.configuration.jpa.IdGenerationProperties;
+import net.pet.project.simplerest.configuration.jpa.JpaConfig;
+import net.pet.project.simplerest.repository.id.EntityIdGenerator;
+import net.pet.project.simplerest.repository.id.IdGenerationStrategy;
+import net.pet.project.simplerest.repository.id.TimeBasedIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Unit: JpaConfig")
+public class JpaConfigUnitTest {
+
+    private final JpaConfig config = new JpaConfig();
+
+    @Test
+    @DisplayName("idGenerationCustomizer(TIME_BASED, node id 7) => time based generator")
+    public void idGenerationCustomizer_timeBasedWithNodeId_putGenerator() {
+        IdGenerationProperties properties = new IdGenerationProperties();
+        properties.setStrategy(IdGenerationStrategy.TIME_BASED);
+        properties.setNodeId(7L);
+        Map<String, Object> hibernateProperties = new HashMap<>();
+
+        config.idGenerationCustomizer(properties).customize(hibernateProperties);
+
+        assertThat(hibernateProperties)
+                .containsEntry(EntityIdGenerator.STRATEGY_SETTING, IdGenerationStrategy.TIME_BASED.name());
+        assertThat(hibernateProperties.get(EntityIdGenerator.TIME_BASED_GENERATOR_SETTING))
+                .isInstanceOf(TimeBasedIdGenerator.class);
+    }
+
+    @Test
+    @DisplayName("idGenerationCustomizer(TIME_BASED, without node id) => IllegalArgumentException")
+    public void idGenerationCustomizer_timeBasedWithoutNodeId_illegalArgument() {
+        IdGenerationProperties properties = new IdGenerationProperties();
+        properties.setStrategy(IdGenerationStrategy.TIME_BASED);
+
+        assertThatThrownBy(() -> config.idGenerationCustomizer(properties))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("node-id");
+    }
+
+    @Test
+    @DisplayName("idGenerationCustomizer(POOLED_LO, without node id) => without time based generator")
+    public void idGenerationCustomizer_pooledLoWithoutNodeId_noGenerator() {
+        IdGenerationProperties properties = new IdGenerationProperties();
+        Map<String, Object> hibernateProperties = new HashMap<>();
+
+        config.idGenerationCustomizer(properties).customize(hibernateProperties);
+
+        assertThat(hibernateProperties).doesNotContainKey(EntityIdGenerator.TIME_BASED_GENERATOR_SETTING);
+    }
+}
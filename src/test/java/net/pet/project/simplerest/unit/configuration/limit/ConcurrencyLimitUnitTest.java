@@ -0,0 +1,135 @@
+package net.pet.project.simplerest.unit.configuration.limit;
+
+import net.pet.project.simplerest.configuration.limit.ConcurrencyLimitInterceptor;
+import net.pet.project.simplerest.configuration.limit.ConcurrencyLimitProperties;
+import net.pet.project.simplerest.configuration.limit.GradientLimiter;
+import net.pet.project.simplerest.controller.administrating.UserController;
+import net.pet.project.simplerest.exception.OverloadException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Unit: concurrency limit")
+public class ConcurrencyLimitUnitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private GradientLimiter create(int initialLimit) {
+        return new GradientLimiter("test", new ConcurrencyLimitProperties.Limit(initialLimit, 2, 100));
+    }
+
+    private void fill(GradientLimiter limiter) {
+        while (limiter.tryAcquire()) {
+            // take all permits
+        }
+    }
+
+    @Test
+    @DisplayName("tryAcquire() when limit is reached => false, request is rejected")
+    public void tryAcquire_whenLimitReached_reject() {
+        GradientLimiter limiter = create(3);
+
+        assertAll(
+                () -> assertThat(IntStream.range(0, 3).allMatch(i -> limiter.tryAcquire())).isTrue(),
+                () -> assertThat(limiter.tryAcquire()).isFalse(),
+                () -> assertThat(limiter.getRejected()).isEqualTo(1),
+                () -> assertThat(limiter.getInFlight()).isEqualTo(3)
+        );
+    }
+
+    @Test
+    @DisplayName("onSuccess(rtt) when latency grows under full load => limit goes down, not below min limit")
+    public void onSuccess_whenLatencyGrows_decreaseLimit() {
+        GradientLimiter limiter = create(20);
+        for (int i = 0; i < 20; i++) {
+            fill(limiter);
+            limiter.onSuccess(FAST);
+        }
+        final int stable = limiter.getLimit();
+
+        for (int i = 0; i < 200; i++) {
+            fill(limiter);
+            limiter.onSuccess(SLOW);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(stable).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("onSuccess(rtt) when latency is stable under full load => limit grows up to max limit")
+    public void onSuccess_whenLatencyIsStable_increaseLimit() {
+        GradientLimiter limiter = create(10);
+
+        for (int i = 0; i < 500; i++) {
+            fill(limiter);
+            limiter.onSuccess(FAST);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("onSuccess(rtt) when less than half of limit is used => limit isn't changed")
+    public void onSuccess_whenLimitIsNotUsed_keepLimit() {
+        GradientLimiter limiter = create(10);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onSuccess(i % 2 == 0 ? FAST : SLOW);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("preHandle(GET of AbstractController) when read limit is reached => OverloadException, writes aren't limited")
+    public void preHandle_whenReadLimitReached_throwOverloadException() {
+        GradientLimiter read = create(2);
+        GradientLimiter write = create(2);
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(read, write, Duration.ofSeconds(2));
+        HandlerMethod handler = mock(HandlerMethod.class);
+        doReturn(UserController.class).when(handler).getBeanType();
+        fill(read);
+
+        assertThatThrownBy(() -> interceptor.preHandle(
+                new MockHttpServletRequest("GET", "/api/v1/users/1"), new MockHttpServletResponse(), handler))
+                .isInstanceOf(OverloadException.class)
+                .extracting("retryAfter").isEqualTo(Duration.ofSeconds(2));
+        assertThat(interceptor.preHandle(
+                new MockHttpServletRequest("PUT", "/api/v1/users/1"), new MockHttpServletResponse(), handler))
+                .isTrue();
+        assertThat(write.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("afterCompletion(request) => permit of request is returned")
+    public void afterCompletion_releasePermit() {
+        GradientLimiter read = create(2);
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(read, create(2), Duration.ofSeconds(1));
+        HandlerMethod handler = mock(HandlerMethod.class);
+        doReturn(UserController.class).when(handler).getBeanType();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, handler);
+        assertThat(read.getInFlight()).isEqualTo(1);
+        interceptor.afterCompletion(request, response, handler, null);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(read.getInFlight()).isZero();
+    }
+}
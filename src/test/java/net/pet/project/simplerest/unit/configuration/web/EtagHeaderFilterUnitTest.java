@@ -0,0 +1,52 @@
+package net.pet.project.simplerest.unit.configuration.web;
+
+import net.pet.project.simplerest.configuration.web.EtagHeaderFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Unit: EtagHeaderFilter")
+public class EtagHeaderFilterUnitTest {
+
+    private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private final EtagHeaderFilter filter = new EtagHeaderFilter(Set.of("/all", "/export"));
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/v1/admin/user/all", "/api/v1/admin/user/export"})
+    @DisplayName("doFilter(streaming path) => body is written to response as is, without ETag")
+    public void doFilter_streamingPath_notBuffered(String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", path), response, (req, res) -> {
+            res.getOutputStream().write(BODY);
+            // written body reaches response before end of request
+            assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+        });
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/v1/admin/user", "/api/v1/admin/user/1"})
+    @DisplayName("doFilter(other path) => ETag is hash of body")
+    public void doFilter_otherPath_etag(String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", path), response, (req, res) -> {
+            ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_OK);
+            res.getOutputStream().write(BODY);
+            assertThat(response.getContentAsByteArray()).isEmpty();
+        });
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+    }
+}
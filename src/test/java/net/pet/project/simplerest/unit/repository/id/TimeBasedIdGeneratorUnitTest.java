@@ -0,0 +1,67 @@
+package net.pet.project.simplerest.unit.repository.id;
+
+import net.pet.project.simplerest.repository.id.TimeBasedIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Unit: TimeBasedIdGenerator")
+public class TimeBasedIdGeneratorUnitTest {
+
+    private static final Instant EPOCH = Instant.parse("2021-01-01T00:00:00Z");
+
+    @Test
+    @DisplayName("nextId() from several threads => ids are unique, positive and contain node id")
+    public void nextId_concurrentCalls_uniqueIds() {
+        TimeBasedIdGenerator generator = new TimeBasedIdGenerator(7, EPOCH);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 4).parallel().forEach(t -> LongStream.range(0, 10_000).forEach(i -> ids.add(generator.nextId())));
+
+        assertThat(ids).hasSize(40_000).allMatch(id -> id > 0 && TimeBasedIdGenerator.getNodeId(id) == 7);
+    }
+
+    @Test
+    @DisplayName("nextId() when clock goes back or counter is exhausted => ids still grow")
+    public void nextId_clockGoesBack_idsGrow() {
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(EPOCH.plusSeconds(10));
+        when(clock.millis()).thenReturn(EPOCH.toEpochMilli() + 10_000, EPOCH.toEpochMilli() + 5_000);
+        TimeBasedIdGenerator generator = new TimeBasedIdGenerator(1, EPOCH, clock);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 5_000; i++) {
+            long next = generator.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    @DisplayName("nextId() of different nodes at the same time => different ids")
+    public void nextId_differentNodes_differentIds() {
+        Clock clock = Clock.fixed(EPOCH.plusSeconds(1), ZoneOffset.UTC);
+
+        assertThat(new TimeBasedIdGenerator(1, EPOCH, clock).nextId())
+                .isNotEqualTo(new TimeBasedIdGenerator(2, EPOCH, clock).nextId());
+    }
+
+    @Test
+    @DisplayName("new TimeBasedIdGenerator(node id > 1023) => IllegalArgumentException")
+    public void create_nodeIdOutOfRange_illegalArgument() {
+        assertThatThrownBy(() -> new TimeBasedIdGenerator(TimeBasedIdGenerator.MAX_NODE_ID + 1, EPOCH))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -2,9 +2,13 @@ package net.pet.project.simplerest.unit.service.administrating;
 
 import net.pet.project.simplerest.exception.ApplicationException;
 import net.pet.project.simplerest.exception.NotFoundException;
+import net.pet.project.simplerest.exception.ServiceException;
+import net.pet.project.simplerest.exception.VersionConflictException;
 import net.pet.project.simplerest.model.administrating.User;
 import net.pet.project.simplerest.repository.administrating.UserRepository;
 import net.pet.project.simplerest.service.administrating.UserService;
+import net.pet.project.simplerest.service.index.KeyIndex;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,8 +16,14 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
 import static net.pet.project.simplerest.util.TestData.createValidUserWithId;
@@ -22,8 +32,10 @@ import static net.pet.project.simplerest.util.TestData.withId;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -43,6 +55,11 @@ public class UserServiceUnitTest {
         service = new UserService(repository);
     }
 
+    private static DataIntegrityViolationException loginNotUnique() {
+        return new DataIntegrityViolationException("not unique",
+                new ConstraintViolationException("not unique", new SQLException(), User.LOGIN_UNIQUE_CONSTRAINT));
+    }
+
     @Nested
     @DisplayName("get(id)")
     class Get {
@@ -101,6 +118,41 @@ public class UserServiceUnitTest {
         }
     }
 
+    @Nested
+    @DisplayName("getAllById(ids)")
+    class GetAllById {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("getAllById([3, 1, 3, 2]) => one repository.findAllByIdAny([3, 1, 2]), users in order of ids")
+            public void getAllById_idsWithDuplicatesAndMissing_returnUsersInOrderOfIds() {
+                User first = withId(1L, createValidUserWithoutId());
+                User third = withId(3L, createValidUserWithoutId());
+
+                when(repository.findAllByIdAny(anyCollection())).thenReturn(List.of(first, third));
+                List<User> actual = service.getAllById(List.of(3L, 1L, 3L, 2L));
+
+                assertAll(() -> assertThat(actual).containsExactly(third, first),
+                        () -> verify(repository, times(1)).findAllByIdAny(new LinkedHashSet<>(List.of(3L, 1L, 2L))));
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("getAllById([]) => throw IllegalArgumentException, dont call repository")
+            public void getAllById_emptyIds_throwIllegalArgumentException() {
+                Assertions.assertThrows(IllegalArgumentException.class, () -> service.getAllById(List.of()));
+                verify(repository, never()).findAllByIdAny(anyCollection());
+            }
+        }
+    }
+
     @Nested
     @DisplayName("getByLogin(login)")
     class GetByLogin {
@@ -194,6 +246,39 @@ public class UserServiceUnitTest {
                 assertThat(actual.isEmpty()).isTrue();
                 verify(repository, times(1)).findByLogin(anyString());
             }
+
+            @Test
+            @DisplayName("findByLogin(login not in index) => return empty, dont call repository.findByLogin(login)")
+            public void findByLogin_whenLoginIsNotInIndex_dontCallRepository() {
+                KeyIndex index = new KeyIndex("login", 1_000, 0.01);
+                when(repository.findAllLogins()).thenReturn(List.of("admin"));
+                service.setLoginIndex(index);
+                service.rebuildLoginIndex();
+
+                Optional<User> actual = service.findByLogin("unknown");
+
+                assertThat(actual.isEmpty()).isTrue();
+                verify(repository, never()).findByLogin(anyString());
+            }
+
+            @Test
+            @DisplayName("create(user) with index => login is added to index, findByLogin(login) calls repository.findByLogin(login)")
+            public void findByLogin_whenLoginIsCreated_callRepository() {
+                KeyIndex index = new KeyIndex("login", 1_000, 0.01);
+                User entity = createValidUserWithoutId();
+                entity.setLogin("created");
+                when(repository.findAllLogins()).thenReturn(List.of());
+                User created = createValidUserWithId();
+                created.setLogin("created");
+                when(repository.save(entity)).thenReturn(created);
+                service.setLoginIndex(index);
+                service.rebuildLoginIndex();
+
+                service.create(entity);
+                service.findByLogin("created");
+
+                verify(repository, times(1)).findByLogin("created");
+            }
         }
     }
 
@@ -206,13 +291,16 @@ public class UserServiceUnitTest {
         class Positive {
 
             @Test
-            @DisplayName("create(valid user) => repository.save(user)")
+            @DisplayName("create(valid user) => only repository.save(user) and repository.flush(), without query of login")
             public void create_whenIsValid_callRepositorySave() {
                 User entity = createValidUserWithoutId();
 
+                when(repository.save(entity)).thenReturn(createValidUserWithId());
                 service.create(entity);
 
                 verify(repository, times(1)).save(entity);
+                verify(repository, times(1)).flush();
+                verify(repository, never()).findByLogin(anyString());
             }
 
             @Test
@@ -258,12 +346,12 @@ public class UserServiceUnitTest {
             public void create_whenLoginIsNotUnique_throwApplicationException() {
                 User entity = createValidUserWithoutId();
 
-                when(repository.findByLogin(entity.getLogin())).thenReturn(Optional.of(createValidUserWithId()));
+                doThrow(loginNotUnique()).when(repository).flush();
                 ApplicationException ex = Assertions.assertThrows(
                         ApplicationException.class, () -> service.create(entity));
 
                 assertThat(ex.getMessage()).isEqualTo(format("User with login '%s' already exist", entity.getLogin()));
-                verify(repository, never()).save(any());
+                assertThat(ex.getCause()).isInstanceOf(DataIntegrityViolationException.class);
             }
         }
     }
@@ -277,40 +365,28 @@ public class UserServiceUnitTest {
         class Positive {
 
             @Test
-            @DisplayName("update(valid User with exist id) => repository.save(user)")
-            public void update_whenIsValidAndIdExist_callRepositorySave() {
+            @DisplayName("update(valid User with exist id) => only repository.updateReturning(user)")
+            public void update_whenIsValidAndIdExist_callRepositoryUpdateReturning() {
                 User entity = createValidUserWithId();
 
-                when(repository.existsById(entity.getId())).thenReturn(true);
-                when(repository.save(entity)).thenReturn(entity);
+                when(repository.updateReturning(entity)).thenReturn(Optional.of(entity));
                 service.update(entity);
 
-                verify(repository, times(1)).save(entity);
+                verify(repository, times(1)).updateReturning(entity);
+                verify(repository, never()).existsById(anyLong());
+                verify(repository, never()).findByLogin(anyString());
+                verify(repository, never()).save(any());
             }
 
             @Test
             @DisplayName("update(valid User) => return User != null")
             public void update_whenIsValid_returnCreatedEntity() {
-                when(repository.save(createValidUserWithId())).thenReturn(createValidUserWithId());
-                when(repository.existsById(anyLong())).thenReturn(true);
+                when(repository.updateReturning(createValidUserWithId())).thenReturn(Optional.of(createValidUserWithId()));
                 User actual = service.update(createValidUserWithId());
 
                 assertAll(() -> assertThat(actual).isNotNull(),
                         () -> assertThat(actual).isEqualTo(createValidUserWithId()));
             }
-
-            @Test
-            @DisplayName("update(User login not changed) => not throw unique login validation ex")
-            public void update_whenByLoginFindSameEntity_notThrowIllegalArgumentException() {
-                User entity = createValidUserWithId();
-
-                when(repository.existsById(entity.getId())).thenReturn(true);
-                when(repository.findByLogin(entity.getLogin())).thenReturn(Optional.of(createValidUserWithId()));
-                when(repository.save(any(User.class))).thenReturn(entity);
-                service.update(entity);
-
-                verify(repository, times(1)).save(any());
-            }
         }
 
         @Nested
@@ -324,7 +400,7 @@ public class UserServiceUnitTest {
                         IllegalArgumentException.class, () -> service.update(null));
 
                 assertThat(ex.getMessage()).isEqualTo("User must not be null");
-                verify(repository, never()).save(any());
+                verify(repository, never()).updateReturning(any());
             }
 
             @Test
@@ -336,7 +412,35 @@ public class UserServiceUnitTest {
                         IllegalArgumentException.class, () -> service.update(entity));
 
                 assertThat(ex.getMessage()).isEqualTo("id must not be null");
-                verify(repository, never()).save(any());
+                verify(repository, never()).updateReturning(any());
+            }
+
+            @Test
+            @DisplayName("update(user not valid by validateBeforeUpdate) => throw exception, dont call repository.updateReturning")
+            public void update_whenValidationFails_dontCallUpdateReturning() {
+                UserService validating = new UserService(repository) {
+                    @Override
+                    protected User validateBeforeUpdate(User entity) {
+                        throw new ServiceException("not valid");
+                    }
+
+                    // generic types aren't resolved from anonymous class
+                    @Override
+                    protected Class<User> getEntityType() {
+                        return User.class;
+                    }
+
+                    @Override
+                    protected Class<Long> getIdType() {
+                        return Long.class;
+                    }
+                };
+
+                ServiceException ex = Assertions.assertThrows(
+                        ServiceException.class, () -> validating.update(createValidUserWithId()));
+
+                assertThat(ex.getMessage()).isEqualTo("not valid");
+                verify(repository, never()).updateReturning(any());
             }
 
             @Test
@@ -344,12 +448,37 @@ public class UserServiceUnitTest {
             public void update_whenIdNotExistInDB_throwNotFoundException() {
                 User entity = createValidUserWithId();
 
-                when(repository.existsById(entity.getId())).thenReturn(false);
+                when(repository.updateReturning(entity)).thenReturn(Optional.empty());
                 NotFoundException ex = Assertions.assertThrows(
                         NotFoundException.class, () -> service.update(entity));
 
                 assertThat(ex.getMessage()).matches("Entity with id \\[[0-9]+\\] not found");
-                verify(repository, never()).save(any());
+            }
+
+            @Test
+            @DisplayName("update(user with outdated version) => throw VersionConflictException")
+            public void update_whenVersionChanged_throwVersionConflictException() {
+                User entity = createValidUserWithId();
+                entity.setVersion(3L);
+
+                when(repository.updateReturning(entity)).thenReturn(Optional.empty());
+                when(repository.existsById(entity.getId())).thenReturn(true);
+                VersionConflictException ex = Assertions.assertThrows(
+                        VersionConflictException.class, () -> service.update(entity));
+
+                assertThat(ex.getMessage()).isEqualTo("Entity with id [1] was changed, expected version [3]");
+            }
+
+            @Test
+            @DisplayName("update(user with version, id not exist in DB) => throw NotFoundException")
+            public void update_whenVersionedAndIdNotExistInDB_throwNotFoundException() {
+                User entity = createValidUserWithId();
+                entity.setVersion(3L);
+
+                when(repository.updateReturning(entity)).thenReturn(Optional.empty());
+                when(repository.existsById(entity.getId())).thenReturn(false);
+
+                Assertions.assertThrows(NotFoundException.class, () -> service.update(entity));
             }
 
             @Test
@@ -357,13 +486,22 @@ public class UserServiceUnitTest {
             public void update_whenLoginIsNotUnique_throwApplicationException() {
                 User entity = createValidUserWithId();
 
-                when(repository.existsById(entity.getId())).thenReturn(true);
-                when(repository.findByLogin(entity.getLogin())).thenReturn(Optional.of(withId(2L, createValidUserWithoutId())));
+                when(repository.updateReturning(entity)).thenThrow(loginNotUnique());
                 ApplicationException ex = Assertions.assertThrows(
                         ApplicationException.class, () -> service.update(entity));
 
                 assertThat(ex.getMessage()).isEqualTo(format("User with login '%s' already exist", entity.getLogin()));
-                verify(repository, never()).save(any());
+            }
+
+            @Test
+            @DisplayName("update(User violates unknown constraint) => throw DataIntegrityViolationException")
+            public void update_whenUnknownConstraintViolated_throwDataIntegrityViolationException() {
+                User entity = createValidUserWithId();
+
+                when(repository.updateReturning(entity)).thenThrow(new DataIntegrityViolationException("unknown",
+                        new ConstraintViolationException("unknown", new SQLException(), "unknown")));
+
+                Assertions.assertThrows(DataIntegrityViolationException.class, () -> service.update(entity));
             }
         }
     }
@@ -377,14 +515,16 @@ public class UserServiceUnitTest {
         class Positive {
 
             @Test
-            @DisplayName("delete(id exist) => repository.deleteById(id)")
-            public void delete_whenIsValidAndIdExist_callRepositorySave() {
+            @DisplayName("delete(id exist) => only repository.deleteInOneStatement(id)")
+            public void delete_whenIsValidAndIdExist_callRepositoryDeleteInOneStatement() {
                 long id = 1L;
 
-                when(repository.existsById(id)).thenReturn(true);
+                when(repository.deleteInOneStatement(id)).thenReturn(1);
                 service.delete(id);
 
-                verify(repository, times(1)).deleteById(id);
+                verify(repository, times(1)).deleteInOneStatement(id);
+                verify(repository, never()).existsById(anyLong());
+                verify(repository, never()).deleteById(any());
             }
         }
 
@@ -399,7 +539,7 @@ public class UserServiceUnitTest {
                         IllegalArgumentException.class, () -> service.delete(null));
 
                 assertThat(ex.getMessage()).isEqualTo("id must not be null");
-                verify(repository, never()).deleteById(any());
+                verify(repository, never()).deleteInOneStatement(any());
             }
 
             @Test
@@ -407,13 +547,225 @@ public class UserServiceUnitTest {
             public void delete_whenIdNotExistInDB_throwNotFoundException() {
                 long id = 1L;
 
-                when(repository.existsById(id)).thenReturn(false);
+                when(repository.deleteInOneStatement(id)).thenReturn(0);
                 NotFoundException ex = Assertions.assertThrows(
                         NotFoundException.class, () -> service.delete(id));
 
                 assertThat(ex.getMessage()).matches("Entity with id \\[[0-9]+\\] not found");
-                verify(repository, never()).deleteById(any());
             }
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("createAll(users)")
+    class CreateAll {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("createAll(valid users) => only repository.saveAllInBatch(users), without query of logins")
+            public void createAll_whenIsValid_callRepositorySaveAllInBatch() {
+                User first = createValidUserWithoutId();
+                User second = createValidUserWithoutId();
+                second.setLogin("second");
+                List<User> users = List.of(first, second);
+
+                when(repository.saveAllInBatch(users)).thenReturn(List.of(createValidUserWithId()));
+                service.createAll(users);
+
+                verify(repository, never()).findByLogin(anyString());
+                verify(repository, times(1)).saveAllInBatch(users);
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("createAll(users with same login) => throw ApplicationException(\"User with login already exist\")")
+            public void createAll_whenLoginIsNotUniqueInBatch_throwApplicationException() {
+                List<User> users = List.of(createValidUserWithoutId(), createValidUserWithoutId());
+
+                ApplicationException ex = Assertions.assertThrows(
+                        ApplicationException.class, () -> service.createAll(users));
+
+                assertThat(ex.getMessage()).isEqualTo(format("User with login '%s' already exist", users.get(0).getLogin()));
+                verify(repository, never()).saveAllInBatch(any());
+            }
+
+            @Test
+            @DisplayName("createAll(user with login exist in DB) => throw ApplicationException(\"User with login already exist\") with login from DB error")
+            public void createAll_whenLoginIsNotUniqueInDB_throwApplicationException() {
+                List<User> users = List.of(createValidUserWithoutId());
+
+                when(repository.saveAllInBatch(users)).thenThrow(new DataIntegrityViolationException("not unique",
+                        new ConstraintViolationException("not unique", new SQLException(
+                                "ERROR: duplicate key value violates unique constraint \"users_login_key\"\n"
+                                        + "  Detail: Key (login)=(admin) already exists."),
+                                User.LOGIN_UNIQUE_CONSTRAINT)));
+                ApplicationException ex = Assertions.assertThrows(
+                        ApplicationException.class, () -> service.createAll(users));
+
+                assertThat(ex.getMessage()).isEqualTo("User with login 'admin' already exist");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("updateAll(users)")
+    class UpdateAll {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("updateAll(valid users with exist ids) => repository.saveAllInBatch(users)")
+            public void updateAll_whenIsValidAndIdsExist_callRepositorySaveAllInBatch() {
+                List<User> users = List.of(createValidUserWithId());
+
+                when(repository.findExistingIds(List.of(1L))).thenReturn(Set.of(1L));
+                service.updateAll(users);
+
+                verify(repository, never()).existsById(anyLong());
+                verify(repository, times(1)).saveAllInBatch(users);
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("updateAll(id not exist in DB) => throw NotFoundException(\"Entity with id not found\")")
+            public void updateAll_whenIdNotExistInDB_throwNotFoundException() {
+                List<User> users = List.of(createValidUserWithId(), withId(2L, createValidUserWithoutId()));
+
+                when(repository.findExistingIds(List.of(1L, 2L))).thenReturn(Set.of(1L));
+                NotFoundException ex = Assertions.assertThrows(
+                        NotFoundException.class, () -> service.updateAll(users));
+
+                assertThat(ex.getMessage()).isEqualTo("Entity with id [2] not found");
+                verify(repository, never()).saveAllInBatch(any());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("deleteAll(ids)")
+    class DeleteAll {
+
+        @Nested
+        @DisplayName("+ positive")
+        class Positive {
+
+            @Test
+            @DisplayName("deleteAll(ids exist) => repository.deleteAllByIdInBatch(ids)")
+            public void deleteAll_whenIdsExist_callRepositoryDeleteAllByIdInBatch() {
+                List<Long> ids = List.of(1L, 2L);
+
+                when(repository.findExistingIds(ids)).thenReturn(Set.of(1L, 2L));
+                service.deleteAll(ids);
+
+                verify(repository, times(1)).deleteAllByIdInBatch(ids);
+            }
+        }
+
+        @Nested
+        @DisplayName("- negative")
+        class Negative {
+
+            @Test
+            @DisplayName("deleteAll(id not exist in DB) => throw NotFoundException(\"Entity with id not found\")")
+            public void deleteAll_whenIdNotExistInDB_throwNotFoundException() {
+                List<Long> ids = List.of(1L, 2L);
+
+                when(repository.findExistingIds(ids)).thenReturn(Set.of(2L));
+                NotFoundException ex = Assertions.assertThrows(
+                        NotFoundException.class, () -> service.deleteAll(ids));
+
+                assertThat(ex.getMessage()).isEqualTo("Entity with id [1] not found");
+                verify(repository, never()).deleteAllByIdInBatch(any());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("cache")
+    class Cache {
+
+        @Test
+        @DisplayName("get(id) twice => repository.findById(id) once")
+        public void get_whenCalledTwice_callRepositoryFindByIdOnce() {
+            User entity = createValidUserWithId();
+
+            when(repository.findById(entity.getId())).thenReturn(Optional.of(entity));
+            service.get(entity.getId());
+            User actual = service.get(entity.getId());
+
+            assertThat(actual).isSameAs(entity);
+            verify(repository, times(1)).findById(entity.getId());
+            assertAll(
+                    () -> assertThat(service.getCache().getHits()).isEqualTo(1),
+                    () -> assertThat(service.getCache().getMisses()).isEqualTo(1)
+            );
+        }
+
+        @Test
+        @DisplayName("get(id, view) twice => view is mapped once")
+        public void getView_whenCalledTwice_mapOnce() {
+            User entity = createValidUserWithId();
+            AtomicInteger mapped = new AtomicInteger();
+
+            when(repository.findById(entity.getId())).thenReturn(Optional.of(entity));
+            String first = service.get(entity.getId(), String.class, u -> u.getLogin() + mapped.incrementAndGet());
+            String second = service.get(entity.getId(), String.class, u -> u.getLogin() + mapped.incrementAndGet());
+
+            assertThat(second).isSameAs(first);
+            assertThat(mapped).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("update(entity) => next get(id) calls repository.findById(id)")
+        public void update_whenEntityCached_evictEntity() {
+            User entity = createValidUserWithId();
+
+            when(repository.findById(entity.getId())).thenReturn(Optional.of(entity));
+            when(repository.updateReturning(entity)).thenReturn(Optional.of(entity));
+            service.get(entity.getId());
+            service.update(entity);
+            service.get(entity.getId());
+
+            verify(repository, times(2)).findById(entity.getId());
+        }
+
+        @Test
+        @DisplayName("delete(id) => next get(id) calls repository.findById(id)")
+        public void delete_whenEntityCached_evictEntity() {
+            User entity = createValidUserWithId();
+
+            when(repository.findById(entity.getId())).thenReturn(Optional.of(entity));
+            when(repository.deleteInOneStatement(entity.getId())).thenReturn(1);
+            service.get(entity.getId());
+            service.delete(entity.getId());
+            when(repository.findById(entity.getId())).thenReturn(Optional.empty());
+
+            Assertions.assertThrows(NotFoundException.class, () -> service.get(entity.getId()));
+        }
+
+        @Test
+        @DisplayName("exist(id cached) => repository.existsById(id) isn't called")
+        public void exist_whenEntityCached_notCallRepositoryExistsById() {
+            User entity = createValidUserWithId();
+
+            when(repository.findById(entity.getId())).thenReturn(Optional.of(entity));
+            service.get(entity.getId());
+
+            assertThat(service.exist(entity.getId())).isTrue();
+            verify(repository, never()).existsById(anyLong());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package net.pet.project.simplerest.unit.service.cache;
+
+import net.pet.project.simplerest.service.cache.EntityCache;
+import net.pet.project.simplerest.service.cache.EntityCacheSettings;
+import net.pet.project.simplerest.service.cache.EvictionPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+@DisplayName("Unit: EntityCache")
+public class EntityCacheUnitTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Optional<String> load(Long id) {
+        loads.incrementAndGet();
+        return Optional.of("entity" + id);
+    }
+
+    @Test
+    @DisplayName("create(settings = null) => every get calls loader")
+    public void get_whenCacheDisabled_callLoaderEveryTime() {
+        EntityCache<Long, String> cache = EntityCache.create("test", null);
+
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.isEnabled()).isFalse();
+    }
+
+    @Test
+    @DisplayName("LRU, cache is full => least recently used entry is evicted")
+    public void get_whenLruCacheIsFull_evictLeastRecentlyUsed() {
+        EntityCache<Long, String> cache = EntityCache.create("test", EntityCacheSettings.builder()
+                .policy(EvictionPolicy.LRU)
+                .maximumSize(2)
+                .build());
+
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(1L, this::load);
+        cache.get(3L, this::load);
+
+        assertAll(
+                () -> assertThat(cache.contains(1L)).isTrue(),
+                () -> assertThat(cache.contains(2L)).isFalse(),
+                () -> assertThat(cache.contains(3L)).isTrue(),
+                () -> assertThat(cache.getEvictions()).isEqualTo(1),
+                () -> assertThat(cache.getHits()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    @DisplayName("LRU, entry is expired => get calls loader")
+    public void get_whenLruEntryExpired_callLoader() throws InterruptedException {
+        EntityCache<Long, String> cache = EntityCache.create("test", EntityCacheSettings.builder()
+                .policy(EvictionPolicy.LRU)
+                .maximumSize(10)
+                .expireAfterWrite(Duration.ofMillis(1))
+                .build());
+
+        cache.get(1L, this::load);
+        Thread.sleep(5);
+        cache.get(1L, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("evict(id) during load => loaded entity isn't cached")
+    public void get_whenEvictedDuringLoad_notCacheEntity() {
+        EntityCache<Long, String> cache = EntityCache.create("test", EntityCacheSettings.builder()
+                .maximumSize(10)
+                .build());
+
+        cache.get(1L, id -> {
+            cache.evict(id);
+            return load(id);
+        });
+
+        assertThat(cache.contains(1L)).isFalse();
+    }
+}
@@ -0,0 +1,125 @@
+package net.pet.project.simplerest.unit.service.cache;
+
+import net.pet.project.simplerest.service.cache.SingleFlight;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+@DisplayName("Unit: SingleFlight")
+public class SingleFlightUnitTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private String blockingLoad(Long id) {
+        loads.incrementAndGet();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "entity" + id;
+    }
+
+    @Test
+    @DisplayName("execute(id) while the same id is in flight => loader is called once, result is shared")
+    public void execute_whenSameKeyInFlight_shareResult() throws Exception {
+        SingleFlight<Long, String> flight = SingleFlight.create("test");
+
+        Future<String> first = executor.submit(() -> flight.execute(1L, this::blockingLoad));
+        awaitCalls(flight, 1);
+        Future<String> second = executor.submit(() -> flight.execute(1L, this::blockingLoad));
+        awaitCalls(flight, 2);
+        release.countDown();
+
+        assertAll(
+                () -> assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("entity1"),
+                () -> assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get()),
+                () -> assertThat(loads).hasValue(1),
+                () -> assertThat(flight.getExecutions()).isEqualTo(1),
+                () -> assertThat(flight.getShared()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    @DisplayName("execute(id) after end of call => loader is called again")
+    public void execute_whenCallEnded_callLoaderAgain() {
+        SingleFlight<Long, String> flight = SingleFlight.create("test");
+        release.countDown();
+
+        flight.execute(1L, this::blockingLoad);
+        flight.execute(1L, this::blockingLoad);
+
+        assertThat(loads).hasValue(2);
+        assertThat(flight.getShared()).isZero();
+    }
+
+    @Test
+    @DisplayName("execute(id) while the same id is in flight and loader fails => every caller gets exception")
+    public void execute_whenLoaderFails_shareException() throws Exception {
+        SingleFlight<Long, String> flight = SingleFlight.create("test");
+
+        Future<String> first = executor.submit(() -> flight.execute(1L, id -> {
+            blockingLoad(id);
+            throw new IllegalStateException("db is down");
+        }));
+        awaitCalls(flight, 1);
+        Future<String> second = executor.submit(() -> flight.execute(1L, this::blockingLoad));
+        awaitCalls(flight, 2);
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("forget(id) while the same id is in flight => next caller doesn't join call")
+    public void execute_whenForgotten_callLoaderAgain() throws Exception {
+        SingleFlight<Long, String> flight = SingleFlight.create("test");
+
+        Future<String> first = executor.submit(() -> flight.execute(1L, this::blockingLoad));
+        awaitCalls(flight, 1);
+        flight.forget(1L);
+        Future<String> second = executor.submit(() -> flight.execute(1L, this::blockingLoad));
+        awaitCalls(flight, 2);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        assertThat(loads).hasValue(2);
+        assertThat(flight.getShared()).isZero();
+    }
+
+    private void awaitCalls(SingleFlight<?, ?> flight, long calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((flight.getCalls() < calls || loads.get() < Math.min(calls, 1)) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // caller that joined call waits on future right after increment of calls
+        Thread.sleep(20);
+    }
+}
@@ -0,0 +1,139 @@
+package net.pet.project.simplerest.unit.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.pet.project.simplerest.configuration.idempotency.IdempotencyProperties;
+import net.pet.project.simplerest.dto.administrating.UserDto;
+import net.pet.project.simplerest.exception.IdempotencyKeyReusedException;
+import net.pet.project.simplerest.model.idempotency.IdempotencyRecord;
+import net.pet.project.simplerest.repository.idempotency.IdempotencyRecordRepository;
+import net.pet.project.simplerest.service.idempotency.IdempotencyService;
+import net.pet.project.simplerest.service.idempotency.IdempotentResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.pet.project.simplerest.util.TestData.createValidUserDtoWithoutId;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Unit: IdempotencyService")
+public class IdempotencyServiceUnitTest {
+
+    private static final String KEY = "POST /api/v1/admin/user key-1";
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyService service;
+
+    @BeforeEach
+    void initMock() {
+        MockitoAnnotations.openMocks(this);
+        service = new IdempotencyService(repository, jdbcTemplate, new IdempotencyProperties(), new ObjectMapper());
+    }
+
+    private UserDto create() {
+        executions.incrementAndGet();
+        UserDto dto = createValidUserDtoWithoutId();
+        dto.setId(1L);
+        dto.setVersion(0L);
+        return dto;
+    }
+
+    private String eTag(UserDto dto) {
+        return "\"" + dto.getVersion() + "\"";
+    }
+
+    private void keyIsClaimed(boolean claimed) {
+        when(jdbcTemplate.update(anyString(), (Object[]) any())).thenReturn(claimed ? 1 : 0);
+    }
+
+    @Test
+    @DisplayName("execute(new key) => action is executed, response is stored")
+    public void execute_newKey_executeAndStore() {
+        keyIsClaimed(true);
+
+        IdempotentResult<UserDto> result = service.execute(KEY, "hash", UserDto.class, this::create, this::eTag);
+
+        assertAll(
+                () -> assertThat(result.isReplayed()).isFalse(),
+                () -> assertThat(result.getValue().getId()).isEqualTo(1L),
+                () -> assertThat(result.getETag()).isEqualTo("\"0\""),
+                () -> assertThat(executions).hasValue(1)
+        );
+        verify(repository).complete(eq(KEY), any(), eq("\"0\""));
+    }
+
+    @Test
+    @DisplayName("execute(used key, the same request) => stored response with read-only fields, action isn't executed")
+    public void execute_usedKey_replayStoredResponse() {
+        keyIsClaimed(false);
+        when(repository.findById(KEY)).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .id(KEY)
+                .requestHash("hash")
+                .response("{\"id\":1,\"login\":\"admin\",\"active\":true,\"version\":3}")
+                .etag("\"3\"")
+                .build()));
+
+        IdempotentResult<UserDto> result = service.execute(KEY, "hash", UserDto.class, this::create, this::eTag);
+
+        assertAll(
+                () -> assertThat(result.isReplayed()).isTrue(),
+                () -> assertThat(result.getValue().getId()).isEqualTo(1L),
+                () -> assertThat(result.getValue().getVersion()).isEqualTo(3L),
+                () -> assertThat(result.getETag()).isEqualTo("\"3\""),
+                () -> assertThat(executions).hasValue(0)
+        );
+        verify(repository, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("execute(used key, another request) => IdempotencyKeyReusedException, action isn't executed")
+    public void execute_usedKeyAnotherRequest_throwException() {
+        keyIsClaimed(false);
+        when(repository.findById(KEY)).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .id(KEY)
+                .requestHash("another hash")
+                .response("{}")
+                .build()));
+
+        assertThatThrownBy(() -> service.execute(KEY, "hash", UserDto.class, this::create, this::eTag))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("hash(request) => the same for equal requests, another for another body or header")
+    public void hash_requests_dependsOnEveryPart() {
+        UserDto another = createValidUserDtoWithoutId();
+        another.setLogin("another");
+
+        assertAll(
+                () -> assertThat(service.hash(createValidUserDtoWithoutId(), "\"1\""))
+                        .hasSize(64)
+                        .isEqualTo(service.hash(createValidUserDtoWithoutId(), "\"1\"")),
+                () -> assertThat(service.hash(createValidUserDtoWithoutId(), "\"1\""))
+                        .isNotEqualTo(service.hash(createValidUserDtoWithoutId(), "\"2\"")),
+                () -> assertThat(service.hash(createValidUserDtoWithoutId()))
+                        .isNotEqualTo(service.hash(another))
+        );
+    }
+}
@@ -0,0 +1,107 @@
+package net.pet.project.simplerest.unit.service.index;
+
+import net.pet.project.simplerest.service.index.BloomFilter;
+import net.pet.project.simplerest.service.index.KeyIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+@DisplayName("Unit: KeyIndex")
+public class KeyIndexUnitTest {
+
+    @Test
+    @DisplayName("BloomFilter.mightContain(key) => true for every added key, false positives about expected probability")
+    public void mightContain_addedKeys_noFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i));
+
+        long falsePositives = IntStream.range(10_000, 20_000).filter(i -> filter.mightContain("user" + i)).count();
+
+        assertAll(
+                () -> assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i))).isTrue(),
+                () -> assertThat(falsePositives).isLessThan(300)
+        );
+    }
+
+    @Test
+    @DisplayName("mightContain(key) before rebuild => true, lookup goes to DB")
+    public void mightContain_notReady_true() {
+        KeyIndex index = new KeyIndex("test", 1_000, 0.01);
+
+        assertAll(
+                () -> assertThat(index.isReady()).isFalse(),
+                () -> assertThat(index.mightContain("unknown")).isTrue(),
+                () -> assertThat(index.getNegatives()).isZero()
+        );
+    }
+
+    @Test
+    @DisplayName("mightContain(key) after rebuild => false only for keys that weren't loaded or added")
+    public void mightContain_afterRebuild_answerByIndex() {
+        KeyIndex index = new KeyIndex("test", 1_000, 0.01);
+        index.rebuild(consumer -> List.of("admin", "user").forEach(consumer));
+        index.add("created");
+
+        assertAll(
+                () -> assertThat(index.mightContain("admin")).isTrue(),
+                () -> assertThat(index.mightContain("created")).isTrue(),
+                () -> assertThat(index.mightContain("unknown")).isFalse(),
+                () -> assertThat(index.getNegatives()).isEqualTo(1),
+                () -> assertThat(index.getSize()).isEqualTo(3)
+        );
+    }
+
+    @Test
+    @DisplayName("rebuild() doesn't lose keys that were added before and during build (not committed yet)")
+    public void rebuild_keysAddedBeforeAndDuringBuild_kept() {
+        KeyIndex index = new KeyIndex("test", 1_000, 0.01);
+        index.add("before");
+        index.rebuild(consumer -> {
+            index.add("during");
+            consumer.accept("loaded");
+        });
+
+        assertThat(List.of("before", "during", "loaded")).allMatch(index::mightContain);
+    }
+
+    @Test
+    @DisplayName("reset() during rebuild => index isn't ready, loader could miss keys")
+    public void rebuild_resetDuringBuild_notReady() {
+        KeyIndex index = new KeyIndex("test", 1_000, 0.01);
+        index.rebuild(consumer -> index.reset());
+
+        assertThat(index.isReady()).isFalse();
+    }
+
+    @Test
+    @DisplayName("add(key) concurrently with rebuild() => key isn't lost by swap of filter")
+    public void add_concurrentWithRebuild_keyKept() throws Exception {
+        KeyIndex index = new KeyIndex("test", 100_000, 0.01);
+        index.rebuild(consumer -> { });
+        AtomicBoolean adding = new AtomicBoolean(true);
+        AtomicInteger added = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            while (adding.get()) {
+                index.add("user" + added.getAndIncrement());
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 200; i++) {
+                index.rebuild(consumer -> { });
+            }
+        } finally {
+            adding.set(false);
+            writer.join();
+        }
+
+        assertThat(IntStream.range(0, added.get()).allMatch(i -> index.mightContain("user" + i))).isTrue();
+    }
+}
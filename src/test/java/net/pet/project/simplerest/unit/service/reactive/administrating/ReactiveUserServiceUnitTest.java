@@ -0,0 +1,130 @@
+package net.pet.project.simplerest.unit.service.reactive.administrating;
+
+import net.pet.project.simplerest.configuration.reactive.ReactiveTransactions;
+import net.pet.project.simplerest.exception.NotFoundException;
+import net.pet.project.simplerest.exception.VersionConflictException;
+import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.repository.reactive.administrating.ReactiveUserRepository;
+import net.pet.project.simplerest.service.reactive.administrating.ReactiveUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static net.pet.project.simplerest.util.TestData.createValidUserWithId;
+import static net.pet.project.simplerest.util.TestData.createValidUserWithoutId;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Unit: ReactiveUserService")
+public class ReactiveUserServiceUnitTest {
+
+    private ReactiveUserRepository repository;
+    private ReactiveUserService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void init() {
+        repository = mock(ReactiveUserRepository.class);
+        TransactionalOperator operator = mock(TransactionalOperator.class);
+        when(operator.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(operator.transactional(any(Flux.class))).thenAnswer(inv -> inv.getArgument(0));
+        ReactiveTransactions transactions = mock(ReactiveTransactions.class);
+        when(transactions.getWrite()).thenReturn(operator);
+        when(transactions.getReadOnly()).thenReturn(operator);
+        service = new ReactiveUserService(repository, transactions);
+    }
+
+    @Test
+    @DisplayName("get(id not exist) => NotFoundException")
+    public void get_idNotExist_notFound() {
+        when(repository.findById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.get(1L))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("create(user with id) => IllegalArgumentException, dont call repository.insert(user)")
+    public void create_userWithId_illegalArgument() {
+        StepVerifier.create(service.create(createValidUserWithId()))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verify(repository, never()).insert(any());
+    }
+
+    @Test
+    @DisplayName("create(user) and insert violates not known constraint => DataIntegrityViolationException")
+    public void create_unknownConstraintViolation_notTranslated() {
+        when(repository.insert(any())).thenReturn(Mono.error(new DataIntegrityViolationException("not null")));
+
+        StepVerifier.create(service.create(createValidUserWithoutId()))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("update(user with outdated version) => VersionConflictException")
+    public void update_versionChanged_versionConflict() {
+        User user = createValidUserWithId();
+        user.setVersion(3L);
+        when(repository.updateReturning(user)).thenReturn(Mono.empty());
+        when(repository.existsById(1L)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.update(user))
+                .expectError(VersionConflictException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("update(user with version, id not exist) => NotFoundException")
+    public void update_versionedIdNotExist_notFound() {
+        User user = createValidUserWithId();
+        user.setVersion(3L);
+        when(repository.updateReturning(user)).thenReturn(Mono.empty());
+        when(repository.existsById(1L)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.update(user))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("update(user without version, id not exist) => NotFoundException, dont call repository.existsById(id)")
+    public void update_idNotExist_notFound() {
+        User user = createValidUserWithId();
+        when(repository.updateReturning(user)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.update(user))
+                .expectError(NotFoundException.class)
+                .verify();
+        verify(repository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("delete(id not exist) => NotFoundException")
+    public void delete_idNotExist_notFound() {
+        when(repository.deleteById(1L)).thenReturn(Mono.just(0));
+
+        StepVerifier.create(service.delete(1L))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("delete(id) => complete")
+    public void delete_idExist_complete() {
+        when(repository.deleteById(1L)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(service.delete(1L))
+                .verifyComplete();
+    }
+}
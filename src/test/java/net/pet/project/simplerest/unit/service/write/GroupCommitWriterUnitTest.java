@@ -0,0 +1,211 @@
+package net.pet.project.simplerest.unit.service.write;
+
+import net.pet.project.simplerest.exception.OverloadException;
+import net.pet.project.simplerest.model.administrating.User;
+import net.pet.project.simplerest.service.write.GroupCommitWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Unit: GroupCommitWriter")
+public class GroupCommitWriterUnitTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AtomicLong ids = new AtomicLong();
+    private final List<List<String>> insertedBatches = new CopyOnWriteArrayList<>();
+    private final List<String> insertedStates = new CopyOnWriteArrayList<>();
+
+    private GroupCommitWriter<User> writer;
+
+    @AfterEach
+    void close() {
+        writer.close();
+    }
+
+    private GroupCommitWriter<User> writer(int batchSize, Duration maxDelay, int queueCapacity,
+                                           Function<List<User>, List<User>> createAll) {
+        return new GroupCommitWriter<>("User", batchSize, maxDelay, queueCapacity,
+                new TransactionTemplate(transactionManager), createAll, user -> user);
+    }
+
+    /**
+     * Insert that fails for login "duplicate" (as unique constraint) and rolls back whole batch.
+     * Like persist, it assigns id and seeds version before failure
+     */
+    private List<User> insert(List<User> users) {
+        insertedBatches.add(users.stream().map(User::getLogin).collect(toList()));
+        users.forEach(u -> insertedStates.add(u.getLogin() + ":" + u.getId() + ":" + u.getVersion()));
+        users.forEach(u -> {
+            u.setId(ids.incrementAndGet());
+            u.setVersion(0L);
+        });
+        if (users.stream().anyMatch(u -> "duplicate".equals(u.getLogin()))) {
+            throw new IllegalStateException("login already exists");
+        }
+        return users;
+    }
+
+    private static User user(String login) {
+        return User.builder().login(login).password("password").active(true).build();
+    }
+
+    @Test
+    @DisplayName("create(user) * batchSize => one transaction, every future gets own created user")
+    public void create_concurrentWrites_oneTransaction() throws Exception {
+        writer = writer(3, Duration.ofSeconds(5), 100, this::insert);
+
+        List<CompletableFuture<User>> results = List.of(
+                writer.create(user("a")), writer.create(user("b")), writer.create(user("c")));
+
+        assertAll(
+                () -> assertThat(results.get(0).get(5, TimeUnit.SECONDS).getLogin()).isEqualTo("a"),
+                () -> assertThat(results.get(2).get(5, TimeUnit.SECONDS).getLogin()).isEqualTo("c"),
+                () -> assertThat(insertedBatches).containsExactly(List.of("a", "b", "c")),
+                () -> assertThat(writer.getBatches()).isEqualTo(1),
+                () -> assertThat(writer.getWrites()).isEqualTo(3)
+        );
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("create(user) without other writes => committed after maxDelay in batch of one write")
+    public void create_singleWrite_committedAfterMaxDelay() throws Exception {
+        writer = writer(100, Duration.ofMillis(10), 100, this::insert);
+
+        User created = writer.create(user("a")).get(5, TimeUnit.SECONDS);
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(insertedBatches).containsExactly(List.of("a"));
+    }
+
+    @Test
+    @DisplayName("create(user) when batch fails => writes are repeated one by one, only failed write gets exception")
+    public void create_batchFails_everyWriteGetsOwnResult() throws Exception {
+        writer = writer(3, Duration.ofSeconds(5), 100, this::insert);
+
+        CompletableFuture<User> first = writer.create(user("a"));
+        CompletableFuture<User> duplicate = writer.create(user("duplicate"));
+        CompletableFuture<User> last = writer.create(user("c"));
+
+        assertAll(
+                () -> assertThat(first.get(5, TimeUnit.SECONDS).getLogin()).isEqualTo("a"),
+                () -> assertThat(last.get(5, TimeUnit.SECONDS).getLogin()).isEqualTo("c"),
+                () -> assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(IllegalStateException.class),
+                () -> assertThat(insertedBatches)
+                        .containsExactly(List.of("a", "duplicate", "c"), List.of("a"), List.of("duplicate"), List.of("c")),
+                () -> assertThat(writer.getFallbacks()).isEqualTo(1),
+                () -> assertThat(writer.getBatches()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    @DisplayName("create(user) when batch fails => id and version of repeated write are reset to state before batch")
+    public void create_batchFails_stateOfRepeatedWriteIsReset() throws Exception {
+        writer = writer(2, Duration.ofSeconds(5), 100, this::insert);
+
+        CompletableFuture<User> created = writer.create(user("a"));
+        CompletableFuture<User> duplicate = writer.create(user("duplicate"));
+
+        assertAll(
+                () -> assertThat(created.get(5, TimeUnit.SECONDS).getVersion()).isZero(),
+                () -> assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(IllegalStateException.class),
+                () -> assertThat(insertedStates).containsExactly(
+                        "a:null:null", "duplicate:null:null", "a:null:null", "duplicate:null:null")
+        );
+    }
+
+    @Test
+    @DisplayName("create(user) when queue is full => OverloadException")
+    public void create_queueIsFull_overload() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        writer = writer(1, Duration.ZERO, 1, users -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return insert(users);
+        });
+
+        CompletableFuture<User> inTransaction = writer.create(user("a"));
+        while (writer.getQueueSize() > 0) {
+            Thread.sleep(5);
+        }
+        CompletableFuture<User> queued = writer.create(user("b"));
+        CompletableFuture<User> rejected = writer.create(user("c"));
+        release.countDown();
+
+        assertAll(
+                () -> assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(OverloadException.class),
+                () -> assertThat(inTransaction.get(5, TimeUnit.SECONDS).getLogin()).isEqualTo("a"),
+                () -> assertThat(queued.get(5, TimeUnit.SECONDS).getLogin()).isEqualTo("b")
+        );
+    }
+
+    @Test
+    @DisplayName("close() => queued writes are committed, next writes are rejected")
+    public void close_queuedWrites_committed() throws Exception {
+        writer = writer(100, Duration.ofSeconds(1), 100, this::insert);
+
+        CompletableFuture<User> queued = writer.create(user("a"));
+        writer.close();
+
+        assertThat(queued).isCompleted();
+        assertThat(queued.get().getId()).isNotNull();
+        assertThat(writer.create(user("b"))).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("close() concurrently with writes => every write is committed or rejected, none is lost")
+    public void close_concurrentWrites_everyFutureCompleted() throws Exception {
+        writer = writer(10, Duration.ofMillis(1), 10_000, this::insert);
+        List<CompletableFuture<User>> results = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> writers = IntStream.range(0, 4)
+                .mapToObj(i -> new Thread(() -> {
+                    started.countDown();
+                    for (int j = 0; j < 1000; j++) {
+                        results.add(writer.create(user("u" + i + "-" + j)));
+                    }
+                }))
+                .collect(toList());
+        writers.forEach(Thread::start);
+
+        started.await(5, TimeUnit.SECONDS);
+        writer.close();
+        for (Thread thread : writers) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .handle((r, e) -> null)
+                .get(5, TimeUnit.SECONDS);
+        assertThat(results).hasSize(4000).allMatch(CompletableFuture::isDone);
+    }
+}
@@ -1,6 +1,8 @@
 package net.pet.project.simplerest.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import net.pet.project.simplerest.dto.administrating.UserDto;
 import net.pet.project.simplerest.model.IEntity;
 import net.pet.project.simplerest.model.administrating.User;
@@ -8,12 +10,19 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.params.provider.Arguments.of;
 
 public final class TestData {
@@ -30,6 +39,13 @@ public final class TestData {
         return new PageImpl<>(content);
     }
 
+    /**
+     * Tuple with elements in order of {@code values}, as tuple query returns for selected fields
+     */
+    public static Tuple inTuple(LinkedHashMap<String, Object> values) {
+        return new MapTuple(values);
+    }
+
     public static String asJsonString(final Object obj) {
         try {
             return new ObjectMapper().writeValueAsString(obj);
@@ -87,4 +103,60 @@ public final class TestData {
                 .active(true)
                 .build();
     }
+
+    private static class MapTuple implements Tuple {
+
+        private final List<String> aliases;
+        private final List<Object> values;
+
+        private MapTuple(LinkedHashMap<String, Object> values) {
+            this.aliases = new ArrayList<>(values.keySet());
+            this.values = new ArrayList<>(values.values());
+        }
+
+        @Override
+        public <X> X get(TupleElement<X> tupleElement) {
+            return tupleElement.getJavaType().cast(get(tupleElement.getAlias()));
+        }
+
+        @Override
+        public <X> X get(String alias, Class<X> type) {
+            return type.cast(get(alias));
+        }
+
+        @Override
+        public Object get(String alias) {
+            return get(aliases.indexOf(alias));
+        }
+
+        @Override
+        public <X> X get(int i, Class<X> type) {
+            return type.cast(get(i));
+        }
+
+        @Override
+        public Object get(int i) {
+            return values.get(i);
+        }
+
+        @Override
+        public Object[] toArray() {
+            return values.toArray();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<TupleElement<?>> getElements() {
+            return IntStream.range(0, aliases.size())
+                    .mapToObj(i -> new Element<>((Class<Object>) Objects.requireNonNullElse(values.get(i), new Object()).getClass(), aliases.get(i)))
+                    .collect(toList());
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Element<X> implements TupleElement<X> {
+        private final Class<? extends X> javaType;
+        private final String alias;
+    }
 }